@@ -0,0 +1,222 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * A renderer that renders on its own thread, so the game never waits for a slow console or log.
+ * Every call to renderBoard copies the board into a frame of a bounded ring buffer, and a background
+ * thread renders the frames in order with the wrapped renderer. The frames are allocated once and
+ * reused, and a frame is only read by the background thread once it has been taken off the ring.
+ * It implements the Renderer interface.
+ *
+ * @author Amir Rosengarten
+ */
+public class AsyncRenderer implements Renderer, AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * What renderBoard does when the ring buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait until the background thread takes a frame. */
+        BLOCK,
+        /** Drop the oldest waiting frame. */
+        DROP,
+        /** Replace all waiting frames with the newest one, whether the buffer is full or not. */
+        COALESCE
+    }
+
+    private final Renderer renderer;
+    private final OverflowPolicy policy;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition idle = lock.newCondition();
+    private final Thread thread;
+    private Board[] frames;
+    private Board rendering;
+    private int head;
+    private int count;
+    private boolean busy;
+    private boolean closed;
+    private long dropped;
+
+    /**
+     * Constructs a new AsyncRenderer with the default capacity that blocks when full.
+     *
+     * @param renderer The renderer to render the frames with.
+     */
+    public AsyncRenderer(Renderer renderer) {
+        this(renderer, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Constructs a new AsyncRenderer and starts its background thread.
+     *
+     * @param renderer The renderer to render the frames with.
+     * @param capacity The number of frames that can wait to be rendered.
+     * @param policy   What to do when the ring buffer is full.
+     */
+    public AsyncRenderer(Renderer renderer, int capacity, OverflowPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.renderer = renderer;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.thread = new Thread(this::renderFrames, "async-renderer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a copy of the board to be rendered.
+     *
+     * @param board The board to render.
+     */
+    @Override
+    public void renderBoard(Board board) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Renderer is closed");
+            }
+            if (frames == null || frames[0].getSize() != board.getSize()) {
+                allocateFrames(board.getSize());
+            }
+            if (policy == OverflowPolicy.COALESCE && count > 0) {
+                // Every queued frame is replaced by the new one
+                head = (head + count - 1) % capacity;
+                dropped += count;
+                count = 1;
+                frames[head].copyFrom(board);
+                return;
+            }
+            while (count == capacity) {
+                if (policy == OverflowPolicy.DROP) {
+                    head = (head + 1) % capacity;
+                    count--;
+                    dropped++;
+                } else {
+                    notFull.awaitUninterruptibly();
+                }
+            }
+            frames[(head + count) % capacity].copyFrom(board);
+            count++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every queued frame has been rendered.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            while (count > 0 || busy) {
+                idle.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of frames that were dropped or coalesced away.
+     *
+     * @return The number of dropped frames.
+     */
+    public long getDroppedFrames() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Renders the frames that are still queued and stops the background thread.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Allocates the frames of the ring buffer for a board size. Frames still waiting are dropped.
+     *
+     * @param size The size of the board.
+     */
+    private void allocateFrames(int size) {
+        while (busy) {
+            idle.awaitUninterruptibly();
+        }
+        frames = new Board[capacity];
+        for (int i = 0; i < capacity; i++) {
+            frames[i] = new Board(size);
+        }
+        rendering = new Board(size);
+        dropped += count;
+        head = 0;
+        count = 0;
+    }
+
+    /**
+     * The loop of the background thread. A frame is taken by swapping it with the board that was
+     * rendered last, so the game thread never writes to a frame that is being rendered.
+     */
+    private void renderFrames() {
+        while (true) {
+            Board frame;
+            lock.lock();
+            try {
+                while (count == 0 && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (count == 0) {
+                    idle.signalAll();
+                    return;
+                }
+                frame = frames[head];
+                frames[head] = rendering;
+                rendering = frame;
+                head = (head + 1) % capacity;
+                count--;
+                busy = true;
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                renderer.renderBoard(frame);
+            } catch (RuntimeException e) {
+                Logger.getGlobal().severe("Rendering failed: " + e);
+            }
+            lock.lock();
+            try {
+                busy = false;
+                if (count == 0) {
+                    idle.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
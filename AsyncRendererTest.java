@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the AsyncRenderer class.
+ *
+ * @author Amir Rosengarten
+ */
+class AsyncRendererTest {
+    private static final int SIZE = 3;
+
+    /**
+     * A renderer that records the mark count and last move of every frame, and can be held until
+     * released so frames pile up in the ring buffer.
+     */
+    private static class RecordingRenderer implements Renderer {
+        private final List<String> frames = new ArrayList<>();
+        private final CountDownLatch release;
+
+        RecordingRenderer(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void renderBoard(Board board) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (frames) {
+                frames.add(board.getMarkCount() + ":" + board.getLastRow() + "," + board.getLastCol());
+            }
+        }
+
+        List<String> getFrames() {
+            synchronized (frames) {
+                return new ArrayList<>(frames);
+            }
+        }
+    }
+
+    /**
+     * Plays the cells of the board in order, rendering after every move.
+     *
+     * @param renderer The renderer.
+     * @param moves    The number of moves.
+     */
+    private static void play(Renderer renderer, int moves) {
+        Board board = new Board(SIZE);
+        for (int cell = 0; cell < moves; cell++) {
+            board.putMark(cell % 2 == 0 ? Mark.X : Mark.O, cell / SIZE, cell % SIZE);
+            renderer.renderBoard(board);
+        }
+    }
+
+    /**
+     * Checks that blocking renders every frame in order, each a snapshot of the board at the time.
+     */
+    @Test
+    void checkBlockRendersEveryFrame() {
+        RecordingRenderer recorder = new RecordingRenderer(new CountDownLatch(0));
+        try (AsyncRenderer renderer = new AsyncRenderer(recorder, 2, AsyncRenderer.OverflowPolicy.BLOCK)) {
+            play(renderer, SIZE * SIZE);
+            renderer.flush();
+            assertEquals(0, renderer.getDroppedFrames());
+        }
+        List<String> frames = recorder.getFrames();
+        assertEquals(SIZE * SIZE, frames.size());
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            assertEquals((cell + 1) + ":" + cell / SIZE + "," + cell % SIZE, frames.get(cell));
+        }
+    }
+
+    /**
+     * Checks that dropping keeps the newest frames when the renderer falls behind.
+     */
+    @Test
+    void checkDropKeepsNewestFrames() {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingRenderer recorder = new RecordingRenderer(release);
+        try (AsyncRenderer renderer = new AsyncRenderer(recorder, 2, AsyncRenderer.OverflowPolicy.DROP)) {
+            play(renderer, SIZE * SIZE);
+            release.countDown();
+            renderer.flush();
+            List<String> frames = recorder.getFrames();
+            assertEquals(SIZE * SIZE, frames.size() + renderer.getDroppedFrames());
+            assertEquals(SIZE * SIZE + ":2,2", frames.get(frames.size() - 1));
+            assertTrue(frames.size() <= 3);
+        }
+    }
+
+    /**
+     * Checks that coalescing collapses the waiting frames into the latest one.
+     */
+    @Test
+    void checkCoalesceRendersLatestFrame() {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingRenderer recorder = new RecordingRenderer(release);
+        try (AsyncRenderer renderer = new AsyncRenderer(recorder, 4, AsyncRenderer.OverflowPolicy.COALESCE)) {
+            play(renderer, SIZE * SIZE);
+            release.countDown();
+            renderer.flush();
+            List<String> frames = recorder.getFrames();
+            assertTrue(frames.size() <= 2);
+            assertEquals(SIZE * SIZE, frames.size() + renderer.getDroppedFrames());
+            assertEquals(SIZE * SIZE + ":2,2", frames.get(frames.size() - 1));
+        }
+    }
+
+    /**
+     * Checks that close renders the frames that are still queued.
+     */
+    @Test
+    void checkCloseDrainsQueue() {
+        RecordingRenderer recorder = new RecordingRenderer(new CountDownLatch(0));
+        AsyncRenderer renderer = new AsyncRenderer(recorder);
+        play(renderer, SIZE * SIZE);
+        renderer.close();
+        assertEquals(SIZE * SIZE, recorder.getFrames().size());
+        assertThrows(IllegalStateException.class, () -> renderer.renderBoard(new Board(SIZE)));
+    }
+}
@@ -0,0 +1,253 @@
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * Micro benchmarks for the board, the win checks, whole games and the players, on board sizes 3 to 9.
+ * Every case is warmed up, then measured over several iterations, and reports the mean time and the
+ * mean number of bytes allocated per operation, read from the thread's allocation counter.
+ * Run with an optional case name filter: java Benchmarks [filter]
+ *
+ * @author Amir Rosengarten
+ */
+public class Benchmarks {
+    private static final int MIN_SIZE = 3;
+    private static final int MAX_SIZE = 9;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+    private static final long MIN_ITERATION_NANOS = 50_000_000L;
+    private static final int MAX_STREAK = 4;
+    private static final long SEED = 42;
+    private static final String[] PLAYER_TYPES = {"whatever", "clever", "genius", "minimax", "mcts",
+            "tactician"};
+    private static final String[][] PAIRINGS = {{"whatever", "whatever"}, {"clever", "whatever"},
+            {"genius", "clever"}};
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static long sink;
+
+    /**
+     * One benchmarked operation.
+     */
+    private interface Operation {
+        /**
+         * Runs the operation once.
+         *
+         * @return A value that depends on the work done, so it can't be optimized away.
+         */
+        long run();
+    }
+
+    /**
+     * Runs all benchmarks whose name contains the filter.
+     *
+     * @param args An optional filter.
+     */
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        System.out.printf("%-45s %14s %12s%n", "Benchmark", "ns/op", "B/op");
+        for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+            benchmarkBoard(filter, size, false);
+            benchmarkBoard(filter, size, true);
+        }
+        for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+            benchmarkWinChecks(filter, size);
+        }
+        for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+            for (String[] pairing : PAIRINGS) {
+                benchmarkGame(filter, size, pairing[0], pairing[1]);
+            }
+        }
+        for (String type : PLAYER_TYPES) {
+            for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+                benchmarkPlayer(filter, size, type);
+            }
+        }
+    }
+
+    /**
+     * Benchmarks putMark, by filling a new board, and getMark, by scanning a full one.
+     *
+     * @param filter   The case name filter.
+     * @param size     The size of the board.
+     * @param bitBoard Whether to benchmark a BitBoard instead of a Board.
+     */
+    private static void benchmarkBoard(String filter, int size, boolean bitBoard) {
+        String type = bitBoard ? "BitBoard" : "Board";
+        int cells = size * size;
+        measure(filter, type + ".putMark/" + size, cells, () -> {
+            Board board = bitBoard ? new BitBoard(size) : new Board(size);
+            for (int cell = 0; cell < cells; cell++) {
+                board.putMark((cell & 1) == 0 ? Mark.X : Mark.O, cell / size, cell % size);
+            }
+            return board.getMarkCount();
+        });
+        Board full = bitBoard ? new BitBoard(size) : new Board(size);
+        for (int cell = 0; cell < cells; cell++) {
+            full.putMark((cell & 1) == 0 ? Mark.X : Mark.O, cell / size, cell % size);
+        }
+        measure(filter, type + ".getMark/" + size, cells, () -> {
+            long sum = 0;
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    sum += full.getMark(row, col).ordinal();
+                }
+            }
+            return sum;
+        });
+    }
+
+    /**
+     * Benchmarks every win check of Game on a half full board without a winner, so every check scans
+     * the whole board.
+     *
+     * @param filter The case name filter.
+     * @param size   The size of the board.
+     */
+    private static void benchmarkWinChecks(String filter, int size) {
+        int streak = Math.min(size, MAX_STREAK);
+        Board board = new Board(size);
+        Game game = new Game(null, null, board, streak, new VoidRenderer());
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int placed = 0; placed < size * size / 2; ) {
+            int row = random.nextInt(size);
+            int col = random.nextInt(size);
+            Mark mark = placed % 2 == 0 ? Mark.X : Mark.O;
+            if (board.getMark(row, col) == Mark.BLANK && board.putMark(mark, row, col)) {
+                if (game.checkWinner(board, streak, mark) != Mark.BLANK) {
+                    board = new Board(size);
+                    game = new Game(null, null, board, streak, new VoidRenderer());
+                    placed = 0;
+                } else {
+                    placed++;
+                }
+            }
+        }
+        Board position = board;
+        Game checker = game;
+        measure(filter, "Game.checkHorizontal/" + size, 1,
+                () -> checker.checkHorizontal(position, streak, Mark.X) ? 1 : 0);
+        measure(filter, "Game.checkVertical/" + size, 1,
+                () -> checker.checkVertical(position, streak, Mark.X) ? 1 : 0);
+        measure(filter, "Game.checkDiagonal/" + size, 1,
+                () -> checker.checkDiagonal(position, streak, Mark.X) ? 1 : 0);
+        int[] rows = WinDetector.pack(position, Mark.X, new int[WinDetector.ROWS]);
+        WinDetector scalar = new ScalarWinDetector();
+        measure(filter, "ScalarWinDetector.hasStreak/" + size, 1,
+                () -> scalar.hasStreak(rows, size, streak) ? 1 : 0);
+        WinDetector detector = WinDetector.create();
+        if (!(detector instanceof ScalarWinDetector)) {
+            measure(filter, detector.getClass().getSimpleName() + ".hasStreak/" + size, 1,
+                    () -> detector.hasStreak(rows, size, streak) ? 1 : 0);
+        }
+        measure(filter, "Game.checkLastMove/" + size, 1,
+                () -> Game.checkLastMove(position, streak, position.getMark(position.getLastRow(),
+                        position.getLastCol())).ordinal());
+    }
+
+    /**
+     * Benchmarks a whole game without rendering.
+     *
+     * @param filter  The case name filter.
+     * @param size    The size of the board.
+     * @param playerX The type of the X player.
+     * @param playerO The type of the O player.
+     */
+    private static void benchmarkGame(String filter, int size, String playerX, String playerO) {
+        PlayerFactory factory = new PlayerFactory(SEED);
+        Player first = factory.buildPlayer(playerX);
+        Player second = factory.buildPlayer(playerO);
+        Renderer renderer = new VoidRenderer();
+        int streak = Math.min(size, MAX_STREAK);
+        measure(filter, "Game.run/" + playerX + "-" + playerO + "/" + size, 1,
+                () -> new Game(first, second, size, streak, renderer).run().ordinal());
+    }
+
+    /**
+     * Benchmarks one turn of a player, on a board with one mark of each side. The board is built once and
+     * reset for every operation, so the reset and the two setup marks are measured but nothing is
+     * allocated outside the player.
+     *
+     * @param filter The case name filter.
+     * @param size   The size of the board.
+     * @param type   The type of the player.
+     */
+    private static void benchmarkPlayer(String filter, int size, String type) {
+        Player player = buildBenchmarkPlayer(type);
+        int streak = Math.min(size, MAX_STREAK);
+        player.startGame(size, streak);
+        Board board = new Board(size);
+        measure(filter, "Player.playTurn/" + type + "/" + size, 1, () -> {
+            board.reset();
+            board.putMark(Mark.X, size / 2, size / 2);
+            board.putMark(Mark.O, 0, 0);
+            player.playTurn(board, Mark.X);
+            return board.getLastRow() * size + board.getLastCol();
+        });
+    }
+
+    /**
+     * Builds a player for the benchmarks. The searching players get small budgets, so a turn stays
+     * short enough to measure many of them.
+     *
+     * @param type The type of the player.
+     * @return The player.
+     */
+    private static Player buildBenchmarkPlayer(String type) {
+        switch (type) {
+            case "minimax":
+                return new MinimaxPlayer(1, 16);
+            case "mcts":
+                return new MctsPlayer(new SplittableRandom(SEED), 1, 0, 200);
+            default:
+                return new PlayerFactory(SEED).buildPlayer(type);
+        }
+    }
+
+    /**
+     * Measures a benchmark case, unless its name doesn't match the filter. The number of calls per
+     * iteration doubles until an iteration takes long enough to time reliably.
+     *
+     * @param filter     The case name filter.
+     * @param name       The name of the case.
+     * @param opsPerCall The number of operations done by one call, used to report per operation.
+     * @param operation  The operation to measure.
+     */
+    private static void measure(String filter, String name, int opsPerCall, Operation operation) {
+        if (!name.contains(filter)) {
+            return;
+        }
+        int calls = 1;
+        while (runCalls(operation, calls) < MIN_ITERATION_NANOS) {
+            calls *= 2;
+        }
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            runCalls(operation, calls);
+        }
+        long nanos = 0;
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            nanos += runCalls(operation, calls);
+        }
+        bytes = THREADS.getCurrentThreadAllocatedBytes() - bytes;
+        double ops = (double) calls * opsPerCall * MEASURED_ITERATIONS;
+        System.out.printf("%-45s %14.2f %12.1f%n", name, nanos / ops, bytes / ops);
+    }
+
+    /**
+     * Calls an operation a number of times.
+     *
+     * @param operation The operation.
+     * @param calls     The number of calls.
+     * @return The elapsed time in nanoseconds.
+     */
+    private static long runCalls(Operation operation, int calls) {
+        long start = System.nanoTime();
+        long result = 0;
+        for (int i = 0; i < calls; i++) {
+            result += operation.run();
+        }
+        sink += result;
+        return System.nanoTime() - start;
+    }
+}
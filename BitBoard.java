@@ -0,0 +1,234 @@
+import java.util.Arrays;
+
+/**
+ * A board that keeps one bit mask per mark instead of a matrix of marks. Cell (row, col) is bit
+ * row * size + col. Boards of up to 8x8 fit in a single long per mark, larger boards use arrays of
+ * 64-bit words. Streaks are found by shifting a mask along a direction and ANDing it with itself.
+ *
+ * @author Amir Rosengarten
+ */
+public class BitBoard extends Board {
+    private static final int WORD_BITS = 64;
+    private static final int ADDRESS_BITS = 6;
+    private static final int DIRECTIONS = 4;
+    private static final int[] ROW_STEPS = {0, 1, 1, 1};
+    private static final int[] COL_STEPS = {1, 0, 1, -1};
+
+    private final int size;
+    private final int[] shifts = new int[DIRECTIONS];
+    private final long[] xWords;
+    private final long[] oWords;
+    private long xBits;
+    private long oBits;
+    private final long[][] startMasks = new long[DIRECTIONS][];
+    private int maskStreak = -1;
+    private final long[] streak;
+    private final long[] shifted;
+
+    /**
+     * Constructs a new bit board with the given size.
+     *
+     * @param size The size of the board.
+     */
+    public BitBoard(int size) {
+        super(size, false);
+        this.size = size;
+        for (int dir = 0; dir < DIRECTIONS; dir++) {
+            shifts[dir] = ROW_STEPS[dir] * size + COL_STEPS[dir];
+        }
+        int words = wordCount(size * size);
+        if (words > 1) {
+            xWords = new long[words];
+            oWords = new long[words];
+            streak = new long[words];
+            shifted = new long[words];
+        } else {
+            xWords = null;
+            oWords = null;
+            streak = null;
+            shifted = null;
+        }
+        for (int dir = 0; dir < DIRECTIONS; dir++) {
+            startMasks[dir] = new long[words];
+        }
+    }
+
+    /**
+     * Puts a mark on the board.
+     *
+     * @param mark The mark to put on the board.
+     * @param row  The row to put the mark in.
+     * @param col  The column to put the mark in.
+     * @return True if the mark was put successfully, false otherwise.
+     */
+    @Override
+    public boolean putMark(Mark mark, int row, int col) {
+        if (row < 0 || row >= size || col < 0 || col >= size || mark == Mark.BLANK) {
+            return false;
+        }
+        int cell = row * size + col;
+        if (xWords == null) {
+            long bit = 1L << cell;
+            if (((xBits | oBits) & bit) != 0) {
+                return false;
+            }
+            if (mark == Mark.X) {
+                xBits |= bit;
+            } else {
+                oBits |= bit;
+            }
+            recordMove(row, col);
+            return true;
+        }
+        int word = cell >>> ADDRESS_BITS;
+        long bit = 1L << cell;
+        if (((xWords[word] | oWords[word]) & bit) != 0) {
+            return false;
+        }
+        if (mark == Mark.X) {
+            xWords[word] |= bit;
+        } else {
+            oWords[word] |= bit;
+        }
+        recordMove(row, col);
+        return true;
+    }
+
+    /**
+     * Clears the board so it can be reused for a new game.
+     */
+    @Override
+    public void reset() {
+        xBits = 0;
+        oBits = 0;
+        if (xWords != null) {
+            Arrays.fill(xWords, 0L);
+            Arrays.fill(oWords, 0L);
+        }
+        super.reset();
+    }
+
+    /**
+     * Returns the mark in the given location. If the location is invalid, returns Mark.BLANK.
+     *
+     * @param row The row of the mark.
+     * @param col The column of the mark.
+     * @return The mark in the given location.
+     */
+    @Override
+    public Mark getMark(int row, int col) {
+        if (row < 0 || row >= size || col < 0 || col >= size) {
+            return Mark.BLANK;
+        }
+        int cell = row * size + col;
+        long bit = 1L << cell;
+        long x = xWords == null ? xBits : xWords[cell >>> ADDRESS_BITS];
+        if ((x & bit) != 0) {
+            return Mark.X;
+        }
+        long o = oWords == null ? oBits : oWords[cell >>> ADDRESS_BITS];
+        return (o & bit) != 0 ? Mark.O : Mark.BLANK;
+    }
+
+    /**
+     * Checks if the given mark has winStreak marks in a row, column or diagonal.
+     *
+     * @param mark      The mark to check.
+     * @param winStreak The win streak.
+     * @return True if there is such a streak, false otherwise.
+     */
+    public boolean hasStreak(Mark mark, int winStreak) {
+        if (mark == Mark.BLANK || winStreak < 1 || winStreak > size) {
+            return false;
+        }
+        if (winStreak != maskStreak) {
+            buildStartMasks(winStreak);
+        }
+        if (xWords == null) {
+            long bits = mark == Mark.X ? xBits : oBits;
+            for (int dir = 0; dir < DIRECTIONS; dir++) {
+                long acc = bits & startMasks[dir][0];
+                for (int i = 1; i < winStreak && acc != 0; i++) {
+                    acc &= bits >>> (i * shifts[dir]);
+                }
+                if (acc != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long[] words = mark == Mark.X ? xWords : oWords;
+        for (int dir = 0; dir < DIRECTIONS; dir++) {
+            boolean any = false;
+            for (int w = 0; w < words.length; w++) {
+                streak[w] = words[w] & startMasks[dir][w];
+                any |= streak[w] != 0;
+            }
+            for (int i = 1; i < winStreak && any; i++) {
+                shiftRight(words, i * shifts[dir], shifted);
+                any = false;
+                for (int w = 0; w < words.length; w++) {
+                    streak[w] &= shifted[w];
+                    any |= streak[w] != 0;
+                }
+            }
+            if (any) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds, for every direction, the mask of cells from which a streak of the given length stays on
+     * the board. Shifted bits that wrapped around a row edge are discarded by ANDing with these masks.
+     *
+     * @param winStreak The win streak.
+     */
+    private void buildStartMasks(int winStreak) {
+        for (int dir = 0; dir < DIRECTIONS; dir++) {
+            long[] mask = startMasks[dir];
+            Arrays.fill(mask, 0L);
+            int reach = winStreak - 1;
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    int endRow = row + reach * ROW_STEPS[dir];
+                    int endCol = col + reach * COL_STEPS[dir];
+                    if (endRow < size && endCol >= 0 && endCol < size) {
+                        int cell = row * size + col;
+                        mask[cell >>> ADDRESS_BITS] |= 1L << cell;
+                    }
+                }
+            }
+        }
+        maskStreak = winStreak;
+    }
+
+    /**
+     * Shifts a multi-word mask towards bit 0.
+     *
+     * @param src   The mask to shift.
+     * @param count The number of bits to shift by.
+     * @param dst   The array to write the shifted mask into.
+     */
+    private static void shiftRight(long[] src, int count, long[] dst) {
+        int wordShift = count >>> ADDRESS_BITS;
+        int bitShift = count & (WORD_BITS - 1);
+        for (int w = 0; w < dst.length; w++) {
+            int from = w + wordShift;
+            long low = from < src.length ? src[from] : 0L;
+            long high = from + 1 < src.length ? src[from + 1] : 0L;
+            dst[w] = bitShift == 0 ? low : (low >>> bitShift) | (high << (WORD_BITS - bitShift));
+        }
+    }
+
+    /**
+     * Returns the number of 64-bit words needed for the given number of cells.
+     *
+     * @param cells The number of cells.
+     * @return The number of words.
+     */
+    private static int wordCount(int cells) {
+        return Math.max(1, (cells + WORD_BITS - 1) >>> ADDRESS_BITS);
+    }
+}
@@ -0,0 +1,82 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the BitBoard class.
+ *
+ * @author Amir Rosengarten
+ */
+class BitBoardTest {
+    private static final int MIN_SIZE = 2;
+    private static final int MAX_SIZE = 10;
+    private static final int BOARDS_PER_SIZE = 200;
+
+    /**
+     * Checks that putMark and getMark behave exactly like the matrix board, including out of range and
+     * occupied cells.
+     */
+    @Test
+    void checkSameContractAsBoard() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+            Board board = new Board(size);
+            BitBoard bitBoard = new BitBoard(size);
+            for (int i = 0; i < size * size * 2; i++) {
+                int row = random.nextInt(-1, size + 1);
+                int col = random.nextInt(-1, size + 1);
+                Mark mark = random.nextBoolean() ? Mark.X : Mark.O;
+                assertEquals(board.putMark(mark, row, col), bitBoard.putMark(mark, row, col));
+            }
+            for (int row = -1; row <= size; row++) {
+                for (int col = -1; col <= size; col++) {
+                    assertEquals(board.getMark(row, col), bitBoard.getMark(row, col));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the shift-and-AND streak detection agrees with a cell by cell scan on random boards of
+     * every size and streak.
+     */
+    @Test
+    void checkStreaksMatchCellScan() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+            for (int n = 0; n < BOARDS_PER_SIZE; n++) {
+                BitBoard board = new BitBoard(size);
+                int marks = random.nextInt(size * size + 1);
+                for (int i = 0; i < marks; i++) {
+                    board.putMark(random.nextBoolean() ? Mark.X : Mark.O, random.nextInt(size),
+                            random.nextInt(size));
+                }
+                for (int streak = 1; streak <= size; streak++) {
+                    assertEquals(scanForStreak(board, Mark.X, streak), board.hasStreak(Mark.X, streak));
+                    assertEquals(scanForStreak(board, Mark.O, streak), board.hasStreak(Mark.O, streak));
+                }
+            }
+        }
+    }
+
+    private boolean scanForStreak(Board board, Mark mark, int streak) {
+        int[][] steps = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int row = 0; row < board.getSize(); row++) {
+            for (int col = 0; col < board.getSize(); col++) {
+                for (int[] step : steps) {
+                    int count = 0;
+                    while (count < streak &&
+                            board.getMark(row + count * step[0], col + count * step[1]) == mark) {
+                        count++;
+                    }
+                    if (count == streak) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
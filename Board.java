@@ -8,6 +8,13 @@ public class Board {
     private static final int SIZE = 4;
     private Mark[][] board;
     private int size;
+    private int markCount;
+    private int lastRow = -1;
+    private int lastCol = -1;
+    private final int[] emptyCells;
+    private final int[] emptyPositions;
+    private final int cellCount;
+    private int emptyCount;
 
     /**
      * Constructs a new board with the default size.
@@ -23,7 +30,46 @@ public class Board {
      * @param size The size of the board.
      */
     public Board(int size) {
+        this(size, true);
+    }
+
+    /**
+     * Constructs a new board with the given size. Subclasses that keep the marks in a different
+     * representation pass false and override putMark and getMark.
+     *
+     * @param size       The size of the board.
+     * @param storeCells Whether to allocate the cell matrix.
+     */
+    protected Board(int size, boolean storeCells) {
+        this(size, storeCells, true);
+    }
+
+    /**
+     * Constructs a new board with the given size. Subclasses that can't afford arrays of size^2 pass
+     * false for both flags and override putMark, getMark, getEmptyCell, reset and copyFrom.
+     *
+     * @param size            The size of the board.
+     * @param storeCells      Whether to allocate the cell matrix.
+     * @param indexEmptyCells Whether to keep the index of empty cells behind getEmptyCell.
+     */
+    protected Board(int size, boolean storeCells, boolean indexEmptyCells) {
         this.size = size;
+        cellCount = size * size;
+        emptyCount = cellCount;
+        if (!indexEmptyCells) {
+            emptyCells = null;
+            emptyPositions = null;
+            return;
+        }
+        emptyCells = new int[emptyCount];
+        emptyPositions = new int[emptyCount];
+        for (int cell = 0; cell < emptyCount; cell++) {
+            emptyCells[cell] = cell;
+            emptyPositions[cell] = cell;
+        }
+        if (!storeCells) {
+            return;
+        }
         board = new Mark[size][size];
         for (int row = 0; row < size; row++) {
             for (int col = 0; col < size; col++) {
@@ -43,7 +89,7 @@ public class Board {
     }
 
     /**
-     * Puts a mark on the board.
+     * Puts a mark on the board. A blank mark is not a move and is refused.
      *
      * @param mark The mark to put on the board.
      * @param row  The row to put the mark in.
@@ -51,16 +97,130 @@ public class Board {
      * @return True if the mark was put successfully, false otherwise.
      */
     public boolean putMark(Mark mark, int row, int col) {
-        if (row < 0 || row >= size || col < 0 || col >= size) {
+        if (row < 0 || row >= size || col < 0 || col >= size || mark == Mark.BLANK) {
             return false;
         }
         if (board[row][col] != Mark.BLANK) {
             return false;
         }
         board[row][col] = mark;
+        recordMove(row, col);
         return true;
     }
 
+    /**
+     * Records a mark that was just put on the board. Subclasses that override putMark must call this
+     * after every successful put.
+     *
+     * @param row The row of the new mark.
+     * @param col The column of the new mark.
+     */
+    protected void recordMove(int row, int col) {
+        markCount++;
+        lastRow = row;
+        lastCol = col;
+        emptyCount--;
+        if (emptyCells == null) {
+            return;
+        }
+        // Swap-remove the cell from the empty cells, moving the last empty cell into its slot
+        int cell = row * size + col;
+        int position = emptyPositions[cell];
+        int last = emptyCells[emptyCount];
+        emptyCells[position] = last;
+        emptyPositions[last] = position;
+        emptyCells[emptyCount] = cell;
+        emptyPositions[cell] = emptyCount;
+    }
+
+    /**
+     * Returns the number of empty cells on the board.
+     *
+     * @return The number of empty cells.
+     */
+    public int getEmptyCount() {
+        return emptyCount;
+    }
+
+    /**
+     * Returns an empty cell by its index among the empty cells. The order of the empty cells is
+     * arbitrary and changes as marks are put.
+     *
+     * @param index The index of the empty cell, between 0 and getEmptyCount() - 1.
+     * @return The cell as row * size + col.
+     */
+    public int getEmptyCell(int index) {
+        return emptyCells[index];
+    }
+
+    /**
+     * Clears the board so it can be reused for a new game. Only the marked cells are visited, so this
+     * costs O(marks) rather than O(size^2).
+     */
+    public void reset() {
+        for (int i = emptyCount; emptyCells != null && i < cellCount; i++) {
+            int cell = emptyCells[i];
+            if (board != null) {
+                board[cell / size][cell % size] = Mark.BLANK;
+            }
+        }
+        // Every cell is already in emptyCells with a matching position, so all of them become empty
+        emptyCount = cellCount;
+        markCount = 0;
+        lastRow = -1;
+        lastCol = -1;
+    }
+
+    /**
+     * Makes this board a copy of another board of the same size. The last mark of the other board is
+     * also the last mark of the copy.
+     *
+     * @param other The board to copy.
+     */
+    public void copyFrom(Board other) {
+        reset();
+        int otherRow = other.getLastRow();
+        int otherCol = other.getLastCol();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                Mark mark = other.getMark(row, col);
+                if (mark != Mark.BLANK && (row != otherRow || col != otherCol)) {
+                    putMark(mark, row, col);
+                }
+            }
+        }
+        if (otherRow >= 0) {
+            putMark(other.getMark(otherRow, otherCol), otherRow, otherCol);
+        }
+    }
+
+    /**
+     * Returns the number of marks on the board.
+     *
+     * @return The number of marks on the board.
+     */
+    public int getMarkCount() {
+        return markCount;
+    }
+
+    /**
+     * Returns the row of the last mark put on the board.
+     *
+     * @return The row of the last mark, or -1 if the board is empty.
+     */
+    public int getLastRow() {
+        return lastRow;
+    }
+
+    /**
+     * Returns the column of the last mark put on the board.
+     *
+     * @return The column of the last mark, or -1 if the board is empty.
+     */
+    public int getLastCol() {
+        return lastCol;
+    }
+
     /**
      * Returns the mark in the given location. If the location is invalid, returns Mark.BLANK.
      *
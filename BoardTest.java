@@ -117,4 +117,67 @@ public class BoardTest {
 		assertEquals(Mark.BLANK, board.getMark(board.getSize(), -1));
 	}
 
+	/**
+	 * Checks that the board counts its marks and remembers the last successful put.
+	 */
+	@Test
+	void checkLastMoveAndMarkCount() {
+		board = new Board();
+		assertEquals(0, board.getMarkCount());
+		assertEquals(-1, board.getLastRow());
+		assertTrue(board.putMark(Mark.X, 2, 3));
+		assertFalse(board.putMark(Mark.O, 2, 3));
+		assertFalse(board.putMark(Mark.O, -1, 0));
+		assertFalse(board.putMark(Mark.BLANK, 0, 0));
+		assertEquals(1, board.getMarkCount());
+		assertEquals(2, board.getLastRow());
+		assertEquals(3, board.getLastCol());
+	}
+
+	/**
+	 * Checks that the empty cell index always holds exactly the blank cells.
+	 */
+	@Test
+	void checkEmptyCellIndex() {
+		board = new Board(GIVEN_BOARD_SIZE);
+		int size = board.getSize();
+		for (int played = 0; played < size * size; played++) {
+			assertEquals(size * size - played, board.getEmptyCount());
+			boolean[] seen = new boolean[size * size];
+			for (int i = 0; i < board.getEmptyCount(); i++) {
+				int cell = board.getEmptyCell(i);
+				assertFalse(seen[cell]);
+				seen[cell] = true;
+				assertEquals(Mark.BLANK, board.getMark(cell / size, cell % size));
+			}
+			int cell = (played * 7) % (size * size);
+			while (board.getMark(cell / size, cell % size) != Mark.BLANK) {
+				cell = (cell + 1) % (size * size);
+			}
+			assertTrue(board.putMark(Mark.X, cell / size, cell % size));
+		}
+		assertEquals(0, board.getEmptyCount());
+	}
+
+	/**
+	 * Checks that a reset board is empty and can be played again.
+	 */
+	@Test
+	void checkReset() {
+		board = new Board();
+		board.putMark(Mark.X, 0, 0);
+		board.putMark(Mark.O, 1, 2);
+		board.reset();
+		for (int row = 0; row < board.getSize(); row++) {
+			for (int col = 0; col < board.getSize(); col++) {
+				assertEquals(Mark.BLANK, board.getMark(row, col));
+			}
+		}
+		assertEquals(0, board.getMarkCount());
+		assertEquals(board.getSize() * board.getSize(), board.getEmptyCount());
+		assertEquals(-1, board.getLastRow());
+		assertTrue(board.putMark(Mark.O, 0, 0));
+		assertEquals(1, board.getMarkCount());
+	}
+
 }
\ No newline at end of file
@@ -1,34 +1,50 @@
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
 /**
  * CleverPlayer is a player that tries to win the game by playing the first empty cell in a row, column or
  * diagonal. If it can't win, it plays randomly.
- * It implements the Player interface.
+ * It extends FallbackPlayer, with a WhateverPlayer as its fallback.
  *
  * @author Amir Rosengarten
  */
-public class CleverPlayer implements Player {
+public class CleverPlayer extends FallbackPlayer {
     /**
      * Constructs a new CleverPlayer.
      */
-    public CleverPlayer() {};
+    public CleverPlayer() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new CleverPlayer whose random moves are drawn from the given generator.
+     *
+     * @param random The generator to use. It must not be shared with other threads.
+     */
+    public CleverPlayer(RandomGenerator random) {
+        this(new WhateverPlayer(random));
+    }
 
     /**
-     * Plays a turn on the given board. If it can win, it plays the first empty cell in a row, column or
-     * diagonal. If it can't win, it plays randomly.
+     * Constructs a new CleverPlayer that passes the turns it can't play to the given player.
+     *
+     * @param fallback The fallback player.
+     */
+    public CleverPlayer(Player fallback) {
+        super(fallback);
+    }
+
+    /**
+     * Plays the first empty cell in a row, column or diagonal, if there is one.
      *
      * @param board The board to play on.
      * @param mark  The mark to play.
+     * @return true if the player played, false otherwise.
      */
     @Override
-    public void playTurn(Board board, Mark mark) {
-        if (!playFirstEmptyInRow(board, mark)) {
-            if (!playFirstEmptyInCol(board, mark)) {
-                if (!playFirstEmpyInDiag(board, mark)) {
-                    PlayerFactory factory = new PlayerFactory();
-                    Player whatever = factory.buildPlayer("whatever");
-                    whatever.playTurn(board, mark);
-                }
-            }
-        }
+    protected boolean tryPlay(Board board, Mark mark) {
+        return playFirstEmptyInRow(board, mark) || playFirstEmptyInCol(board, mark) ||
+                playFirstEmpyInDiag(board, mark);
     }
 
     /**
@@ -81,4 +97,4 @@ public class CleverPlayer implements Player {
         }
         return false;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,10 +1,17 @@
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.Map;
 import java.util.logging.Logger;
 
 /**
  * A supplied class for the Tic Tac Toe exercise in the OOP MOOC by the Hebrew University.
  * Renders a given part_2.Board to the console.
+ * Every frame is drawn into one reusable char array, newlines included, and written with a single call.
+ * In diff mode only the cells that changed since the previous frame are redrawn, by moving the cursor
+ * with ANSI escape codes. Diff mode assumes nothing else is printed between frames.
  *
  * @author Dan Nirel
  */
@@ -16,13 +23,12 @@ public class ConsoleRenderer implements Renderer {
     private static final char DEFAULT_CHAR = ' ';
     private static final char HORIZONTAL_LINE_CHAR = '-';
     private static final char VERTICAL_LINE_CHAR = '|';
+    private static final char NEW_LINE = '\n';
+    private static final char ESCAPE = '\u001B';
+    private static final int MAX_ESCAPE_LENGTH = 16;
     private static final int NUM_ROWS_BEFORE_BOARD = 4;
     private static final int NUM_COLS_BEFORE_BOARD = 6;
 
-    //                                            for the marks         for lines         for indices
-//	private static final int BUFFER_ROWS = board.getSize() * ROWS_PER_MARK + (board.getSize()-1) + NUM_ROWS_BEFORE_BOARD;
-//	private static final int BUFFER_COLS = board.getSize() * COLS_PER_MARK + (board.getSize()-1) + NUM_COLS_BEFORE_BOARD;
-
     private static final Map<Mark, String[]> MARKS_DRAWINGS = Map.of(
 
             Mark.X, new String[]{"  X   X  ",
@@ -38,48 +44,75 @@ public class ConsoleRenderer implements Renderer {
                     "         "}
     );
 
-    private final char[][] buffer;// = new char[BUFFER_ROWS][BUFFER_COLS];
+    // The frame holds the buffer rows, each followed by a newline, and one more empty line
+    private final char[] frame;
+    private final int lineLength;
+    private final int bufferRows;
+    private final boolean diff;
+    private final Mark[] shown;
+    private final char[] diffBuffer;
+    private final Writer out = new OutputStreamWriter(System.out);
+    private int diffLength;
+    private int cursorLine;
+    private int shownMarks = -1;
 
     /**
      * Initializes the renderer.
      */
     public ConsoleRenderer(int size) {
-        int bufferRows = size * ROWS_PER_MARK + (size - 1) + NUM_ROWS_BEFORE_BOARD;
-        int bufferCols = size * COLS_PER_MARK + (size - 1) + NUM_COLS_BEFORE_BOARD;
-        this.buffer = new char[bufferRows][bufferCols];
+        this(size, false);
+    }
 
+    /**
+     * Initializes the renderer.
+     *
+     * @param size The size of the board.
+     * @param diff Whether to redraw only the cells that changed since the previous frame.
+     */
+    public ConsoleRenderer(int size, boolean diff) {
         if (size > 9 || size < 2) {
             String errorMsg = "part_2.Board size must be in the range [2, 9]";
             Logger.getGlobal().severe(errorMsg);
             throw new Error(errorMsg);
         }
 
-        //fill buffer with spaces
-        for (int i = 0; i < buffer.length; i++) {
-            for (int j = 0; j < buffer[i].length; j++)
-                buffer[i][j] = DEFAULT_CHAR;
+        this.bufferRows = size * ROWS_PER_MARK + (size - 1) + NUM_ROWS_BEFORE_BOARD;
+        int bufferCols = size * COLS_PER_MARK + (size - 1) + NUM_COLS_BEFORE_BOARD;
+        this.lineLength = bufferCols + 1;
+        this.frame = new char[bufferRows * lineLength + 1];
+        this.diff = diff;
+        this.shown = new Mark[size * size];
+        this.diffBuffer = diff ?
+                new char[size * size * ROWS_PER_MARK * (COLS_PER_MARK + 2 * MAX_ESCAPE_LENGTH) +
+                        MAX_ESCAPE_LENGTH] : null;
+
+        //fill buffer with spaces, ending every line with a newline
+        for (int i = 0; i < bufferRows; i++) {
+            for (int j = 0; j < bufferCols; j++)
+                frame[index(i, j)] = DEFAULT_CHAR;
+            frame[index(i, bufferCols)] = NEW_LINE;
         }
+        frame[frame.length - 1] = NEW_LINE;
 
         //draw horizontal lines
         for (int i = NUM_ROWS_BEFORE_BOARD + ROWS_PER_MARK; i < bufferRows; i += ROWS_PER_MARK + 1) {
             for (int j = NUM_COLS_BEFORE_BOARD; j < bufferCols; j++)
-                buffer[i][j] = HORIZONTAL_LINE_CHAR;
+                frame[index(i, j)] = HORIZONTAL_LINE_CHAR;
         }
 
         //draw vertical lines
         for (int i = NUM_COLS_BEFORE_BOARD + COLS_PER_MARK; i < bufferCols; i += COLS_PER_MARK + 1) {
             for (int j = NUM_ROWS_BEFORE_BOARD; j < bufferRows; j++)
-                buffer[j][i] = VERTICAL_LINE_CHAR;
+                frame[index(j, i)] = VERTICAL_LINE_CHAR;
         }
 
         //draw indices
         char index = FIRST_COL; // start counting column indexes here
         for (int col = NUM_COLS_BEFORE_BOARD + COLS_PER_MARK / 2; col < bufferCols; col += COLS_PER_MARK + 1)
-            buffer[NUM_ROWS_BEFORE_BOARD / 2][col] = index++;
+            frame[index(NUM_ROWS_BEFORE_BOARD / 2, col)] = index++;
         index = FIRST_ROW; // start counting row indexes here: 00
         for (int row = NUM_ROWS_BEFORE_BOARD + ROWS_PER_MARK / 2; row < bufferRows; row += ROWS_PER_MARK + 1) {
-            buffer[row][NUM_COLS_BEFORE_BOARD / 2 - 1] = index++;
-//			buffer[row][NUM_COLS_BEFORE_BOARD/2] = ' ';//'0';
+            frame[index(row, NUM_COLS_BEFORE_BOARD / 2 - 1)] = index++;
         }
     }
 
@@ -90,27 +123,121 @@ public class ConsoleRenderer implements Renderer {
      */
     @Override
     public void renderBoard(Board board) {
-        for (int i = 0; i < board.getSize(); i++) {
-            for (int j = 0; j < board.getSize(); j++) {
-                drawMarkInBuffer(NUM_ROWS_BEFORE_BOARD + i * (ROWS_PER_MARK + 1),
-                        NUM_COLS_BEFORE_BOARD + j * (COLS_PER_MARK + 1), board.getMark(i, j));
+        int size = board.getSize();
+        // A board with fewer marks than the last frame is a new game, which gets a full frame
+        if (!diff || shownMarks < 0 || board.getMarkCount() < shownMarks) {
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    Mark mark = board.getMark(i, j);
+                    drawMarkInBuffer(markRow(i), markCol(j), mark);
+                    shown[i * size + j] = mark;
+                }
             }
+            shownMarks = board.getMarkCount();
+            write(frame, frame.length);
+            return;
         }
 
-        for (int i = 0; i < buffer.length; i++) {
-            for (int j = 0; j < buffer[i].length; j++)
-                System.out.print(buffer[i][j]);
-            System.out.println();
+        diffLength = 0;
+        cursorLine = bufferRows + 1;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                Mark mark = board.getMark(i, j);
+                if (mark != shown[i * size + j]) {
+                    drawMarkInBuffer(markRow(i), markCol(j), mark);
+                    appendCell(markRow(i), markCol(j));
+                    shown[i * size + j] = mark;
+                }
+            }
+        }
+        shownMarks = board.getMarkCount();
+        if (diffLength > 0) {
+            moveToLine(bufferRows + 1);
+            write(diffBuffer, diffLength);
         }
-        System.out.println();
     }
 
     private void drawMarkInBuffer(int rowStart, int colStart, Mark mark) {
         String[] markLines = MARKS_DRAWINGS.get(mark);
         for (int i = 0; i < markLines.length; i++) {
-            for (int j = 0; j < markLines[i].length(); j++) {
-                buffer[rowStart + i][colStart + j] = markLines[i].charAt(j);
-            }
+            markLines[i].getChars(0, markLines[i].length(), frame, index(rowStart + i, colStart));
+        }
+    }
+
+    /**
+     * Appends the cursor moves and the characters that redraw one cell from the frame.
+     *
+     * @param rowStart The first buffer row of the cell.
+     * @param colStart The first buffer column of the cell.
+     */
+    private void appendCell(int rowStart, int colStart) {
+        for (int i = 0; i < ROWS_PER_MARK; i++) {
+            moveToLine(rowStart + i);
+            appendEscape(colStart + 1, 'G');
+            System.arraycopy(frame, index(rowStart + i, colStart), diffBuffer, diffLength, COLS_PER_MARK);
+            diffLength += COLS_PER_MARK;
+        }
+    }
+
+    /**
+     * Appends the cursor move to the start of the given frame line.
+     *
+     * @param line The frame line to move to.
+     */
+    private void moveToLine(int line) {
+        if (line < cursorLine) {
+            appendEscape(cursorLine - line, 'F');
+        } else if (line > cursorLine) {
+            appendEscape(line - cursorLine, 'E');
+        } else {
+            diffBuffer[diffLength++] = '\r';
         }
+        cursorLine = line;
+    }
+
+    /**
+     * Appends an ANSI control sequence with one numeric parameter.
+     *
+     * @param parameter The parameter.
+     * @param command   The command letter.
+     */
+    private void appendEscape(int parameter, char command) {
+        diffBuffer[diffLength++] = ESCAPE;
+        diffBuffer[diffLength++] = '[';
+        int divisor = 1;
+        while (divisor * 10 <= parameter) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            diffBuffer[diffLength++] = (char) ('0' + parameter / divisor % 10);
+        }
+        diffBuffer[diffLength++] = command;
+    }
+
+    /**
+     * Writes characters to the console in one call.
+     *
+     * @param chars  The characters.
+     * @param length The number of characters to write.
+     */
+    private void write(char[] chars, int length) {
+        try {
+            out.write(chars, 0, length);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int index(int row, int col) {
+        return row * lineLength + col;
+    }
+
+    private static int markRow(int row) {
+        return NUM_ROWS_BEFORE_BOARD + row * (ROWS_PER_MARK + 1);
+    }
+
+    private static int markCol(int col) {
+        return NUM_COLS_BEFORE_BOARD + col * (COLS_PER_MARK + 1);
     }
 }
@@ -1,9 +1,9 @@
 public class Constants {
     public final static String UNKNOWN_PLAYER_NAME = "Choose a player, and start again.\nThe players:" +
-            " [human, clever, whatever, genius]";
+            " [human, clever, whatever, genius, minimax, mcts, tablebase, tactician]";
 
     public final static String UNKNOWN_RENDERER_NAME = "Choose a renderer, and start again. \nPlease" +
-            " choose one of the following [console, none]";
+            " choose one of the following [console, ansi, viewport, none]";
 
     public final static String INVALID_COORDINATE = "Invalid mark position, please choose a different" +
             " position.\n" +
@@ -0,0 +1,53 @@
+/**
+ * A player built from a strategy stage and a fallback player. On every turn the stage tries to play, and
+ * if it finds no move the turn is passed to the fallback, which may itself be a FallbackPlayer. The chain
+ * is wired once when the player is constructed, so a turn allocates nothing.
+ * It implements the Player interface.
+ *
+ * @author Amir Rosengarten
+ */
+public abstract class FallbackPlayer implements Player {
+    private final Player fallback;
+
+    /**
+     * Constructs a new FallbackPlayer.
+     *
+     * @param fallback The player that plays the turns this player's stage can't.
+     */
+    protected FallbackPlayer(Player fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Plays a turn on the given board, with this player's stage or else with the fallback player.
+     *
+     * @param board The board to play on.
+     * @param mark  The mark to play.
+     */
+    @Override
+    public void playTurn(Board board, Mark mark) {
+        if (!tryPlay(board, mark)) {
+            fallback.playTurn(board, mark);
+        }
+    }
+
+    /**
+     * Passes the start of a game on to the fallback player.
+     *
+     * @param size      The size of the board.
+     * @param winStreak The win streak.
+     */
+    @Override
+    public void startGame(int size, int winStreak) {
+        fallback.startGame(size, winStreak);
+    }
+
+    /**
+     * Tries to play a turn with this player's own strategy.
+     *
+     * @param board The board to play on.
+     * @param mark  The mark to play.
+     * @return true if the player played, false otherwise.
+     */
+    protected abstract boolean tryPlay(Board board, Mark mark);
+}
@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 /**
  * This class represents a game of Tic Tac Toe. It is responsible for running the game and checking for a
  * winner. It also holds the board and the players.
@@ -5,12 +7,44 @@
  * @author Amir Rosengarten
  */
 public class Game {
+    /**
+     * The direction of a winning row, see lastMoveDirection.
+     */
+    static final int HORIZONTAL = 0;
+    /**
+     * The direction of a winning column.
+     */
+    static final int VERTICAL = 1;
+    /**
+     * The direction of a winning diagonal, from the top left to the bottom right.
+     */
+    static final int DIAGONAL = 2;
+    /**
+     * The direction of a winning anti diagonal, from the top right to the bottom left.
+     */
+    static final int ANTI_DIAGONAL = 3;
+    /**
+     * The number of directions.
+     */
+    static final int DIRECTIONS = 4;
+    /**
+     * The smallest board size played on a SparseBoard, whose memory and moves don't grow with size^2.
+     */
+    static final int SPARSE_BOARD_SIZE = 16;
+    private static final int INITIAL_MOVES = 64;
+    private static final int[] ROW_STEPS = {0, 1, 1, 1};
+    private static final int[] COL_STEPS = {1, 0, 1, -1};
     private static final int WIN_STREAK = 3;
+    private static final WinDetector WIN_DETECTOR = WinDetector.create();
     private Player playerX;
     private Player playerO;
     private Renderer renderer;
     private Board board;
     private int winStreak;
+    private int[] moves;
+    private int moveCount;
+    private Metrics.Timer checkTimer;
+    private int[] packedRows;
 
     /**
      * Constructs a new game with the given players and renderer.
@@ -28,7 +62,8 @@ public class Game {
     }
 
     /**
-     * Constructs a new game with the given players, renderer, board size and win streak.
+     * Constructs a new game with the given players, renderer, board size and win streak. Boards of
+     * SPARSE_BOARD_SIZE and more are SparseBoards.
      *
      * @param playerX   The player with mark X.
      * @param playerO   The player with mark O.
@@ -40,7 +75,7 @@ public class Game {
         this.playerX = playerX;
         this.playerO = playerO;
         this.renderer = renderer;
-        this.board = new Board(size);
+        this.board = size >= SPARSE_BOARD_SIZE ? new SparseBoard(size) : new Board(size);
         if (winStreak > size || winStreak < 2) {
             this.winStreak = size;
         } else {
@@ -48,6 +83,47 @@ public class Game {
         }
     }
 
+    /**
+     * Constructs a new game on the given board, which lets callers choose the board representation,
+     * for example a BitBoard.
+     *
+     * @param playerX   The player with mark X.
+     * @param playerO   The player with mark O.
+     * @param board     The empty board to play on.
+     * @param winStreak The win streak.
+     * @param renderer  The renderer to use.
+     */
+    public Game(Player playerX, Player playerO, Board board, int winStreak, Renderer renderer) {
+        this.playerX = playerX;
+        this.playerO = playerO;
+        this.renderer = renderer;
+        this.board = board;
+        if (winStreak > board.getSize() || winStreak < 2) {
+            this.winStreak = board.getSize();
+        } else {
+            this.winStreak = winStreak;
+        }
+    }
+
+    /**
+     * Clears the board so the game can be run again with the same players.
+     */
+    public void reset() {
+        board.reset();
+    }
+
+    /**
+     * Clears the board so the game can be run again, with the given players.
+     *
+     * @param playerX The player with mark X.
+     * @param playerO The player with mark O.
+     */
+    public void reset(Player playerX, Player playerO) {
+        this.playerX = playerX;
+        this.playerO = playerO;
+        board.reset();
+    }
+
     /**
      * Returns the win streak.
      *
@@ -67,20 +143,34 @@ public class Game {
     }
 
     /**
-     * Checks if the board is full.
+     * Returns the number of moves played in the last run.
+     *
+     * @return The number of moves.
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Returns a move of the last run as a cell index, row * size + column.
+     *
+     * @param index The index of the move, 0 for the first move.
+     * @return The cell index of the move.
+     */
+    public int getMove(int index) {
+        if (index < 0 || index >= moveCount) {
+            throw new IndexOutOfBoundsException("No move " + index);
+        }
+        return moves[index];
+    }
+
+    /**
+     * Checks if the board is full, using the board's count of empty cells.
      *
      * @return True if the board is full, false otherwise.
      */
     private boolean boardIsFull() {
-        int size = getBoardSize();
-        for (int row = 0; row < size; row++) {
-            for (int col = 0; col < size; col++) {
-                if (board.getMark(row, col) == Mark.BLANK) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return board.getEmptyCount() == 0;
     }
 
     /**
@@ -91,7 +181,7 @@ public class Game {
      * @param mark      The mark to check.
      * @return True if there is a winner, false otherwise.
      */
-    private boolean checkDiagonal(Board board, int winStreak, Mark mark) {
+    boolean checkDiagonal(Board board, int winStreak, Mark mark) {
         for (int row = 0; row < board.getSize(); row++) {
             for (int col = 0; col < board.getSize(); col++) {
                 if (board.getMark(row, col) == mark) {
@@ -156,7 +246,7 @@ public class Game {
      * @param mark      The mark to check.
      * @return True if there is a winner, false otherwise.
      */
-    private boolean checkVertical(Board board, int winStreak, Mark mark) {
+    boolean checkVertical(Board board, int winStreak, Mark mark) {
         int size = getBoardSize();
         for (int col = 0; col < size; col++) {
             int count = 0;
@@ -182,7 +272,7 @@ public class Game {
      * @param mark      The mark to check.
      * @return True if there is a winner, false otherwise.
      */
-    private boolean checkHorizontal(Board board, int winStreak, Mark mark) {
+    boolean checkHorizontal(Board board, int winStreak, Mark mark) {
         int size = getBoardSize();
         for (int row = 0; row < size; row++) {
             int count = 0;
@@ -201,14 +291,92 @@ public class Game {
     }
 
     /**
-     * Checks if there is a winner.
+     * Counts the marks equal to the given mark in a given direction, not including the starting point.
+     *
+     * @param board  The board to check.
+     * @param mark   The mark to count.
+     * @param row    The row of the starting point.
+     * @param col    The column of the starting point.
+     * @param rowInc The row increment.
+     * @param colInc The column increment.
+     * @param limit  The maximal count needed.
+     * @return The number of consecutive marks, at most limit.
+     */
+    private static int countDirection(Board board, Mark mark, int row, int col, int rowInc, int colInc,
+                                      int limit) {
+        int count = 0;
+        int newRow = row + rowInc;
+        int newCol = col + colInc;
+        while (count < limit && board.getMark(newRow, newCol) == mark) {
+            count++;
+            newRow += rowInc;
+            newCol += colInc;
+        }
+        return count;
+    }
+
+    /**
+     * Checks if the given mark won with the last move on the board. Only the row, column and diagonals
+     * through the last move are checked, so this costs O(winStreak).
+     *
+     * @param board     The board to check.
+     * @param winStreak The win streak.
+     * @param mark      The mark that made the last move.
+     * @return The mark of the winner, or Mark.BLANK if there is no winner.
+     */
+    static Mark checkLastMove(Board board, int winStreak, Mark mark) {
+        return lastMoveDirection(board, winStreak, mark) < 0 ? Mark.BLANK : mark;
+    }
+
+    /**
+     * Finds the direction in which the given mark won with the last move on the board, checking only the
+     * lines through the last move.
+     *
+     * @param board     The board to check.
+     * @param winStreak The win streak.
+     * @param mark      The mark that made the last move.
+     * @return The first winning direction, HORIZONTAL, VERTICAL, DIAGONAL or ANTI_DIAGONAL, or -1 if
+     * the last move didn't win.
+     */
+    static int lastMoveDirection(Board board, int winStreak, Mark mark) {
+        int row = board.getLastRow();
+        int col = board.getLastCol();
+        if (row < 0 || board.getMark(row, col) != mark) {
+            return -1;
+        }
+        int needed = winStreak - 1;
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            int rowInc = ROW_STEPS[direction];
+            int colInc = COL_STEPS[direction];
+            if (countDirection(board, mark, row, col, rowInc, colInc, needed) +
+                    countDirection(board, mark, row, col, -rowInc, -colInc, needed) >= needed) {
+                return direction;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if there is a winner by scanning the whole board. Boards of up to WinDetector.MAX_SIZE are
+     * packed into row masks for the fastest WinDetector available, larger ones are walked cell by cell.
      *
      * @param board     The board to check.
      * @param winStreak The win streak.
      * @param mark      The mark to check.
      * @return The mark of the winner, or Mark.BLANK if there is no winner.
      */
-    private Mark checkWinner(Board board, int winStreak, Mark mark) {
+    Mark checkWinner(Board board, int winStreak, Mark mark) {
+        if (board instanceof BitBoard) {
+            return ((BitBoard) board).hasStreak(mark, winStreak) ? mark : Mark.BLANK;
+        }
+        int size = board.getSize();
+        if (size <= WinDetector.MAX_SIZE && winStreak >= 1) {
+            if (packedRows == null) {
+                packedRows = new int[WinDetector.ROWS];
+            }
+            WinDetector.pack(board, mark, packedRows);
+            return WIN_DETECTOR.hasStreak(packedRows, size, winStreak) ? mark : Mark.BLANK;
+        }
         if (checkHorizontal(board, winStreak, mark) || checkVertical(board, winStreak, mark) ||
                 checkDiagonal(board, winStreak, mark)) {
             return mark;
@@ -217,31 +385,53 @@ public class Game {
     }
 
     /**
-     * Checks if the game is over.
+     * Checks the last move like checkLastMove and records the duration in the Metrics timer
+     * "check.&lt;size&gt;".
      *
-     * @return True if the game is over, false otherwise.
+     * @param mark The mark that made the last move.
+     * @return The mark of the winner, or Mark.BLANK if there is no winner.
      */
-    private boolean isGameOver() {
-        return boardIsFull() || checkWinner(board, winStreak, Mark.X) != Mark.BLANK ||
-                checkWinner(board, winStreak, Mark.O) != Mark.BLANK;
+    private Mark timedCheckLastMove(Mark mark) {
+        if (checkTimer == null) {
+            checkTimer = Metrics.timer("check." + board.getSize());
+        }
+        long start = System.nanoTime();
+        Mark winner = checkLastMove(board, winStreak, mark);
+        checkTimer.record(System.nanoTime() - start);
+        return winner;
     }
 
     /**
-     * Runs the game.
+     * Runs the game. The moves are kept until the next run, see getMove.
      *
      * @return The mark of the winner.
      */
     public Mark run() {
         Mark winner = Mark.BLANK;
         Mark currentPlayer = Mark.X;
-        while (winner == Mark.BLANK && !isGameOver()) {
+        int size = board.getSize();
+        if (moves == null) {
+            moves = new int[Math.min(size * size, INITIAL_MOVES)];
+        }
+        moveCount = 0;
+        playerX.startGame(board.getSize(), winStreak);
+        playerO.startGame(board.getSize(), winStreak);
+        while (winner == Mark.BLANK && !boardIsFull()) {
             if (currentPlayer == Mark.X) {
                 playerX.playTurn(board, currentPlayer);
             } else {
                 playerO.playTurn(board, currentPlayer);
             }
+            if (moveCount == moves.length) {
+                moves = Arrays.copyOf(moves, Math.min(size * size, moveCount * 2));
+            }
+            moves[moveCount++] = board.getLastRow() * size + board.getLastCol();
             renderer.renderBoard(board);
-            winner = checkWinner(board, winStreak, currentPlayer);
+            if (Metrics.ENABLED) {
+                winner = timedCheckLastMove(currentPlayer);
+            } else {
+                winner = checkLastMove(board, winStreak, currentPlayer);
+            }
             if (winner == Mark.BLANK) {
                 currentPlayer = (currentPlayer == Mark.X) ? Mark.O : Mark.X;
             }
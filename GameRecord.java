@@ -0,0 +1,187 @@
+/**
+ * One recorded game: the board size, the win streak, the ids of both players, the moves as cell indices
+ * and the result. A record is mutable so one instance can be reused for a whole file of games.
+ * Records are stored by GameRecordWriter and read back by GameRecordReader. In the file a record takes
+ * one byte for each of size, win streak, X id, O id and move count, one byte per move and a result
+ * byte, the ordinal of the winning mark.
+ *
+ * @author Amir Rosengarten
+ */
+public class GameRecord {
+    /**
+     * The largest board size whose cell indices and move count fit in a byte.
+     */
+    public static final int MAX_SIZE = 15;
+    /**
+     * The player id of a player whose type is unknown.
+     */
+    public static final int UNKNOWN_PLAYER = 255;
+    /**
+     * The first bytes of every record file, "TTTR".
+     */
+    static final int MAGIC = 0x54545452;
+    /**
+     * The number of bytes before the first record of a file.
+     */
+    static final int FILE_HEADER_BYTES = 4;
+    /**
+     * The number of bytes of a record besides its moves.
+     */
+    static final int HEADER_BYTES = 6;
+    /**
+     * The largest number of bytes a record can take.
+     */
+    static final int MAX_BYTES = HEADER_BYTES + MAX_SIZE * MAX_SIZE;
+
+    private static final Mark[] MARKS = Mark.values();
+    private final int[] moves = new int[MAX_SIZE * MAX_SIZE];
+    private int size;
+    private int winStreak;
+    private int playerX;
+    private int playerO;
+    private int moveCount;
+    private Mark winner = Mark.BLANK;
+
+    /**
+     * Constructs a new empty record.
+     */
+    public GameRecord() {
+    }
+
+    /**
+     * Fills the record from the last run of a game.
+     *
+     * @param game    The game that was run.
+     * @param playerX The id of the X player, see PlayerFactory.getPlayerId.
+     * @param playerO The id of the O player.
+     * @param winner  The mark of the winner, or Mark.BLANK for a draw.
+     */
+    public void set(Game game, int playerX, int playerO, Mark winner) {
+        setHeader(game.getBoardSize(), game.getWinStreak(), playerX, playerO, winner);
+        for (int i = 0; i < game.getMoveCount(); i++) {
+            addMove(game.getMove(i));
+        }
+    }
+
+    /**
+     * Sets everything but the moves, and removes the moves.
+     *
+     * @param size      The size of the board.
+     * @param winStreak The win streak.
+     * @param playerX   The id of the X player.
+     * @param playerO   The id of the O player.
+     * @param winner    The mark of the winner, or Mark.BLANK for a draw.
+     */
+    public void setHeader(int size, int winStreak, int playerX, int playerO, Mark winner) {
+        if (size < 2 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be in the range [2, " + MAX_SIZE + "]");
+        }
+        if (playerX < 0 || playerX > 255 || playerO < 0 || playerO > 255) {
+            throw new IllegalArgumentException("Player ids must be in the range [0, 255]");
+        }
+        this.size = size;
+        this.winStreak = winStreak;
+        this.playerX = playerX;
+        this.playerO = playerO;
+        this.winner = winner;
+        this.moveCount = 0;
+    }
+
+    /**
+     * Adds a move.
+     *
+     * @param cell The cell index of the move, row * size + column.
+     */
+    public void addMove(int cell) {
+        if (cell < 0 || cell >= size * size || moveCount == size * size) {
+            throw new IllegalArgumentException("Invalid move " + cell);
+        }
+        moves[moveCount++] = cell;
+    }
+
+    /**
+     * Returns the size of the board.
+     *
+     * @return The size of the board.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the win streak.
+     *
+     * @return The win streak.
+     */
+    public int getWinStreak() {
+        return winStreak;
+    }
+
+    /**
+     * Returns the id of the X player.
+     *
+     * @return The id of the X player.
+     */
+    public int getPlayerX() {
+        return playerX;
+    }
+
+    /**
+     * Returns the id of the O player.
+     *
+     * @return The id of the O player.
+     */
+    public int getPlayerO() {
+        return playerO;
+    }
+
+    /**
+     * Returns the number of moves.
+     *
+     * @return The number of moves.
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Returns a move as a cell index.
+     *
+     * @param index The index of the move, 0 for the first move.
+     * @return The cell index of the move.
+     */
+    public int getMove(int index) {
+        if (index < 0 || index >= moveCount) {
+            throw new IndexOutOfBoundsException("No move " + index);
+        }
+        return moves[index];
+    }
+
+    /**
+     * Returns the mark of the winner.
+     *
+     * @return The mark of the winner, or Mark.BLANK for a draw.
+     */
+    public Mark getWinner() {
+        return winner;
+    }
+
+    /**
+     * Returns the number of bytes the record takes in a file.
+     *
+     * @return The number of bytes.
+     */
+    int getByteCount() {
+        return HEADER_BYTES + moveCount;
+    }
+
+    /**
+     * Returns the mark with the given result byte.
+     *
+     * @param result The result byte.
+     * @return The mark, or null if the byte is not a result.
+     */
+    static Mark markOf(int result) {
+        return result >= 0 && result < MARKS.length ? MARKS[result] : null;
+    }
+}
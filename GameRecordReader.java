@@ -0,0 +1,123 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the game records of a file written by GameRecordWriter. The file is read through a memory
+ * mapped window that moves along the file, and every record is read into a record supplied by the
+ * caller, so reading a file of any length allocates nothing per game.
+ *
+ * @author Amir Rosengarten
+ */
+public class GameRecordReader implements AutoCloseable {
+    private static final int CHUNK_BYTES = 1 << 22;
+    private final FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer buffer;
+    private long bufferStart;
+    private long position;
+
+    /**
+     * Opens a record file for reading.
+     *
+     * @param path The path of the file.
+     * @throws IOException If the file can't be opened or is not a record file.
+     */
+    public GameRecordReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        fileSize = channel.size();
+        if (fileSize >= GameRecord.FILE_HEADER_BYTES) {
+            map(0);
+        }
+        if (buffer == null || buffer.getInt(0) != GameRecord.MAGIC) {
+            channel.close();
+            throw new IOException("Not a game record file: " + path);
+        }
+        position = GameRecord.FILE_HEADER_BYTES;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @param record The record to read into.
+     * @return True if a record was read, false at the end of the records.
+     * @throws IOException If the file can't be read or a record is corrupt.
+     */
+    public boolean next(GameRecord record) throws IOException {
+        if (position + GameRecord.HEADER_BYTES > fileSize) {
+            return false;
+        }
+        if (position + GameRecord.MAX_BYTES > bufferStart + buffer.limit() &&
+                bufferStart + buffer.limit() < fileSize) {
+            map(position);
+        }
+        int size = buffer.get(offset(0)) & 0xFF;
+        if (size == 0) {
+            // The zero filled tail of a file whose writer wasn't closed
+            return false;
+        }
+        int moveCount = buffer.get(offset(4)) & 0xFF;
+        int byteCount = GameRecord.HEADER_BYTES + moveCount;
+        if (position + byteCount > fileSize) {
+            throw new IOException("Truncated record at offset " + position);
+        }
+        Mark winner = GameRecord.markOf(buffer.get(offset(byteCount - 1)));
+        if (winner == null) {
+            throw new IOException("Corrupt record at offset " + position + ": invalid result");
+        }
+        try {
+            record.setHeader(size, buffer.get(offset(1)) & 0xFF, buffer.get(offset(2)) & 0xFF,
+                    buffer.get(offset(3)) & 0xFF, winner);
+            for (int i = 0; i < moveCount; i++) {
+                record.addMove(buffer.get(offset(5 + i)) & 0xFF);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt record at offset " + position + ": " + e.getMessage(), e);
+        }
+        position += byteCount;
+        return true;
+    }
+
+    /**
+     * Returns the offset in the file after the last record read.
+     *
+     * @return The offset.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException If the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+
+    /**
+     * Maps the chunk of the file that starts at the given offset.
+     *
+     * @param start The offset in the file where the chunk starts.
+     * @throws IOException If the file can't be mapped.
+     */
+    private void map(long start) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_BYTES, fileSize - start));
+        bufferStart = start;
+    }
+
+    /**
+     * Returns the index in the mapped chunk of a byte of the current record.
+     *
+     * @param index The index of the byte in the record.
+     * @return The index in the chunk.
+     */
+    private int offset(int index) {
+        return (int) (position - bufferStart) + index;
+    }
+}
@@ -0,0 +1,163 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the GameRecordWriter and GameRecordReader classes, and for recording a tournament.
+ *
+ * @author Amir Rosengarten
+ */
+class GameRecordTest {
+    private static final int SIZE = 4;
+    private static final int WIN_STREAK = 3;
+    private static final int GAMES = 500;
+    private static final long SEED = 7;
+
+    /**
+     * Plays games between two seeded players and writes them to the file.
+     *
+     * @param path  The record file.
+     * @param games The number of games.
+     * @return The played games' records, in order.
+     * @throws IOException If the file can't be written.
+     */
+    private static GameRecord[] writeGames(Path path, int games) throws IOException {
+        PlayerFactory factory = new PlayerFactory(SEED);
+        Game game = new Game(factory.buildPlayer("clever"), factory.buildPlayer("whatever"), SIZE,
+                WIN_STREAK, new VoidRenderer());
+        GameRecord[] expected = new GameRecord[games];
+        try (GameRecordWriter writer = new GameRecordWriter(path)) {
+            for (int i = 0; i < games; i++) {
+                game.reset();
+                Mark winner = game.run();
+                expected[i] = new GameRecord();
+                expected[i].set(game, PlayerFactory.getPlayerId("clever"),
+                        PlayerFactory.getPlayerId("whatever"), winner);
+                writer.write(expected[i]);
+            }
+        }
+        return expected;
+    }
+
+    /**
+     * Checks that two records are equal.
+     *
+     * @param expected The expected record.
+     * @param actual   The actual record.
+     */
+    private static void assertRecordEquals(GameRecord expected, GameRecord actual) {
+        assertEquals(expected.getSize(), actual.getSize());
+        assertEquals(expected.getWinStreak(), actual.getWinStreak());
+        assertEquals(expected.getPlayerX(), actual.getPlayerX());
+        assertEquals(expected.getPlayerO(), actual.getPlayerO());
+        assertEquals(expected.getWinner(), actual.getWinner());
+        assertEquals(expected.getMoveCount(), actual.getMoveCount());
+        for (int i = 0; i < expected.getMoveCount(); i++) {
+            assertEquals(expected.getMove(i), actual.getMove(i));
+        }
+    }
+
+    /**
+     * Checks that the reader returns the written games, in order, and that the file holds exactly the
+     * records after the writer is closed.
+     */
+    @Test
+    void checkRoundTrip() throws IOException {
+        Path path = Files.createTempFile("games", ".ttt");
+        try {
+            GameRecord[] expected = writeGames(path, GAMES);
+            long bytes = GameRecord.FILE_HEADER_BYTES;
+            for (GameRecord record : expected) {
+                bytes += record.getByteCount();
+            }
+            assertEquals(bytes, Files.size(path));
+
+            GameRecord record = new GameRecord();
+            try (GameRecordReader reader = new GameRecordReader(path)) {
+                for (GameRecord game : expected) {
+                    assertTrue(reader.next(record));
+                    assertRecordEquals(game, record);
+                }
+                assertFalse(reader.next(record));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Checks that reopening a file appends after its records.
+     */
+    @Test
+    void checkAppend() throws IOException {
+        Path path = Files.createTempFile("games", ".ttt");
+        try {
+            GameRecord[] first = writeGames(path, 3);
+            GameRecord[] second = writeGames(path, 2);
+            try (GameRecordWriter writer = new GameRecordWriter(path)) {
+                assertEquals(5, writer.getRecordCount());
+            }
+            GameRecord record = new GameRecord();
+            try (GameRecordReader reader = new GameRecordReader(path)) {
+                for (GameRecord game : first) {
+                    assertTrue(reader.next(record));
+                    assertRecordEquals(game, record);
+                }
+                for (GameRecord game : second) {
+                    assertTrue(reader.next(record));
+                    assertRecordEquals(game, record);
+                }
+                assertFalse(reader.next(record));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Checks that a file without the record header is rejected.
+     */
+    @Test
+    void checkRejectsOtherFiles() throws IOException {
+        Path path = Files.createTempFile("games", ".ttt");
+        try {
+            Files.write(path, new byte[]{1, 2, 3, 4, 5});
+            assertThrows(IOException.class, () -> new GameRecordReader(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Checks that a tournament refuses to record games on a board too large for the record format, before
+     * it plays or creates the file.
+     *
+     * @throws IOException If the temporary directory can't be used.
+     */
+    @Test
+    void checkTournamentRefusesLargeBoards() throws IOException {
+        Path directory = Files.createTempDirectory("games");
+        Path path = directory.resolve("games.ttt");
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+            int size = GameRecord.MAX_SIZE + 1;
+            Tournament.main(new String[]{"1", String.valueOf(size), "5", "none", "whatever", "whatever", "1",
+                    "1", path.toString()});
+            assertEquals("Games can only be recorded on boards of size 2 to " + GameRecord.MAX_SIZE + ", got " +
+                    size + System.lineSeparator(), printed.toString(StandardCharsets.UTF_8));
+            assertFalse(Files.exists(path));
+        } finally {
+            System.setOut(out);
+            Files.delete(directory);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends game records to a file through a memory mapped window of the file. Writing a record only
+ * copies its bytes into the mapping; the file is grown one large chunk at a time, so millions of games
+ * cost a few hundred system calls. Writes are synchronized, so the workers of a parallel tournament can
+ * share one writer. Closing the writer cuts the file at the end of the last record. A file left
+ * unclosed ends with zero bytes, which readers treat as the end of the records.
+ *
+ * @author Amir Rosengarten
+ */
+public class GameRecordWriter implements AutoCloseable {
+    private static final int CHUNK_BYTES = 1 << 22;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long bufferStart;
+    private long position;
+    private long records;
+
+    /**
+     * Opens a record file for appending, creating it if it doesn't exist.
+     *
+     * @param path The path of the file.
+     * @throws IOException If the file can't be opened or is not a record file.
+     */
+    public GameRecordWriter(Path path) throws IOException {
+        if (Files.exists(path) && Files.size(path) > 0) {
+            try (GameRecordReader reader = new GameRecordReader(path)) {
+                GameRecord record = new GameRecord();
+                while (reader.next(record)) {
+                    records++;
+                }
+                position = reader.getPosition();
+            }
+        }
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE);
+        if (position == 0) {
+            map(0);
+            buffer.putInt(GameRecord.MAGIC);
+            position = GameRecord.FILE_HEADER_BYTES;
+        }
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param record The record.
+     * @throws IOException If the file can't be grown.
+     */
+    public synchronized void write(GameRecord record) throws IOException {
+        if (buffer == null || position + record.getByteCount() > bufferStart + buffer.capacity()) {
+            map(position);
+        }
+        buffer.put((byte) record.getSize());
+        buffer.put((byte) record.getWinStreak());
+        buffer.put((byte) record.getPlayerX());
+        buffer.put((byte) record.getPlayerO());
+        buffer.put((byte) record.getMoveCount());
+        for (int i = 0; i < record.getMoveCount(); i++) {
+            buffer.put((byte) record.getMove(i));
+        }
+        buffer.put((byte) record.getWinner().ordinal());
+        position += record.getByteCount();
+        records++;
+    }
+
+    /**
+     * Returns the number of records in the file, including the records it had when opened.
+     *
+     * @return The number of records.
+     */
+    public synchronized long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Forces the records written so far to the storage device.
+     */
+    public synchronized void flush() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Cuts the file at the end of the last record and closes it.
+     *
+     * @throws IOException If the file can't be cut or closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        buffer = null;
+        try {
+            channel.truncate(position);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Maps the next chunk of the file, growing the file if needed.
+     *
+     * @param start The offset in the file where the chunk starts.
+     * @throws IOException If the file can't be mapped.
+     */
+    private void map(long start) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, start, CHUNK_BYTES);
+        bufferStart = start;
+    }
+}
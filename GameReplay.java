@@ -0,0 +1,260 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Replays recorded games on a board, without players, and gathers statistics about them in one pass.
+ * Every game is checked again with the win checks of Game: each move must be on an empty cell, no move
+ * but the last may win, and the recorded result must match the final position. The statistics are the
+ * results, the average game length, the win rate of every opening move and a histogram of the
+ * directions of the winning lines. Games are streamed one at a time into a reused record and board, so
+ * the memory used does not depend on the number of games.
+ *
+ * @author Amir Rosengarten
+ */
+public class GameReplay {
+    private static final String[] DIRECTION_NAMES = {"horizontal", "vertical", "diagonal", "anti diagonal"};
+
+    private final Board[] boards = new Board[GameRecord.MAX_SIZE + 1];
+    private final long[][] openingGames = new long[GameRecord.MAX_SIZE + 1][];
+    private final long[][] openingWinsX = new long[GameRecord.MAX_SIZE + 1][];
+    private final long[][] openingWinsO = new long[GameRecord.MAX_SIZE + 1][];
+    private final long[] directions = new long[Game.DIRECTIONS];
+    private final long[] results = new long[Mark.values().length];
+    private long games;
+    private long invalidGames;
+    private long moves;
+
+    /**
+     * Constructs a new replay with empty statistics.
+     */
+    public GameReplay() {
+    }
+
+    /**
+     * Replays every game of a record file.
+     *
+     * @param path The path of the record file.
+     * @throws IOException If the file can't be read.
+     */
+    public void replayFile(Path path) throws IOException {
+        GameRecord record = new GameRecord();
+        try (GameRecordReader reader = new GameRecordReader(path)) {
+            while (reader.next(record)) {
+                replay(record);
+            }
+        }
+    }
+
+    /**
+     * Replays one game and adds it to the statistics. An invalid game is only counted as invalid.
+     *
+     * @param record The game.
+     * @return True if the game is valid, false otherwise.
+     */
+    public boolean replay(GameRecord record) {
+        int size = record.getSize();
+        int winStreak = record.getWinStreak();
+        games++;
+        if (winStreak < 2 || winStreak > size || record.getMoveCount() == 0) {
+            invalidGames++;
+            return false;
+        }
+        Board board = boardOfSize(size);
+        Mark mark = Mark.X;
+        int direction = -1;
+        for (int i = 0; i < record.getMoveCount(); i++) {
+            int cell = record.getMove(i);
+            if (direction >= 0 || !board.putMark(mark, cell / size, cell % size)) {
+                // A move after the game was won, or on an occupied cell
+                invalidGames++;
+                return false;
+            }
+            direction = Game.lastMoveDirection(board, winStreak, mark);
+            if (direction < 0) {
+                mark = mark == Mark.X ? Mark.O : Mark.X;
+            }
+        }
+        Mark winner = direction < 0 ? Mark.BLANK : mark;
+        if (winner != record.getWinner() || (winner == Mark.BLANK && board.getEmptyCount() > 0)) {
+            invalidGames++;
+            return false;
+        }
+        addGame(record, winner, direction);
+        return true;
+    }
+
+    /**
+     * Returns the number of games replayed, valid or not.
+     *
+     * @return The number of games.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the number of games that failed the checks.
+     *
+     * @return The number of invalid games.
+     */
+    public long getInvalidGames() {
+        return invalidGames;
+    }
+
+    /**
+     * Returns the number of valid games with the given result.
+     *
+     * @param winner The mark of the winner, or Mark.BLANK for draws.
+     * @return The number of games.
+     */
+    public long getResults(Mark winner) {
+        return results[winner.ordinal()];
+    }
+
+    /**
+     * Returns the average number of moves of the valid games.
+     *
+     * @return The average game length, or 0 if there are no valid games.
+     */
+    public double getAverageLength() {
+        long valid = games - invalidGames;
+        return valid == 0 ? 0 : (double) moves / valid;
+    }
+
+    /**
+     * Returns the number of games won along the given direction.
+     *
+     * @param direction Game.HORIZONTAL, Game.VERTICAL, Game.DIAGONAL or Game.ANTI_DIAGONAL.
+     * @return The number of games.
+     */
+    public long getDirectionCount(int direction) {
+        return directions[direction];
+    }
+
+    /**
+     * Returns the number of valid games on boards of the given size that opened on the given cell.
+     *
+     * @param size The size of the board.
+     * @param cell The cell index of the opening move.
+     * @return The number of games.
+     */
+    public long getOpeningGames(int size, int cell) {
+        return openingGames[size] == null ? 0 : openingGames[size][cell];
+    }
+
+    /**
+     * Returns the share of the games that opened on the given cell that X, the opening player, won.
+     *
+     * @param size The size of the board.
+     * @param cell The cell index of the opening move.
+     * @return The win rate of X, or 0 if there are no such games.
+     */
+    public double getOpeningWinRate(int size, int cell) {
+        long count = getOpeningGames(size, cell);
+        return count == 0 ? 0 : (double) openingWinsX[size][cell] / count;
+    }
+
+    /**
+     * Returns the share of the games that opened on the given cell that O won.
+     *
+     * @param size The size of the board.
+     * @param cell The cell index of the opening move.
+     * @return The win rate of O, or 0 if there are no such games.
+     */
+    public double getOpeningLossRate(int size, int cell) {
+        long count = getOpeningGames(size, cell);
+        return count == 0 ? 0 : (double) openingWinsO[size][cell] / count;
+    }
+
+    /**
+     * Prints the statistics.
+     */
+    public void printStatistics() {
+        System.out.printf("Games: %d, invalid: %d%n", games, invalidGames);
+        System.out.printf("X won: %d, O won: %d, ties: %d%n", results[Mark.X.ordinal()],
+                results[Mark.O.ordinal()], results[Mark.BLANK.ordinal()]);
+        System.out.printf("Average length: %.2f moves%n", getAverageLength());
+        System.out.println("Winning lines:");
+        for (int direction = 0; direction < Game.DIRECTIONS; direction++) {
+            System.out.printf("  %-14s %d%n", DIRECTION_NAMES[direction], directions[direction]);
+        }
+        for (int size = 2; size <= GameRecord.MAX_SIZE; size++) {
+            if (openingGames[size] == null) {
+                continue;
+            }
+            System.out.printf("Opening moves on a %dx%d board (games, X won, O won):%n", size, size);
+            for (int cell = 0; cell < size * size; cell++) {
+                if (openingGames[size][cell] > 0) {
+                    System.out.printf("  (%d, %d) %10d %7.2f%% %7.2f%%%n", cell / size, cell % size,
+                            openingGames[size][cell], 100 * getOpeningWinRate(size, cell),
+                            100 * getOpeningLossRate(size, cell));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a valid game to the statistics.
+     *
+     * @param record    The game.
+     * @param winner    The mark of the winner, or Mark.BLANK for a draw.
+     * @param direction The direction of the winning line, or -1 for a draw.
+     */
+    private void addGame(GameRecord record, Mark winner, int direction) {
+        int size = record.getSize();
+        int opening = record.getMove(0);
+        results[winner.ordinal()]++;
+        moves += record.getMoveCount();
+        if (direction >= 0) {
+            directions[direction]++;
+        }
+        if (openingGames[size] == null) {
+            openingGames[size] = new long[size * size];
+            openingWinsX[size] = new long[size * size];
+            openingWinsO[size] = new long[size * size];
+        }
+        openingGames[size][opening]++;
+        if (winner == Mark.X) {
+            openingWinsX[size][opening]++;
+        } else if (winner == Mark.O) {
+            openingWinsO[size][opening]++;
+        }
+    }
+
+    /**
+     * Returns the empty board of the given size, reusing the board of the previous game of that size.
+     *
+     * @param size The size of the board.
+     * @return The empty board.
+     */
+    private Board boardOfSize(int size) {
+        if (boards[size] == null) {
+            boards[size] = new Board(size);
+        } else {
+            boards[size].reset();
+        }
+        return boards[size];
+    }
+
+    /**
+     * Replays the games of the given record files and prints their statistics.
+     *
+     * @param args The paths of the record files.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: java GameReplay <record file>...");
+            return;
+        }
+        GameReplay replay = new GameReplay();
+        for (String file : args) {
+            try {
+                replay.replayFile(Path.of(file));
+            } catch (IOException e) {
+                System.out.println("Could not read " + file + ": " + e.getMessage());
+                return;
+            }
+        }
+        replay.printStatistics();
+    }
+}
@@ -0,0 +1,97 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the GameReplay class.
+ *
+ * @author Amir Rosengarten
+ */
+class GameReplayTest {
+    private static final int SIZE = 3;
+    private static final int WIN_STREAK = 3;
+
+    /**
+     * Builds a record of a game on a 3x3 board.
+     *
+     * @param winner The recorded winner.
+     * @param cells  The moves.
+     * @return The record.
+     */
+    private static GameRecord record(Mark winner, int... cells) {
+        GameRecord record = new GameRecord();
+        record.setHeader(SIZE, WIN_STREAK, 0, 1, winner);
+        for (int cell : cells) {
+            record.addMove(cell);
+        }
+        return record;
+    }
+
+    /**
+     * Checks that played games replay as valid, with the same results.
+     */
+    @Test
+    void checkPlayedGamesAreValid() {
+        PlayerFactory factory = new PlayerFactory(3);
+        Game game = new Game(factory.buildPlayer("genius"), factory.buildPlayer("whatever"), 5, 4,
+                new VoidRenderer());
+        GameReplay replay = new GameReplay();
+        GameRecord record = new GameRecord();
+        long[] results = new long[Mark.values().length];
+        for (int i = 0; i < 200; i++) {
+            game.reset();
+            Mark winner = game.run();
+            results[winner.ordinal()]++;
+            record.set(game, 3, 1, winner);
+            assertTrue(replay.replay(record));
+        }
+        assertEquals(200, replay.getGames());
+        assertEquals(0, replay.getInvalidGames());
+        for (Mark mark : Mark.values()) {
+            assertEquals(results[mark.ordinal()], replay.getResults(mark));
+        }
+    }
+
+    /**
+     * Checks the statistics of a few known games.
+     */
+    @Test
+    void checkStatistics() {
+        GameReplay replay = new GameReplay();
+        // X wins the top row
+        assertTrue(replay.replay(record(Mark.X, 0, 3, 1, 4, 2)));
+        // O wins the anti diagonal
+        assertTrue(replay.replay(record(Mark.O, 0, 2, 1, 4, 8, 6)));
+        // A draw
+        assertTrue(replay.replay(record(Mark.BLANK, 0, 4, 8, 1, 7, 6, 2, 5, 3)));
+
+        assertEquals(3, replay.getOpeningGames(SIZE, 0));
+        assertEquals(1.0 / 3, replay.getOpeningWinRate(SIZE, 0), 1e-9);
+        assertEquals(1.0 / 3, replay.getOpeningLossRate(SIZE, 0), 1e-9);
+        assertEquals(0, replay.getOpeningGames(SIZE, 4));
+        assertEquals((5 + 6 + 9) / 3.0, replay.getAverageLength(), 1e-9);
+        assertEquals(1, replay.getDirectionCount(Game.HORIZONTAL));
+        assertEquals(1, replay.getDirectionCount(Game.ANTI_DIAGONAL));
+        assertEquals(0, replay.getDirectionCount(Game.VERTICAL));
+        assertEquals(0, replay.getDirectionCount(Game.DIAGONAL));
+    }
+
+    /**
+     * Checks that games that could not have been played are rejected.
+     */
+    @Test
+    void checkInvalidGames() {
+        GameReplay replay = new GameReplay();
+        // A move on an occupied cell
+        assertFalse(replay.replay(record(Mark.BLANK, 0, 0)));
+        // A wrong result
+        assertFalse(replay.replay(record(Mark.O, 0, 3, 1, 4, 2)));
+        // A move after the game was won
+        assertFalse(replay.replay(record(Mark.X, 0, 3, 1, 4, 2, 5)));
+        // A draw on a board that is not full
+        assertFalse(replay.replay(record(Mark.BLANK, 0, 4)));
+        assertEquals(4, replay.getGames());
+        assertEquals(4, replay.getInvalidGames());
+        assertEquals(0, replay.getOpeningGames(SIZE, 0));
+    }
+}
@@ -0,0 +1,677 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A game server on the loopback interface that hosts many games at once on one thread. A Selector event
+ * loop reads and writes all connections without blocking, and every game is kept as a board and two seats
+ * that is advanced one move at a time, instead of a Game that blocks in run. A seat is a remote client or
+ * a bot Player. Bots think on a pool of worker threads, on a copy of the board, and the event loop applies
+ * their moves when they are done, so a slow bot never stalls the other connections. A bot whose game
+ * ended is kept and reused by the next game against its type.
+ * <p>
+ * The protocol is one ASCII line per message, with the fields separated by single spaces. A connection
+ * may play any number of games at once, told apart by the game id.
+ * <pre>
+ * client: NEW size winStreak mark opponent   mark is X or O, opponent a bot type or "remote"
+ * client: MOVE id row col
+ * server: STARTED id mark                    the game started and the client plays mark
+ * server: MOVED id row col                   the opponent moved, it's the client's turn
+ * server: END id winner row col              the game ended with the move at row, col, the winner is
+ *                                            X, O or - for a tie, and -1 -1 if a client left
+ * server: ERROR id message                   the request was refused, id is - if it has none
+ * </pre>
+ * A game against "remote" waits for the next client asking for a remote opponent with the same size and
+ * win streak and the other mark, so every client plays the mark it asked for. X plays first, so a client
+ * playing O waits for MOVED.
+ *
+ * @author Amir Rosengarten
+ */
+public class GameServer implements AutoCloseable {
+    static final String NEW = "NEW";
+    static final String MOVE = "MOVE";
+    static final String STARTED = "STARTED";
+    static final String MOVED = "MOVED";
+    static final String END = "END";
+    static final String ERROR = "ERROR";
+    static final String REMOTE = "remote";
+    static final String NO_ID = "-";
+    private static final int MAX_SIZE = 15;
+    private static final int BUFFER_BYTES = 8192;
+    private static final int BACKLOG = 1024;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final PlayerFactory factory;
+    private final Thread loop;
+    private final Map<Integer, Match> matches = new HashMap<>();
+    private final Map<Long, ArrayDeque<Seat>> waiting = new HashMap<>();
+    private final List<Connection> pendingOutput = new ArrayList<>();
+    private final ExecutorService botThreads;
+    private final Queue<Match> botMoves = new ConcurrentLinkedQueue<>();
+    private final Map<String, ArrayDeque<Player>> idleBots = new HashMap<>();
+    private int nextId;
+    private volatile boolean running = true;
+    private volatile long movesPlayed;
+    private volatile long gamesFinished;
+
+    /**
+     * Constructs a new server listening on a loopback port. The server doesn't accept connections until
+     * it is started.
+     *
+     * @param port    The port, or 0 for any free port.
+     * @param factory Builds the bots, only on the event loop.
+     * @throws IOException If the port can't be bound.
+     */
+    public GameServer(int port, PlayerFactory factory) throws IOException {
+        this.factory = factory;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.loop = new Thread(this::runLoop, "game-server");
+        int threads = Runtime.getRuntime().availableProcessors();
+        this.botThreads = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "game-server-bot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the event loop on its own thread.
+     */
+    public void start() {
+        loop.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Returns the number of moves played in all games so far.
+     *
+     * @return The number of moves.
+     */
+    public long getMovesPlayed() {
+        return movesPlayed;
+    }
+
+    /**
+     * Returns the number of games that ended so far.
+     *
+     * @return The number of games.
+     */
+    public long getGamesFinished() {
+        return gamesFinished;
+    }
+
+    /**
+     * Stops the event loop and closes all connections. The event loop closes them itself when it ends, so
+     * they are only closed here if the loop was never started.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        if (loop.getState() == Thread.State.NEW) {
+            closeAll();
+            return;
+        }
+        try {
+            loop.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the event loop until the server is closed.
+     */
+    private void runLoop() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isAcceptable()) {
+                        accept();
+                    } else if (key.isValid()) {
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                connection.read();
+                            }
+                            if (key.isWritable()) {
+                                connection.flush();
+                            }
+                        } catch (IOException e) {
+                            disconnect(connection);
+                        }
+                    }
+                }
+                applyBotMoves();
+                flushPendingOutput();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            closeAll();
+        }
+    }
+
+    /**
+     * Accepts all pending connections.
+     *
+     * @throws IOException If a connection can't be set up.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    /**
+     * Writes the output queued for every connection during this round of the loop. A move can queue
+     * output for the connection of the other seat, so this is done once all keys were handled.
+     */
+    private void flushPendingOutput() {
+        for (int i = 0; i < pendingOutput.size(); i++) {
+            Connection connection = pendingOutput.get(i);
+            try {
+                if (connection.channel.isOpen()) {
+                    connection.flush();
+                }
+            } catch (IOException e) {
+                disconnect(connection);
+            }
+        }
+        pendingOutput.clear();
+    }
+
+    /**
+     * Closes the server and every connection, and stops the bots. Closing again does nothing.
+     */
+    private void closeAll() {
+        if (!selector.isOpen()) {
+            return;
+        }
+        botThreads.shutdownNow();
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+    }
+
+    /**
+     * Closes a connection. Its games end with the other seat as the winner, and its wait for a remote
+     * opponent is cancelled.
+     *
+     * @param connection The connection.
+     */
+    private void disconnect(Connection connection) {
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        for (ArrayDeque<Seat> seats : waiting.values()) {
+            seats.removeIf(seat -> seat.connection == connection);
+        }
+        for (Match match : new ArrayList<>(connection.matches.values())) {
+            Mark winner = match.seats[0].connection == connection ? Mark.O : Mark.X;
+            end(match, winner, -1, -1);
+        }
+    }
+
+    /**
+     * Handles one request line.
+     *
+     * @param connection The connection that sent it.
+     * @param line       The line, without the line break.
+     */
+    private void handle(Connection connection, String line) {
+        String[] fields = line.split(" ");
+        try {
+            if (fields[0].equals(NEW) && fields.length == 5) {
+                newGame(connection, Integer.parseInt(fields[1]), Integer.parseInt(fields[2]), fields[3],
+                        fields[4]);
+            } else if (fields[0].equals(MOVE) && fields.length == 4) {
+                move(connection, Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                        Integer.parseInt(fields[3]));
+            } else {
+                connection.send(ERROR + " " + NO_ID + " bad request");
+            }
+        } catch (NumberFormatException e) {
+            connection.send(ERROR + " " + NO_ID + " bad number");
+        }
+    }
+
+    /**
+     * Starts a game, or waits for a remote opponent.
+     *
+     * @param connection The connection that asked for the game.
+     * @param size       The size of the board.
+     * @param winStreak  The win streak.
+     * @param markName   The mark of the client, X or O.
+     * @param opponent   A bot type, or "remote".
+     */
+    private void newGame(Connection connection, int size, int winStreak, String markName, String opponent) {
+        if (size < 2 || size > MAX_SIZE || winStreak < 2 || winStreak > size) {
+            connection.send(ERROR + " " + NO_ID + " bad board");
+            return;
+        }
+        if (!markName.equals("X") && !markName.equals("O")) {
+            connection.send(ERROR + " " + NO_ID + " bad mark");
+            return;
+        }
+        Seat client = new Seat(connection, null, null);
+        client.clientIsX = markName.equals("X");
+        Seat other;
+        if (opponent.equals(REMOTE)) {
+            other = pollWaiting(size, winStreak, !client.clientIsX);
+            if (other == null) {
+                long key = waitingKey(size, winStreak, client.clientIsX);
+                waiting.computeIfAbsent(key, k -> new ArrayDeque<>()).add(client);
+                return;
+            }
+        } else {
+            Player bot = opponent.equals("human") ? null : takeBot(opponent);
+            if (bot == null) {
+                connection.send(ERROR + " " + NO_ID + " unknown opponent");
+                return;
+            }
+            bot.startGame(size, winStreak);
+            other = new Seat(null, bot, opponent);
+        }
+        Match match = new Match(nextId++, size, winStreak, client.clientIsX ? client : other,
+                client.clientIsX ? other : client);
+        matches.put(match.id, match);
+        for (int seat = 0; seat < 2; seat++) {
+            if (match.seats[seat].connection != null) {
+                match.seats[seat].connection.matches.put(match.id, match);
+                match.seats[seat].connection.send(STARTED + " " + match.id + " " + (seat == 0 ? "X" : "O"));
+            }
+        }
+        playBots(match);
+    }
+
+    /**
+     * Returns the key of the clients waiting for a remote opponent.
+     *
+     * @param size      The size of the board.
+     * @param winStreak The win streak.
+     * @param clientIsX Whether the waiting clients play X.
+     * @return The key.
+     */
+    private static long waitingKey(int size, int winStreak, boolean clientIsX) {
+        return (long) size << 32 | (long) winStreak << 1 | (clientIsX ? 1 : 0);
+    }
+
+    /**
+     * Takes the client that has waited longest for a remote opponent.
+     *
+     * @param size      The size of the board.
+     * @param winStreak The win streak.
+     * @param clientIsX Whether the client must play X.
+     * @return The seat of the client, or null if none is waiting.
+     */
+    private Seat pollWaiting(int size, int winStreak, boolean clientIsX) {
+        ArrayDeque<Seat> seats = waiting.get(waitingKey(size, winStreak, clientIsX));
+        return seats == null ? null : seats.poll();
+    }
+
+    /**
+     * Takes an idle bot of a type, or builds one.
+     *
+     * @param type The player type.
+     * @return The bot, or null if the type is unknown.
+     */
+    private Player takeBot(String type) {
+        ArrayDeque<Player> idle = idleBots.get(type);
+        Player bot = idle == null ? null : idle.poll();
+        return bot != null ? bot : factory.buildPlayer(type);
+    }
+
+    /**
+     * Keeps the bots of an ended game for the next games against their types.
+     *
+     * @param match The game, whose bots are not thinking.
+     */
+    private void releaseBots(Match match) {
+        for (Seat seat : match.seats) {
+            if (seat.bot != null) {
+                idleBots.computeIfAbsent(seat.botType, type -> new ArrayDeque<>()).add(seat.bot);
+            }
+        }
+    }
+
+    /**
+     * Plays a move of a remote client.
+     *
+     * @param connection The connection of the client.
+     * @param id         The id of the game.
+     * @param row        The row of the move.
+     * @param col        The column of the move.
+     */
+    private void move(Connection connection, int id, int row, int col) {
+        Match match = connection.matches.get(id);
+        if (match == null) {
+            connection.send(ERROR + " " + id + " no such game");
+            return;
+        }
+        if (match.seats[match.turn].connection != connection) {
+            connection.send(ERROR + " " + id + " not your turn");
+            return;
+        }
+        if (!match.board.putMark(match.mark(), row, col)) {
+            connection.send(ERROR + " " + id + " bad move");
+            return;
+        }
+        if (afterMove(match)) {
+            playBots(match);
+        }
+    }
+
+    /**
+     * Lets the bot whose turn it is, if any, think about its move on a worker thread. The bot plays on
+     * its own copy of the board, and the game is told when it is done through botMoves.
+     *
+     * @param match The game.
+     */
+    private void playBots(Match match) {
+        Seat seat = match.seats[match.turn];
+        if (seat.bot == null) {
+            return;
+        }
+        match.botBoard.copyFrom(match.board);
+        match.botThinking = true;
+        Mark mark = match.mark();
+        botThreads.execute(() -> {
+            try {
+                seat.bot.playTurn(match.botBoard, mark);
+            } finally {
+                botMoves.add(match);
+                selector.wakeup();
+            }
+        });
+    }
+
+    /**
+     * Applies the moves of the bots that are done thinking. A bot that played no move, or an illegal
+     * one, forfeits its game.
+     */
+    private void applyBotMoves() {
+        Match match;
+        while ((match = botMoves.poll()) != null) {
+            match.botThinking = false;
+            if (match.ended) {
+                releaseBots(match);
+                continue;
+            }
+            Board played = match.botBoard;
+            if (played.getMarkCount() != match.board.getMarkCount() + 1 ||
+                    !match.board.putMark(match.mark(), played.getLastRow(), played.getLastCol())) {
+                end(match, match.turn == 0 ? Mark.O : Mark.X, -1, -1);
+                continue;
+            }
+            if (afterMove(match)) {
+                playBots(match);
+            }
+        }
+    }
+
+    /**
+     * Ends the game if the last move won or filled the board, or else passes the turn and tells the
+     * remote seat to move.
+     *
+     * @param match The game.
+     * @return True if the game goes on, false if it ended.
+     */
+    private boolean afterMove(Match match) {
+        movesPlayed++;
+        Board board = match.board;
+        Mark mark = match.mark();
+        int row = board.getLastRow();
+        int col = board.getLastCol();
+        if (Game.lastMoveDirection(board, match.winStreak, mark) >= 0) {
+            end(match, mark, row, col);
+            return false;
+        }
+        if (board.getEmptyCount() == 0) {
+            end(match, Mark.BLANK, row, col);
+            return false;
+        }
+        match.turn ^= 1;
+        Connection next = match.seats[match.turn].connection;
+        if (next != null) {
+            next.send(MOVED + " " + match.id + " " + row + " " + col);
+        }
+        return true;
+    }
+
+    /**
+     * Ends a game and tells its remote seats.
+     *
+     * @param match  The game.
+     * @param winner The winner, or Mark.BLANK for a tie.
+     * @param row    The row of the last move, or -1.
+     * @param col    The column of the last move, or -1.
+     */
+    private void end(Match match, Mark winner, int row, int col) {
+        String message = END + " " + match.id + " " + (winner == Mark.BLANK ? "-" : winner.toString()) + " " +
+                row + " " + col;
+        for (Seat seat : match.seats) {
+            if (seat.connection != null) {
+                seat.connection.matches.remove(match.id);
+                seat.connection.send(message);
+            }
+        }
+        matches.remove(match.id);
+        match.ended = true;
+        if (!match.botThinking) {
+            releaseBots(match);
+        }
+        gamesFinished++;
+    }
+
+    /**
+     * A seat of a game, held by a remote client or a bot.
+     */
+    private static class Seat {
+        private final Connection connection;
+        private final Player bot;
+        private final String botType;
+        private boolean clientIsX;
+
+        /**
+         * Constructs a new seat.
+         *
+         * @param connection The connection of the client, or null for a bot.
+         * @param bot        The bot, or null for a client.
+         * @param botType    The player type of the bot, or null for a client.
+         */
+        Seat(Connection connection, Player bot, String botType) {
+            this.connection = connection;
+            this.bot = bot;
+            this.botType = botType;
+        }
+    }
+
+    /**
+     * A game in progress.
+     */
+    private static class Match {
+        private final int id;
+        private final Board board;
+        private final Board botBoard;
+        private final int winStreak;
+        private final Seat[] seats;
+        private int turn;
+        private boolean botThinking;
+        private boolean ended;
+
+        /**
+         * Constructs a new game.
+         *
+         * @param id        The id of the game.
+         * @param size      The size of the board.
+         * @param winStreak The win streak.
+         * @param seatX     The seat of X.
+         * @param seatO     The seat of O.
+         */
+        Match(int id, int size, int winStreak, Seat seatX, Seat seatO) {
+            this.id = id;
+            this.board = new Board(size);
+            this.botBoard = new Board(size);
+            this.winStreak = winStreak;
+            this.seats = new Seat[]{seatX, seatO};
+        }
+
+        /**
+         * Returns the mark of the seat whose turn it is.
+         *
+         * @return The mark.
+         */
+        Mark mark() {
+            return turn == 0 ? Mark.X : Mark.O;
+        }
+    }
+
+    /**
+     * A client connection with its buffers and games.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(BUFFER_BYTES);
+        private final Map<Integer, Match> matches = new HashMap<>();
+        private ByteBuffer out = ByteBuffer.allocate(BUFFER_BYTES);
+        private SelectionKey key;
+
+        /**
+         * Constructs a new connection.
+         *
+         * @param channel The channel of the client.
+         */
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Reads what the client sent and handles every complete line.
+         *
+         * @throws IOException If the channel fails, the client closed it or sent a line too long.
+         */
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IOException("Client closed the connection");
+            }
+            in.flip();
+            int start = 0;
+            for (int i = 0; i < in.limit(); i++) {
+                if (in.get(i) == '\n') {
+                    int end = i > start && in.get(i - 1) == '\r' ? i - 1 : i;
+                    handle(this, new String(in.array(), start, end - start, StandardCharsets.US_ASCII));
+                    start = i + 1;
+                }
+            }
+            in.position(start);
+            in.compact();
+            if (!in.hasRemaining()) {
+                throw new IOException("Line too long");
+            }
+        }
+
+        /**
+         * Queues a line to be sent to the client.
+         *
+         * @param line The line, without the line break.
+         */
+        void send(String line) {
+            if (out.position() == 0) {
+                pendingOutput.add(this);
+            }
+            int needed = line.length() + 1;
+            if (out.remaining() < needed) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + needed));
+                out.flip();
+                grown.put(out);
+                out = grown;
+            }
+            for (int i = 0; i < line.length(); i++) {
+                out.put((byte) line.charAt(i));
+            }
+            out.put((byte) '\n');
+        }
+
+        /**
+         * Writes as much of the queued output as the channel takes, and waits for the channel to be
+         * writable if some is left. Output left over is flushed again when the channel is writable.
+         *
+         * @throws IOException If the channel fails.
+         */
+        void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            boolean pending = out.hasRemaining();
+            out.compact();
+            key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     *
+     * @param args The port, and optionally a seed for the bots.
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        PlayerFactory factory = args.length > 1 ? new PlayerFactory(Long.parseLong(args[1])) : new PlayerFactory();
+        try {
+            GameServer server = new GameServer(port, factory);
+            server.start();
+            System.out.println("Listening on port " + server.getPort());
+        } catch (IOException e) {
+            System.out.println("Could not start the server: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,224 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the GameServer and LoadGenerator classes.
+ *
+ * @author Amir Rosengarten
+ */
+class GameServerTest {
+    /**
+     * Checks that the load generator plays many games at once against bots and measures every move.
+     *
+     * @throws IOException If the loopback connections fail.
+     */
+    @Test
+    void checkLoadGenerator() throws IOException {
+        try (GameServer server = new GameServer(0, new PlayerFactory(1))) {
+            server.start();
+            LoadGenerator generator = new LoadGenerator(server.getPort(), 8, 25, 4, 3, "clever", 2);
+            generator.run(200);
+            assertTrue(generator.getGames() >= 200);
+            assertEquals(generator.getMoves(), generator.getLatencies().getCount());
+            assertTrue(generator.getMovesPerSecond() > 0);
+            assertTrue(server.getMovesPlayed() > generator.getMoves());
+            assertEquals(generator.getGames(), server.getGamesFinished());
+        }
+    }
+
+    /**
+     * Checks a game between two remote clients, with a refused move and a win.
+     *
+     * @throws IOException If the loopback connections fail.
+     */
+    @Test
+    void checkRemoteGame() throws IOException {
+        try (GameServer server = new GameServer(0, new PlayerFactory(1))) {
+            server.start();
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+            try (LineClient first = new LineClient(SocketChannel.open(address));
+                 LineClient second = new LineClient(SocketChannel.open(address))) {
+                first.send("NEW 3 3 O remote");
+                second.send("NEW 3 3 X remote");
+                assertEquals("STARTED 0 O", first.receive());
+                assertEquals("STARTED 0 X", second.receive());
+                first.send("MOVE 0 1 1");
+                assertEquals("ERROR 0 not your turn", first.receive());
+                int[][] moves = {{0, 0}, {1, 0}, {0, 1}, {1, 1}};
+                LineClient[] players = {first, second};
+                for (int i = 0; i < moves.length; i++) {
+                    players[1 - i % 2].send("MOVE 0 " + moves[i][0] + " " + moves[i][1]);
+                    assertEquals("MOVED 0 " + moves[i][0] + " " + moves[i][1], players[i % 2].receive());
+                }
+                second.send("MOVE 0 0 0");
+                assertEquals("ERROR 0 bad move", second.receive());
+                second.send("MOVE 0 0 2");
+                assertEquals("END 0 X 0 2", first.receive());
+                assertEquals("END 0 X 0 2", second.receive());
+                second.send("NEW 3 3 X nobody");
+                assertEquals("ERROR - unknown opponent", second.receive());
+            }
+        }
+    }
+
+    /**
+     * Checks that a client who leaves loses its games.
+     *
+     * @throws IOException If the loopback connections fail.
+     */
+    @Test
+    void checkDisconnectForfeits() throws IOException {
+        try (GameServer server = new GameServer(0, new PlayerFactory(1))) {
+            server.start();
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+            try (LineClient first = new LineClient(SocketChannel.open(address))) {
+                first.send("NEW 4 3 X remote");
+                try (LineClient second = new LineClient(SocketChannel.open(address))) {
+                    second.send("NEW 4 3 O remote");
+                    assertEquals("STARTED 0 X", first.receive());
+                    assertEquals("STARTED 0 O", second.receive());
+                }
+                assertEquals("END 0 X -1 -1", first.receive());
+            }
+        }
+    }
+
+    /**
+     * Checks that a remote game goes on while a bot thinks, and that a bot is reused by the next game
+     * against its type.
+     *
+     * @throws IOException          If the loopback connections fail.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    void checkBotsThinkOffTheLoop() throws IOException, InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger built = new AtomicInteger();
+        AtomicBoolean stalled = new AtomicBoolean();
+        PlayerFactory factory = new PlayerFactory(1) {
+            @Override
+            public Player buildPlayer(String type) {
+                if (!type.equals("slow")) {
+                    return super.buildPlayer(type);
+                }
+                built.incrementAndGet();
+                return (board, mark) -> {
+                    try {
+                        stalled.compareAndSet(false, !release.await(10, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    int cell = 0;
+                    while (board.getMark(cell / board.getSize(), cell % board.getSize()) != Mark.BLANK) {
+                        cell++;
+                    }
+                    board.putMark(mark, cell / board.getSize(), cell % board.getSize());
+                };
+            }
+        };
+        try (GameServer server = new GameServer(0, factory)) {
+            server.start();
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+            try (LineClient waiter = new LineClient(SocketChannel.open(address));
+                 LineClient first = new LineClient(SocketChannel.open(address));
+                 LineClient second = new LineClient(SocketChannel.open(address))) {
+                waiter.send("NEW 3 3 O slow");
+                assertEquals("STARTED 0 O", waiter.receive());
+                first.send("NEW 3 3 X remote");
+                second.send("NEW 3 3 O remote");
+                assertEquals("STARTED 1 X", first.receive());
+                assertEquals("STARTED 1 O", second.receive());
+                first.send("MOVE 1 1 1");
+                assertEquals("MOVED 1 1 1", second.receive());
+                release.countDown();
+                assertEquals("MOVED 0 0 0", waiter.receive());
+                waiter.send("MOVE 0 0 1");
+                assertEquals("MOVED 0 0 2", waiter.receive());
+                waiter.send("MOVE 0 1 0");
+                assertEquals("MOVED 0 1 1", waiter.receive());
+                waiter.send("MOVE 0 1 2");
+                assertEquals("END 0 X 2 0", waiter.receive());
+                waiter.send("NEW 3 3 O slow");
+                assertEquals("STARTED 2 O", waiter.receive());
+                assertEquals("MOVED 2 0 0", waiter.receive());
+            }
+            assertFalse(stalled.get());
+            assertEquals(1, built.get());
+        }
+    }
+
+    /**
+     * A blocking client of the line protocol.
+     */
+    private static class LineClient implements AutoCloseable {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(1024);
+
+        /**
+         * Constructs a new client.
+         *
+         * @param channel A connected blocking channel.
+         */
+        LineClient(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Sends a line.
+         *
+         * @param line The line, without the line break.
+         * @throws IOException If the channel fails.
+         */
+        void send(String line) throws IOException {
+            ByteBuffer out = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.US_ASCII));
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+
+        /**
+         * Receives a line.
+         *
+         * @return The line, without the line break.
+         * @throws IOException If the channel fails or is closed.
+         */
+        String receive() throws IOException {
+            while (true) {
+                for (int i = 0; i < in.position(); i++) {
+                    if (in.get(i) == '\n') {
+                        String line = new String(in.array(), 0, i, StandardCharsets.US_ASCII);
+                        in.flip();
+                        in.position(i + 1);
+                        in.compact();
+                        return line;
+                    }
+                }
+                if (channel.read(in) < 0) {
+                    throw new IOException("Server closed the connection");
+                }
+            }
+        }
+
+        /**
+         * Closes the channel.
+         *
+         * @throws IOException If the channel fails.
+         */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the win checks of the Game class.
+ *
+ * @author Amir Rosengarten
+ */
+class GameTest {
+    private static final int GAMES = 200;
+
+    /**
+     * Checks after every move of random games that the check of the last move agrees with a scan of the
+     * whole board, for every size from 1 to 9 and every win streak. A game stops at its first win, so the
+     * last move is the only one that can have made a streak.
+     */
+    @Test
+    void checkLastMoveMatchesScan() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int size = 1; size <= 9; size++) {
+            for (int winStreak = 1; winStreak <= size; winStreak++) {
+                Board board = new Board(size);
+                Game game = new Game(null, null, board, winStreak, new VoidRenderer());
+                for (int i = 0; i < GAMES; i++) {
+                    board.reset();
+                    Mark mark = Mark.X;
+                    boolean won = false;
+                    while (!won && board.getEmptyCount() > 0) {
+                        int cell = board.getEmptyCell(random.nextInt(board.getEmptyCount()));
+                        assertTrue(board.putMark(mark, cell / size, cell % size));
+                        boolean scanned = game.checkHorizontal(board, winStreak, mark) ||
+                                game.checkVertical(board, winStreak, mark) ||
+                                game.checkDiagonal(board, winStreak, mark);
+                        won = Game.checkLastMove(board, winStreak, mark) == mark;
+                        assertEquals(scanned, won, "size " + size + " streak " + winStreak);
+                        assertEquals(won, Game.lastMoveDirection(board, winStreak, mark) >= 0);
+                        mark = mark == Mark.X ? Mark.O : Mark.X;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that a whole game ends with the winner the full scan finds, or in a draw on a full board.
+     */
+    @Test
+    void checkRunMatchesScan() {
+        PlayerFactory factory = new PlayerFactory(2);
+        for (int size = 2; size <= 6; size++) {
+            for (int winStreak = 2; winStreak <= size; winStreak++) {
+                Board board = new Board(size);
+                Game game = new Game(factory.buildPlayer("whatever"), factory.buildPlayer("whatever"), board,
+                        winStreak, new VoidRenderer());
+                for (int i = 0; i < GAMES; i++) {
+                    Mark winner = game.run();
+                    if (winner == Mark.BLANK) {
+                        assertEquals(0, board.getEmptyCount());
+                        assertEquals(Mark.BLANK, game.checkWinner(board, winStreak, Mark.X));
+                        assertEquals(Mark.BLANK, game.checkWinner(board, winStreak, Mark.O));
+                    } else {
+                        assertEquals(winner, game.checkWinner(board, winStreak, winner));
+                    }
+                    game.reset();
+                }
+            }
+        }
+    }
+}
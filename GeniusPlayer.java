@@ -1,32 +1,49 @@
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
 /**
  * This class represents a player that plays in a genius way. The player plays in the second empty cell in
  * a row or a column. If it can't win, it plays like a clever player.
- * It implements the Player interface.
+ * It extends FallbackPlayer, with a CleverPlayer as its fallback.
  *
  * @author Amir Rosengarten
  */
-public class GeniusPlayer implements Player {
+public class GeniusPlayer extends FallbackPlayer {
     /**
      * Constructs a new GeniusPlayer.
      */
-    public GeniusPlayer() {};
+    public GeniusPlayer() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new GeniusPlayer whose random moves are drawn from the given generator.
+     *
+     * @param random The generator to use. It must not be shared with other threads.
+     */
+    public GeniusPlayer(RandomGenerator random) {
+        this(new CleverPlayer(random));
+    }
 
     /**
-     * Plays a turn on the given board. If it can win, it plays the second empty cell in a row or column.
-     * If it can't win, it plays like a clever player.
+     * Constructs a new GeniusPlayer that passes the turns it can't play to the given player.
+     *
+     * @param fallback The fallback player.
+     */
+    public GeniusPlayer(Player fallback) {
+        super(fallback);
+    }
+
+    /**
+     * Plays the second empty cell in a column or row, if there is one.
      *
      * @param board The board to play on.
      * @param mark  The mark to play.
+     * @return true if the player played, false otherwise.
      */
     @Override
-    public void playTurn(Board board, Mark mark) {
-        if (!playSecondEmpyInCol(board, mark)) {
-            if (!playSecondEmpyInRow(board, mark)) {
-                PlayerFactory factory = new PlayerFactory();
-                Player clever = factory.buildPlayer("clever");
-                clever.playTurn(board, mark);
-            }
-        }
+    protected boolean tryPlay(Board board, Mark mark) {
+        return playSecondEmpyInCol(board, mark) || playSecondEmpyInRow(board, mark);
     }
 
     /**
@@ -62,4 +79,4 @@ public class GeniusPlayer implements Player {
         }
         return false;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
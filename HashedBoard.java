@@ -0,0 +1,80 @@
+import java.util.SplittableRandom;
+
+/**
+ * A board that keeps its SymmetricZobrist hashes up to date on every putMark, so the canonical hash of
+ * the position, shared by all its rotations and reflections, can be read at any time without scanning
+ * the board.
+ * It extends Board.
+ *
+ * @author Amir Rosengarten
+ */
+public class HashedBoard extends Board {
+    private static final long ZOBRIST_SEED = 0x2545F4914F6CDD1DL;
+    private final SymmetricZobrist zobrist;
+
+    /**
+     * Constructs a new empty board whose hashes use fixed keys, so equal positions on different boards
+     * have equal hashes.
+     *
+     * @param size The size of the board.
+     */
+    public HashedBoard(int size) {
+        this(size, new SymmetricZobrist(size, new SplittableRandom(ZOBRIST_SEED)));
+    }
+
+    /**
+     * Constructs a new empty board with the given hashes.
+     *
+     * @param size    The size of the board.
+     * @param zobrist The hashes of an empty board of that size.
+     */
+    public HashedBoard(int size, SymmetricZobrist zobrist) {
+        super(size);
+        this.zobrist = zobrist;
+        zobrist.clear();
+    }
+
+    /**
+     * Puts a mark on the board and adds it to the hashes.
+     *
+     * @param mark The mark to put on the board.
+     * @param row  The row to put the mark in.
+     * @param col  The column to put the mark in.
+     * @return True if the mark was put successfully, false otherwise.
+     */
+    @Override
+    public boolean putMark(Mark mark, int row, int col) {
+        if (!super.putMark(mark, row, col)) {
+            return false;
+        }
+        zobrist.toggle(row * getSize() + col, mark);
+        return true;
+    }
+
+    /**
+     * Clears the board and its hashes.
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        zobrist.clear();
+    }
+
+    /**
+     * Returns the hash of the canonical form of the position.
+     *
+     * @return The canonical hash.
+     */
+    public long getCanonicalHash() {
+        return zobrist.getCanonicalHash();
+    }
+
+    /**
+     * Returns the symmetry that moves the position to its canonical form.
+     *
+     * @return The symmetry, an index into Symmetry.permutations.
+     */
+    public int getCanonicalSymmetry() {
+        return zobrist.getCanonicalSymmetry();
+    }
+}
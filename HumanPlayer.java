@@ -1,14 +1,46 @@
+import java.io.PrintStream;
+
 /**
- * HumanPlayer class. This class implements the Player interface. It represents a human player.
+ * HumanPlayer class. This class implements the Player interface. It represents a human player, whose
+ * coordinates come from a MoveInput: the keyboard by default, or a script or a queue to replay recorded
+ * human moves through the same validation. On boards of up to 10x10 a coordinate is one number, the row
+ * digit followed by the column digit. On larger boards the row and the column are two numbers.
  *
  * @author Amir Rosengarten
  */
 public class HumanPlayer implements Player {
+    private static final int SINGLE_DIGIT_SIZE = 10;
+    private final MoveInput input;
+    private final PrintStream out;
+    private int row;
+    private int col;
+
+    /**
+     * Constructs a new HumanPlayer that reads the keyboard.
+     */
+    public HumanPlayer() {
+        this(KeyboardInput.getInput(), System.out);
+    }
+
+    /**
+     * Constructs a new HumanPlayer that reads the given input and prints its prompts to System.out.
+     *
+     * @param input The source of the coordinates.
+     */
+    public HumanPlayer(MoveInput input) {
+        this(input, System.out);
+    }
 
     /**
-     * Constructs a new HumanPlayer.
+     * Constructs a new HumanPlayer that reads the given input and prints its prompts to the given stream.
+     *
+     * @param input The source of the coordinates.
+     * @param out   The stream for the prompts, or null to print nothing.
      */
-    public HumanPlayer() {};
+    public HumanPlayer(MoveInput input, PrintStream out) {
+        this.input = input;
+        this.out = out;
+    }
 
     /**
      * Plays a turn on the given board.
@@ -19,17 +51,28 @@ public class HumanPlayer implements Player {
     @Override
     public void playTurn(Board board, Mark mark) {
         requestPlayerInput(mark);
-        int row, col, coordinate;
-        coordinate = KeyboardInput.readInt();
-        row = coordinate / 10;
-        col = coordinate % 10;
+        readCoordinate(board.getSize());
         while (!board.putMark(mark, row, col)) {
             if (board.getMark(row, col) != Mark.BLANK) {
-                System.out.println(Constants.OCCUPIED_COORDINATE);
+                print(Constants.OCCUPIED_COORDINATE);
             } else {
-                System.out.println(Constants.INVALID_COORDINATE);
+                print(Constants.INVALID_COORDINATE);
             }
-            coordinate = KeyboardInput.readInt();
+            readCoordinate(board.getSize());
+        }
+    }
+
+    /**
+     * Reads the next coordinate into row and col.
+     *
+     * @param size The size of the board.
+     */
+    private void readCoordinate(int size) {
+        if (size > SINGLE_DIGIT_SIZE) {
+            row = input.nextCoordinate();
+            col = input.nextCoordinate();
+        } else {
+            int coordinate = input.nextCoordinate();
             row = coordinate / 10;
             col = coordinate % 10;
         }
@@ -42,9 +85,20 @@ public class HumanPlayer implements Player {
      */
     private void requestPlayerInput(Mark mark) {
         if (mark == Mark.X) {
-            System.out.println(Constants.playerRequestInputString("X"));
+            print(Constants.playerRequestInputString("X"));
         } else if (mark == Mark.O) {
-            System.out.println(Constants.playerRequestInputString("O"));
+            print(Constants.playerRequestInputString("O"));
+        }
+    }
+
+    /**
+     * Prints a line to the player, unless the player is silent.
+     *
+     * @param message The line to print.
+     */
+    private void print(String message) {
+        if (out != null) {
+            out.println(message);
         }
     }
 }
\ No newline at end of file
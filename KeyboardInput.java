@@ -1,14 +1,12 @@
 
-import java.util.Scanner;
-
 class KeyboardInput
 {
     private static KeyboardInput keyboardInputObject = null;
-    private Scanner scanner;
+    private MoveInput input;
     
     private KeyboardInput()
     {
-        this.scanner = new Scanner(System.in);
+        this.input = new StreamMoveInput(System.in);
     }
 
     public static KeyboardInput getObject()
@@ -20,8 +18,13 @@ class KeyboardInput
         return KeyboardInput.keyboardInputObject;
     }
 
+    public static MoveInput getInput()
+    {
+        return KeyboardInput.getObject().input;
+    }
+
     public static int readInt()
     {
-        return KeyboardInput.getObject().scanner.nextInt();
+        return KeyboardInput.getObject().input.nextCoordinate();
     }
 }
\ No newline at end of file
@@ -0,0 +1,156 @@
+/**
+ * A histogram of durations in nanoseconds with a fixed number of buckets. Durations below 32 ns get a
+ * bucket each, and every larger power of two is split into 16 buckets, so a percentile is off by at most
+ * 1/16 of its value however long the durations are. Recording never allocates. A histogram is not
+ * thread safe: every thread records into its own and the histograms are merged with add.
+ *
+ * @author Amir Rosengarten
+ */
+public class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 32;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int FIRST_EXPONENT = 5;
+    private static final int BUCKETS = LINEAR_BUCKETS + (Long.SIZE - 1 - FIRST_EXPONENT) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * Constructs a new empty histogram.
+     */
+    public LatencyHistogram() {
+    }
+
+    /**
+     * Constructs a copy of a histogram.
+     *
+     * @param other The histogram to copy.
+     */
+    public LatencyHistogram(LatencyHistogram other) {
+        add(other);
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds. Negative durations are recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucket(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all durations of another histogram to this one.
+     *
+     * @param other The other histogram.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Removes all durations.
+     */
+    public void clear() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = 0;
+        }
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /**
+     * Returns the number of durations recorded.
+     *
+     * @return The number of durations.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean duration.
+     *
+     * @return The mean in nanoseconds, or 0 if there are no durations.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the longest duration.
+     *
+     * @return The longest duration in nanoseconds.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns a percentile of the durations, as the upper end of the bucket that holds it.
+     *
+     * @param percentile The percentile, in [0, 100].
+     * @return The duration in nanoseconds, or 0 if there are no durations.
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, upperBound(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the bucket of a duration.
+     *
+     * @param value The duration, not negative.
+     * @return The index of the bucket.
+     */
+    private static int bucket(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the largest duration of a bucket.
+     *
+     * @param bucket The index of the bucket.
+     * @return The duration.
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + FIRST_EXPONENT;
+        if (exponent == Long.SIZE - 2) {
+            return Long.MAX_VALUE;
+        }
+        long subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,346 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * A load generator for a GameServer on the loopback interface. It opens a number of connections on one
+ * Selector and keeps a number of games against a bot running on every connection, playing random moves
+ * as soon as it is its turn and starting a new game whenever one ends. The latency of a move is the time
+ * from sending it to reading the server's answer, which includes the bot's reply move. The clients
+ * alternate between X and O.
+ *
+ * @author Amir Rosengarten
+ */
+public class LoadGenerator {
+    private static final int BUFFER_BYTES = 8192;
+
+    private final int port;
+    private final int connections;
+    private final int gamesPerConnection;
+    private final int size;
+    private final int winStreak;
+    private final String bot;
+    private final SplittableRandom random;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private long moves;
+    private long games;
+    private long elapsedNanos;
+
+    /**
+     * Constructs a new load generator.
+     *
+     * @param port               The port of the server.
+     * @param connections        The number of connections.
+     * @param gamesPerConnection The number of games running at once on every connection.
+     * @param size               The size of the boards.
+     * @param winStreak          The win streak.
+     * @param bot                The bot type the games are played against.
+     * @param seed               The seed of the random moves.
+     */
+    public LoadGenerator(int port, int connections, int gamesPerConnection, int size, int winStreak, String bot,
+                         long seed) {
+        this.port = port;
+        this.connections = connections;
+        this.gamesPerConnection = gamesPerConnection;
+        this.size = size;
+        this.winStreak = winStreak;
+        this.bot = bot;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Plays games until the duration is over, then waits for the games in progress to end.
+     *
+     * @param durationMillis The time to start new games for.
+     * @throws IOException If a connection fails or the server refuses a request.
+     */
+    public void run(long durationMillis) throws IOException {
+        long start = System.nanoTime();
+        long deadline = start + durationMillis * 1_000_000;
+        int running = 0;
+        try (Selector selector = Selector.open()) {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            for (int i = 0; i < connections; i++) {
+                SocketChannel channel = SocketChannel.open(address);
+                channel.socket().setTcpNoDelay(true);
+                channel.configureBlocking(false);
+                Client client = new Client(channel);
+                client.key = channel.register(selector, SelectionKey.OP_READ, client);
+                for (int game = 0; game < gamesPerConnection; game++) {
+                    client.newGame(i + game);
+                    running++;
+                }
+                client.flush();
+            }
+            while (running > 0) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Client client = (Client) key.attachment();
+                    if (key.isReadable()) {
+                        running -= client.read(System.nanoTime() < deadline);
+                    }
+                    client.flush();
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+        }
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the number of moves the clients played.
+     *
+     * @return The number of moves.
+     */
+    public long getMoves() {
+        return moves;
+    }
+
+    /**
+     * Returns the number of games that ended.
+     *
+     * @return The number of games.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the number of client moves per second of the last run.
+     *
+     * @return The throughput.
+     */
+    public double getMovesPerSecond() {
+        return elapsedNanos == 0 ? 0 : moves * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the latencies of the client moves.
+     *
+     * @return The histogram, which is not copied.
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * A game as seen by a client.
+     */
+    private static class ClientGame {
+        private final Board board;
+        private final Mark mark;
+        private long sentNanos;
+
+        /**
+         * Constructs a new client game.
+         *
+         * @param size The size of the board.
+         * @param mark The mark of the client.
+         */
+        ClientGame(int size, Mark mark) {
+            this.board = new Board(size);
+            this.mark = mark;
+        }
+    }
+
+    /**
+     * A connection with its buffers and games.
+     */
+    private class Client {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(BUFFER_BYTES);
+        private final Map<Integer, ClientGame> clientGames = new HashMap<>();
+        private ByteBuffer out = ByteBuffer.allocate(BUFFER_BYTES);
+        private SelectionKey key;
+
+        /**
+         * Constructs a new client.
+         *
+         * @param channel The channel to the server.
+         */
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Asks for a new game.
+         *
+         * @param number The number of the game, whose parity chooses the mark of the client.
+         */
+        void newGame(long number) {
+            send(GameServer.NEW + " " + size + " " + winStreak + " " + (number % 2 == 0 ? "X" : "O") + " " + bot);
+        }
+
+        /**
+         * Reads what the server sent and answers every complete line.
+         *
+         * @param more Whether to start a new game for every game that ends.
+         * @return The number of games that ended and were not replaced.
+         * @throws IOException If the channel fails or the server refused a request.
+         */
+        int read(boolean more) throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IOException("Server closed the connection");
+            }
+            long now = System.nanoTime();
+            int ended = 0;
+            in.flip();
+            int start = 0;
+            for (int i = 0; i < in.limit(); i++) {
+                if (in.get(i) == '\n') {
+                    String line = new String(in.array(), start, i - start, StandardCharsets.US_ASCII);
+                    start = i + 1;
+                    if (!handle(line.split(" "), now, more)) {
+                        ended++;
+                    }
+                }
+            }
+            in.position(start);
+            in.compact();
+            return ended;
+        }
+
+        /**
+         * Handles one line from the server.
+         *
+         * @param fields The fields of the line.
+         * @param now    The time the line was read.
+         * @param more   Whether to start a new game if a game ends.
+         * @return False if a game ended and no new game was started, true otherwise.
+         * @throws IOException If the server refused a request.
+         */
+        private boolean handle(String[] fields, long now, boolean more) throws IOException {
+            int id = fields[0].equals(GameServer.ERROR) ? -1 : Integer.parseInt(fields[1]);
+            switch (fields[0]) {
+                case GameServer.STARTED:
+                    ClientGame started = new ClientGame(size, fields[2].equals("X") ? Mark.X : Mark.O);
+                    clientGames.put(id, started);
+                    if (started.mark == Mark.X) {
+                        move(id, started);
+                    }
+                    return true;
+                case GameServer.MOVED:
+                    ClientGame game = clientGames.get(id);
+                    Mark opponent = game.mark == Mark.X ? Mark.O : Mark.X;
+                    game.board.putMark(opponent, Integer.parseInt(fields[2]), Integer.parseInt(fields[3]));
+                    if (game.sentNanos != 0) {
+                        latencies.record(now - game.sentNanos);
+                    }
+                    move(id, game);
+                    return true;
+                case GameServer.END:
+                    // A game always ends in answer to a move of the client
+                    latencies.record(now - clientGames.remove(id).sentNanos);
+                    games++;
+                    if (more) {
+                        newGame(games);
+                        return true;
+                    }
+                    return false;
+                default:
+                    throw new IOException("Server refused a request: " + String.join(" ", fields));
+            }
+        }
+
+        /**
+         * Plays a random move.
+         *
+         * @param id   The id of the game.
+         * @param game The game.
+         */
+        private void move(int id, ClientGame game) {
+            Board board = game.board;
+            int cell = board.getEmptyCell(random.nextInt(board.getEmptyCount()));
+            board.putMark(game.mark, cell / size, cell % size);
+            game.sentNanos = System.nanoTime();
+            moves++;
+            send(GameServer.MOVE + " " + id + " " + cell / size + " " + cell % size);
+        }
+
+        /**
+         * Queues a line to be sent.
+         *
+         * @param line The line, without the line break.
+         */
+        private void send(String line) {
+            int needed = line.length() + 1;
+            if (out.remaining() < needed) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + needed));
+                out.flip();
+                grown.put(out);
+                out = grown;
+            }
+            for (int i = 0; i < line.length(); i++) {
+                out.put((byte) line.charAt(i));
+            }
+            out.put((byte) '\n');
+        }
+
+        /**
+         * Writes as much of the queued output as the channel takes.
+         *
+         * @throws IOException If the channel fails.
+         */
+        void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            boolean pending = out.hasRemaining();
+            out.compact();
+            key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Measures the moves per second and move latencies of a server on the loopback interface. Without a
+     * port, a server is started in this process.
+     *
+     * @param args Optionally the number of connections, the games per connection, the seconds to run,
+     *             the board size, the win streak, the bot type and the port of a running server.
+     */
+    public static void main(String[] args) {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int gamesPerConnection = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int size = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        int winStreak = args.length > 4 ? Integer.parseInt(args[4]) : size;
+        String bot = args.length > 5 ? args[5] : "whatever";
+        GameServer server = null;
+        try {
+            int port;
+            if (args.length > 6) {
+                port = Integer.parseInt(args[6]);
+            } else {
+                server = new GameServer(0, new PlayerFactory(1));
+                server.start();
+                port = server.getPort();
+            }
+            LoadGenerator generator = new LoadGenerator(port, connections, gamesPerConnection, size, winStreak,
+                    bot, 1);
+            generator.run(seconds * 1000L);
+            LatencyHistogram latencies = generator.getLatencies();
+            System.out.printf("%d games, %d moves, %.0f moves/s, p50 %d ns, p99 %d ns, max %d ns%n",
+                    generator.getGames(), generator.getMoves(), generator.getMovesPerSecond(),
+                    latencies.getPercentile(50), latencies.getPercentile(99), latencies.getMax());
+        } catch (IOException e) {
+            System.out.println("Load test failed: " + e.getMessage());
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,458 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * MctsPlayer chooses its moves by Monte Carlo Tree Search. Each playout walks down a shared tree with
+ * UCT, expands a leaf and finishes the game with random moves. Several threads grow the same tree at
+ * once: node statistics are updated with atomic field updaters, and a node's visit is counted on the
+ * way down, before its result is known, so other threads see it as a loss and spread out (virtual loss).
+ * The calling thread grows the tree too, and the other threads are borrowed from one daemon pool shared by
+ * all MCTS players, so players can be built and discarded freely without leaking threads.
+ * It implements the Player interface.
+ *
+ * @author Amir Rosengarten
+ */
+public class MctsPlayer implements Player {
+    private static final long DEFAULT_MOVE_MILLIS = 50;
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final byte EMPTY = 0;
+    private static final byte X = 1;
+    private static final byte O = 2;
+    private static final int WIN_POINTS = 2;
+    private static final int DRAW_POINTS = 1;
+    private static final int DRAW = 0;
+
+    private final long moveNanos;
+    private final int playoutBudget;
+    private final Worker[] workers;
+    private final AtomicInteger playoutsLeft = new AtomicInteger();
+    private int size;
+    private int winStreak;
+    private byte[] rootCells;
+    private long deadline;
+    private long playouts;
+    private long searchNanos;
+
+    /**
+     * Constructs a new MctsPlayer that searches for the default time on every available core.
+     *
+     * @param random The generator the playouts draw from.
+     */
+    public MctsPlayer(SplittableRandom random) {
+        this(random, Runtime.getRuntime().availableProcessors(), DEFAULT_MOVE_MILLIS, 0);
+    }
+
+    /**
+     * Constructs a new MctsPlayer.
+     *
+     * @param random     The generator the playouts draw from. Every thread gets its own split of it.
+     * @param threads    The number of threads that grow the tree.
+     * @param moveMillis The time budget of a move in milliseconds, or 0 to use only the playout budget.
+     * @param playouts   The number of playouts of a move, or 0 to use only the time budget.
+     */
+    public MctsPlayer(SplittableRandom random, int threads, long moveMillis, int playouts) {
+        if (moveMillis <= 0 && playouts <= 0) {
+            throw new IllegalArgumentException("MCTS needs a time budget or a playout budget");
+        }
+        this.moveNanos = moveMillis * NANOS_PER_MILLI;
+        this.playoutBudget = playouts;
+        this.workers = new Worker[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(random.split());
+        }
+    }
+
+    /**
+     * Holds the pool the helper threads of all players are borrowed from. It is created on first use,
+     * with one thread per core, and its daemon threads live as long as the JVM.
+     */
+    private static final class SharedPool {
+        private static final ExecutorService POOL = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), runnable -> {
+                    Thread thread = new Thread(runnable, "mcts-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Prepares the playouts for a board size and win streak.
+     *
+     * @param size      The size of the board.
+     * @param winStreak The win streak.
+     */
+    @Override
+    public void startGame(int size, int winStreak) {
+        this.winStreak = winStreak;
+        if (rootCells != null && this.size == size) {
+            return;
+        }
+        this.size = size;
+        rootCells = new byte[size * size];
+        for (Worker worker : workers) {
+            worker.resize(size * size);
+        }
+    }
+
+    /**
+     * Plays the most visited move of the search tree.
+     *
+     * @param board The board to play on.
+     * @param mark  The mark to play.
+     */
+    @Override
+    public void playTurn(Board board, Mark mark) {
+        if (rootCells == null || board.getSize() != size) {
+            startGame(board.getSize(), board.getSize());
+        }
+        int empty = 0;
+        for (int cell = 0; cell < rootCells.length; cell++) {
+            Mark current = board.getMark(cell / size, cell % size);
+            rootCells[cell] = current == Mark.X ? X : current == Mark.O ? O : EMPTY;
+            if (current == Mark.BLANK) {
+                empty++;
+            }
+        }
+        if (empty == 0) {
+            return;
+        }
+        int move = search(mark == Mark.X ? X : O);
+        board.putMark(mark, move / size, move % size);
+    }
+
+    /**
+     * Returns the number of playouts run so far.
+     *
+     * @return The number of playouts.
+     */
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    /**
+     * Returns the playout throughput over all moves played so far.
+     *
+     * @return The number of playouts per second.
+     */
+    public double getPlayoutsPerSecond() {
+        return searchNanos == 0 ? 0 : playouts * NANOS_PER_SECOND / searchNanos;
+    }
+
+    /**
+     * Grows a new tree from the loaded position until the budget runs out.
+     *
+     * @param side The side to move.
+     * @return The most visited move.
+     */
+    private int search(byte side) {
+        long start = System.nanoTime();
+        deadline = moveNanos > 0 ? start + moveNanos : Long.MAX_VALUE;
+        playoutsLeft.set(playoutBudget > 0 ? playoutBudget : Integer.MAX_VALUE);
+        Node root = new Node(-1, opponent(side), false);
+        workers[0].reset();
+        workers[0].expand(root);
+        if (workers.length == 1) {
+            workers[0].grow(root);
+        } else {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 1; i < workers.length; i++) {
+                Worker worker = workers[i];
+                futures.add(SharedPool.POOL.submit(() -> worker.grow(root)));
+            }
+            workers[0].grow(root);
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Search was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search worker failed", e.getCause());
+            }
+        }
+        searchNanos += System.nanoTime() - start;
+        playouts += root.visits;
+        Node best = null;
+        for (Node child : root.children) {
+            if (best == null || child.visits > best.visits) {
+                best = child;
+            }
+        }
+        return best.move;
+    }
+
+    /**
+     * Returns the other side.
+     *
+     * @param side A side.
+     * @return The other side.
+     */
+    private static byte opponent(byte side) {
+        return side == X ? O : X;
+    }
+
+    /**
+     * A node of the search tree. Its statistics are kept from the point of view of the side that played
+     * its move, in points: two for a win and one for a draw.
+     */
+    private static final class Node {
+        private static final AtomicIntegerFieldUpdater<Node> VISITS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        private static final AtomicIntegerFieldUpdater<Node> POINTS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "points");
+
+        private final int move;
+        private final byte side;
+        private final boolean winning;
+        private volatile Node[] children;
+        private volatile int visits;
+        private volatile int points;
+
+        /**
+         * Constructs a new node.
+         *
+         * @param move    The cell played to reach the node, or -1 for the root.
+         * @param side    The side that played the move.
+         * @param winning Whether the move won the game.
+         */
+        private Node(int move, byte side, boolean winning) {
+            this.move = move;
+            this.side = side;
+            this.winning = winning;
+        }
+    }
+
+    /**
+     * Runs playouts on its own copy of the board, so a playout allocates nothing but the tree nodes it
+     * expands.
+     */
+    private final class Worker {
+        private final SplittableRandom random;
+        private byte[] cells;
+        private int[] emptyCells;
+        private int[] emptyPositions;
+        private int emptyCount;
+        private Node[] path;
+
+        /**
+         * Constructs a new worker.
+         *
+         * @param random The worker's own generator.
+         */
+        private Worker(SplittableRandom random) {
+            this.random = random;
+        }
+
+        /**
+         * Allocates the worker's board for a number of cells.
+         *
+         * @param cellCount The number of cells of the board.
+         */
+        private void resize(int cellCount) {
+            cells = new byte[cellCount];
+            emptyCells = new int[cellCount];
+            emptyPositions = new int[cellCount];
+            path = new Node[cellCount + 1];
+        }
+
+        /**
+         * Runs playouts until the time or playout budget runs out.
+         *
+         * @param root The root of the shared tree.
+         */
+        private void grow(Node root) {
+            while (playoutsLeft.getAndDecrement() > 0 && System.nanoTime() < deadline) {
+                playout(root);
+            }
+        }
+
+        /**
+         * Runs one playout: selection, expansion, a random game and backpropagation.
+         *
+         * @param root The root of the shared tree.
+         */
+        private void playout(Node root) {
+            reset();
+            Node node = root;
+            int depth = 0;
+            path[0] = root;
+            Node.VISITS.incrementAndGet(root);
+            byte winner = DRAW;
+            while (true) {
+                if (node.winning) {
+                    winner = node.side;
+                    break;
+                }
+                if (emptyCount == 0) {
+                    break;
+                }
+                Node[] children = node.children;
+                if (children == null) {
+                    if (node.visits <= 1 && node != root) {
+                        winner = randomGame(opponent(node.side));
+                        break;
+                    }
+                    children = expand(node);
+                }
+                node = select(node, children);
+                Node.VISITS.incrementAndGet(node);
+                play(node.move, node.side);
+                path[++depth] = node;
+            }
+            for (int i = 0; i <= depth; i++) {
+                Node visited = path[i];
+                if (winner == visited.side) {
+                    Node.POINTS.addAndGet(visited, WIN_POINTS);
+                } else if (winner == DRAW) {
+                    Node.POINTS.addAndGet(visited, DRAW_POINTS);
+                }
+                path[i] = null;
+            }
+        }
+
+        /**
+         * Creates the children of a node, one per empty cell. Only one thread expands a node.
+         *
+         * @param node The node to expand.
+         * @return The children of the node.
+         */
+        private Node[] expand(Node node) {
+            synchronized (node) {
+                if (node.children == null) {
+                    byte side = opponent(node.side);
+                    Node[] children = new Node[emptyCount];
+                    for (int i = 0; i < emptyCount; i++) {
+                        int cell = emptyCells[i];
+                        cells[cell] = side;
+                        children[i] = new Node(cell, side, wins(cell, side));
+                        cells[cell] = EMPTY;
+                    }
+                    node.children = children;
+                }
+                return node.children;
+            }
+        }
+
+        /**
+         * Picks the child with the best upper confidence bound. Unvisited children come first.
+         *
+         * @param parent   The parent node.
+         * @param children The children of the parent.
+         * @return The selected child.
+         */
+        private Node select(Node parent, Node[] children) {
+            double logVisits = Math.log(Math.max(1, parent.visits));
+            Node best = children[0];
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                int visits = child.visits;
+                if (visits == 0) {
+                    return child;
+                }
+                double value = child.points / (double) (WIN_POINTS * visits) +
+                        EXPLORATION * Math.sqrt(logVisits / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Finishes the game with uniformly random moves.
+         *
+         * @param side The side to move.
+         * @return The winning side, or DRAW.
+         */
+        private byte randomGame(byte side) {
+            while (emptyCount > 0) {
+                int cell = emptyCells[random.nextInt(emptyCount)];
+                play(cell, side);
+                if (wins(cell, side)) {
+                    return side;
+                }
+                side = opponent(side);
+            }
+            return DRAW;
+        }
+
+        /**
+         * Copies the root position into the worker's board and rebuilds its empty cell index.
+         */
+        private void reset() {
+            System.arraycopy(rootCells, 0, cells, 0, cells.length);
+            emptyCount = 0;
+            for (int cell = 0; cell < cells.length; cell++) {
+                if (cells[cell] == EMPTY) {
+                    emptyPositions[cell] = emptyCount;
+                    emptyCells[emptyCount++] = cell;
+                }
+            }
+        }
+
+        /**
+         * Puts a mark on the worker's board and swap-removes the cell from the empty cells.
+         *
+         * @param cell The cell to mark.
+         * @param side The side to mark it with.
+         */
+        private void play(int cell, byte side) {
+            cells[cell] = side;
+            int position = emptyPositions[cell];
+            int last = emptyCells[--emptyCount];
+            emptyCells[position] = last;
+            emptyPositions[last] = position;
+        }
+
+        /**
+         * Checks if the given move completes a streak on the worker's board.
+         *
+         * @param cell The cell that was just played.
+         * @param side The side that played it.
+         * @return True if the move wins, false otherwise.
+         */
+        private boolean wins(int cell, byte side) {
+            int row = cell / size;
+            int col = cell % size;
+            int needed = winStreak - 1;
+            return count(row, col, 0, 1, side) + count(row, col, 0, -1, side) >= needed ||
+                    count(row, col, 1, 0, side) + count(row, col, -1, 0, side) >= needed ||
+                    count(row, col, 1, 1, side) + count(row, col, -1, -1, side) >= needed ||
+                    count(row, col, 1, -1, side) + count(row, col, -1, 1, side) >= needed;
+        }
+
+        /**
+         * Counts the consecutive marks of a side in a direction, not including the starting cell.
+         *
+         * @param row    The row of the starting cell.
+         * @param col    The column of the starting cell.
+         * @param rowInc The row increment.
+         * @param colInc The column increment.
+         * @param side   The side to count.
+         * @return The number of consecutive marks.
+         */
+        private int count(int row, int col, int rowInc, int colInc, byte side) {
+            int count = 0;
+            row += rowInc;
+            col += colInc;
+            while (count < winStreak && row >= 0 && row < size && col >= 0 && col < size &&
+                    cells[row * size + col] == side) {
+                count++;
+                row += rowInc;
+                col += colInc;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the MctsPlayer class.
+ *
+ * @author Amir Rosengarten
+ */
+class MctsPlayerTest {
+    private static final int THREADS = 4;
+    private static final int PLAYOUTS = 2000;
+
+    /**
+     * Checks that the MCTS player never loses to a random player on 3x3, as X or as O.
+     */
+    @Test
+    void checkNeverLosesToRandom() {
+        SplittableRandom random = new SplittableRandom(1);
+        Player mcts = new MctsPlayer(random.split(), THREADS, 0, PLAYOUTS);
+        Player whatever = new WhateverPlayer(random.split());
+        for (int i = 0; i < 40; i++) {
+            boolean mctsIsX = i % 2 == 0;
+            Game game = mctsIsX ? new Game(mcts, whatever, 3, 3, new VoidRenderer()) :
+                    new Game(whatever, mcts, 3, 3, new VoidRenderer());
+            assertNotEquals(mctsIsX ? Mark.O : Mark.X, game.run());
+        }
+    }
+
+    /**
+     * Checks that the player takes an immediate win rather than blocking the opponent's.
+     */
+    @Test
+    void checkTakesWin() {
+        MctsPlayer player = new MctsPlayer(new SplittableRandom(2), THREADS, 0, PLAYOUTS);
+        player.startGame(4, 3);
+        Board board = new Board(4);
+        board.putMark(Mark.X, 0, 0);
+        board.putMark(Mark.O, 3, 0);
+        board.putMark(Mark.X, 0, 1);
+        board.putMark(Mark.O, 3, 1);
+        board.putMark(Mark.X, 2, 3);
+        player.playTurn(board, Mark.O);
+        assertEquals(Mark.O, board.getMark(3, 2));
+    }
+
+    /**
+     * Checks that players built and discarded one after another borrow threads from one shared pool
+     * instead of starting threads of their own.
+     */
+    @Test
+    void checkThreadsAreShared() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 20; i++) {
+            Player player = new MctsPlayer(random.split(), THREADS, 0, 100);
+            player.startGame(3, 3);
+            player.playTurn(new Board(3), Mark.X);
+        }
+        long workers = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("mcts-worker")).count();
+        assertTrue(workers <= Runtime.getRuntime().availableProcessors(), workers + " worker threads");
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * A player that times the turns of another player, in the Metrics timer "turn.&lt;type&gt;.&lt;size&gt;"
+ * of the board size of the current game. PlayerFactory wraps its players in one when metrics are enabled.
+ *
+ * @author Amir Rosengarten
+ */
+public class MeteredPlayer implements Player {
+    private final Player player;
+    private final String type;
+    private int size;
+    private Metrics.Timer timer;
+
+    /**
+     * Constructs a new MeteredPlayer.
+     *
+     * @param player The player to time.
+     * @param type   The type of the player, used in the timer names.
+     */
+    public MeteredPlayer(Player player, String type) {
+        this.player = player;
+        this.type = type;
+    }
+
+    /**
+     * Plays a turn with the timed player and records its duration.
+     *
+     * @param board The board to play on.
+     * @param mark  The mark to play.
+     */
+    @Override
+    public void playTurn(Board board, Mark mark) {
+        if (timer == null || board.getSize() != size) {
+            size = board.getSize();
+            timer = Metrics.timer("turn." + type + "." + size);
+        }
+        long start = System.nanoTime();
+        player.playTurn(board, mark);
+        timer.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Passes the start of a game on to the timed player.
+     *
+     * @param size      The size of the board.
+     * @param winStreak The win streak.
+     */
+    @Override
+    public void startGame(int size, int winStreak) {
+        player.startGame(size, winStreak);
+    }
+}
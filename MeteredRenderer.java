@@ -0,0 +1,55 @@
+import java.util.Arrays;
+
+/**
+ * A renderer that times another renderer, in the Metrics timer "render.&lt;type&gt;.&lt;size&gt;" of the
+ * size of the rendered board. RendererFactory wraps its renderers in one when metrics are enabled.
+ *
+ * @author Amir Rosengarten
+ */
+public class MeteredRenderer implements Renderer {
+    private final Renderer renderer;
+    private final String type;
+    private volatile Metrics.Timer[] timers = new Metrics.Timer[0];
+
+    /**
+     * Constructs a new MeteredRenderer.
+     *
+     * @param renderer The renderer to time.
+     * @param type     The type of the renderer, used in the timer names.
+     */
+    public MeteredRenderer(Renderer renderer, String type) {
+        this.renderer = renderer;
+        this.type = type;
+    }
+
+    /**
+     * Renders the board with the timed renderer and records the duration.
+     *
+     * @param board The board to render.
+     */
+    @Override
+    public void renderBoard(Board board) {
+        Metrics.Timer timer = timerOfSize(board.getSize());
+        long start = System.nanoTime();
+        renderer.renderBoard(board);
+        timer.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the timer of a board size. The renderer may be shared by the games of several threads, so
+     * the timers are cached in an array that is replaced, never changed, when a size is added.
+     *
+     * @param size The size of the board.
+     * @return The timer.
+     */
+    private Metrics.Timer timerOfSize(int size) {
+        Metrics.Timer[] cached = timers;
+        if (size < cached.length && cached[size] != null) {
+            return cached[size];
+        }
+        Metrics.Timer[] grown = Arrays.copyOf(cached, Math.max(cached.length, size + 1));
+        grown[size] = Metrics.timer("render." + type + "." + size);
+        timers = grown;
+        return grown[size];
+    }
+}
@@ -0,0 +1,241 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Named latency timers for the hot paths of a run: the turns of every player type, the win checks of
+ * Game and the rendering of every renderer, each per board size. Metrics are off unless the JVM is
+ * started with -Dmetrics=true. ENABLED is a constant, so when it is false the JIT removes the guarded
+ * timing code and the decorators are never built. Every thread records into its own LatencyHistogram,
+ * and a snapshot merges them. A Reporter prints the snapshot periodically during long runs.
+ *
+ * @author Amir Rosengarten
+ */
+public final class Metrics {
+    /**
+     * Whether metrics are recorded, set by the system property "metrics".
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("metrics");
+    private static final long DEFAULT_REPORT_MILLIS = 10_000;
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static volatile long startNanos = System.nanoTime();
+
+    /**
+     * Metrics has only static members.
+     */
+    private Metrics() {
+    }
+
+    /**
+     * A latency timer with a histogram per recording thread.
+     */
+    public static final class Timer {
+        private final CopyOnWriteArrayList<LatencyHistogram> histograms = new CopyOnWriteArrayList<>();
+        private final ThreadLocal<LatencyHistogram> local = ThreadLocal.withInitial(() -> {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histograms.add(histogram);
+            return histogram;
+        });
+
+        /**
+         * Constructs a new timer.
+         */
+        private Timer() {
+        }
+
+        /**
+         * Records a duration in the histogram of the calling thread. The lock is only contended while
+         * a snapshot is taken.
+         *
+         * @param nanos The duration in nanoseconds.
+         */
+        public void record(long nanos) {
+            LatencyHistogram histogram = local.get();
+            synchronized (histogram) {
+                histogram.record(nanos);
+            }
+        }
+
+        /**
+         * Returns the durations recorded by all threads so far.
+         *
+         * @return A new histogram.
+         */
+        public LatencyHistogram snapshot() {
+            LatencyHistogram total = new LatencyHistogram();
+            for (LatencyHistogram histogram : histograms) {
+                synchronized (histogram) {
+                    total.add(histogram);
+                }
+            }
+            return total;
+        }
+
+        /**
+         * Removes all durations.
+         */
+        private void clear() {
+            for (LatencyHistogram histogram : histograms) {
+                synchronized (histogram) {
+                    histogram.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Prints a report of all timers at a fixed period on a daemon thread, and once more when closed.
+     */
+    public static final class Reporter implements AutoCloseable {
+        private final PrintStream out;
+        private final Path file;
+        private final Thread thread;
+
+        /**
+         * Constructs and starts a new reporter.
+         *
+         * @param out          The stream to print to, or null.
+         * @param file         The file to append to, or null.
+         * @param periodMillis The period of the reports.
+         */
+        private Reporter(PrintStream out, Path file, long periodMillis) {
+            this.out = out;
+            this.file = file;
+            this.thread = new Thread(() -> {
+                try {
+                    while (true) {
+                        Thread.sleep(periodMillis);
+                        print();
+                    }
+                } catch (InterruptedException e) {
+                    // Closed
+                }
+            }, "metrics-reporter");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * Prints one report.
+         */
+        private void print() {
+            String report = report();
+            if (out != null) {
+                out.print(report);
+                out.flush();
+            }
+            if (file != null) {
+                try {
+                    Files.writeString(file, report, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                            StandardOpenOption.APPEND);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        /**
+         * Stops the reporter and prints the final report.
+         */
+        @Override
+        public void close() {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            print();
+        }
+    }
+
+    /**
+     * Returns the timer with the given name, creating it on first use. Callers look a timer up once and
+     * keep it, rather than on every event.
+     *
+     * @param name The name of the timer, for example "turn.genius.4".
+     * @return The timer.
+     */
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, key -> new Timer());
+    }
+
+    /**
+     * Returns a snapshot of all timers.
+     *
+     * @return The histograms by timer name, in the order of the names.
+     */
+    public static Map<String, LatencyHistogram> snapshot() {
+        Map<String, LatencyHistogram> snapshot = new TreeMap<>();
+        for (Map.Entry<String, Timer> entry : TIMERS.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Removes all recorded durations and restarts the clock of the event rates.
+     */
+    public static void reset() {
+        for (Timer timer : TIMERS.values()) {
+            timer.clear();
+        }
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns a report of all timers, one line each, with the events per second since the start or the
+     * last reset.
+     *
+     * @return The report.
+     */
+    public static String report() {
+        double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-24s %12s %12s %10s %10s %10s %12s%n", "metric", "count", "per second",
+                "mean ns", "p50 ns", "p99 ns", "max ns"));
+        for (Map.Entry<String, LatencyHistogram> entry : snapshot().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            report.append(String.format("%-24s %12d %12.0f %10.0f %10d %10d %12d%n", entry.getKey(),
+                    histogram.getCount(), histogram.getCount() / seconds, histogram.getMean(),
+                    histogram.getPercentile(50), histogram.getPercentile(99), histogram.getMax()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Starts a reporter configured by system properties: "metrics.period" is the period in milliseconds,
+     * 10 seconds by default, and "metrics.file" is a file to append the reports to instead of printing
+     * them.
+     *
+     * @return The reporter, or null if metrics are disabled.
+     */
+    public static Reporter startReporter() {
+        if (!ENABLED) {
+            return null;
+        }
+        long period = Long.getLong("metrics.period", DEFAULT_REPORT_MILLIS);
+        String file = System.getProperty("metrics.file");
+        return file == null ? startReporter(System.out, null, period) : startReporter(null, Path.of(file), period);
+    }
+
+    /**
+     * Starts a reporter.
+     *
+     * @param out          The stream to print to, or null.
+     * @param file         The file to append to, or null.
+     * @param periodMillis The period of the reports.
+     * @return The reporter.
+     */
+    public static Reporter startReporter(PrintStream out, Path file, long periodMillis) {
+        return new Reporter(out, file, periodMillis);
+    }
+}
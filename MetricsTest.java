@@ -0,0 +1,72 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Metrics, MeteredPlayer and MeteredRenderer classes.
+ *
+ * @author Amir Rosengarten
+ */
+class MetricsTest {
+    /**
+     * Checks that metered players and renderers record one duration per turn and per rendering, by type
+     * and board size, and that a reset clears them.
+     */
+    @Test
+    void checkMeteredGame() {
+        Metrics.reset();
+        PlayerFactory factory = new PlayerFactory(1);
+        Renderer renderer = new MeteredRenderer(new VoidRenderer(), "test");
+        Game game = new Game(new MeteredPlayer(factory.buildPlayer("whatever"), "test-x"),
+                new MeteredPlayer(factory.buildPlayer("whatever"), "test-o"), 4, 3, renderer);
+        game.run();
+        Map<String, LatencyHistogram> snapshot = Metrics.snapshot();
+        long turns = snapshot.get("turn.test-x.4").getCount() + snapshot.get("turn.test-o.4").getCount();
+        assertEquals(game.getMoveCount(), turns);
+        assertEquals(game.getMoveCount() + 1, snapshot.get("render.test.4").getCount());
+        assertTrue(Metrics.report().contains("turn.test-x.4"));
+        Metrics.reset();
+        assertEquals(0, Metrics.snapshot().get("turn.test-x.4").getCount());
+    }
+
+    /**
+     * Checks that a timer merges the durations recorded by several threads.
+     *
+     * @throws InterruptedException If interrupted while joining the threads.
+     */
+    @Test
+    void checkTimerMergesThreads() throws InterruptedException {
+        Metrics.Timer timer = Metrics.timer("test.threads");
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int n = 1; n <= 1000; n++) {
+                    timer.record(n);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencyHistogram snapshot = timer.snapshot();
+        assertEquals(4000, snapshot.getCount());
+        assertEquals(1000, snapshot.getMax());
+        assertSame(timer, Metrics.timer("test.threads"));
+    }
+
+    /**
+     * Checks that closing a reporter prints a final report.
+     */
+    @Test
+    void checkReporter() {
+        Metrics.timer("test.reporter").record(5);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Metrics.startReporter(new PrintStream(bytes), null, 60_000).close();
+        assertTrue(bytes.toString().contains("test.reporter"));
+    }
+}
@@ -0,0 +1,535 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * MinimaxPlayer searches the game tree with negamax and alpha-beta pruning. The search deepens one ply
+ * at a time until the time budget of the move runs out, and positions it has searched are cached in a
+ * fixed-size transposition table keyed by Zobrist hashes. The table is keyed by the canonical hash of
+ * SymmetricZobrist, so rotations and reflections of a position share one entry, and its best move is
+ * stored as a move of the canonical form. Positions at the search horizon are scored by counting the
+ * open windows of winStreak cells that each side could still fill.
+ * It implements the Player interface.
+ *
+ * @author Amir Rosengarten
+ */
+public class MinimaxPlayer implements Player {
+    private static final long DEFAULT_MOVE_MILLIS = 50;
+    private static final int DEFAULT_TABLE_BITS = 18;
+    private static final long ZOBRIST_SEED = 0x9E3779B97F4A7C15L;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final int CLOCK_CHECK_MASK = 1023;
+    private static final int WIN_SCORE = 1 << 28;
+    private static final int WIN_BOUND = WIN_SCORE / 2;
+    private static final int INFINITY = 1 << 30;
+    private static final int MAX_WEIGHT_SHIFT = 16;
+    private static final byte EMPTY = 0;
+    private static final byte X = 1;
+    private static final byte O = 2;
+
+    // A table entry packs the score, depth, bound type and search age into one long
+    private static final int EXACT = 0;
+    private static final int LOWER_BOUND = 1;
+    private static final int UPPER_BOUND = 2;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int FLAG_SHIFT = 48;
+    private static final int AGE_SHIFT = 50;
+    private static final long DEPTH_MASK = 0xFFFF;
+    private static final long FLAG_MASK = 0x3;
+    private static final int AGE_MASK = 0x3F;
+    private static final long SCORE_MASK = 0xFFFFFFFFL;
+
+    private final long moveNanos;
+    private final long[] tableKeys;
+    private final long[] tableEntries;
+    private final int[] tableMoves;
+    private final int tableMask;
+    private int size;
+    private int winStreak;
+    private byte[] cells;
+    private int empty;
+    private SymmetricZobrist zobrist;
+    private long sideKey;
+    private int[] order;
+    private int[][] moves;
+    private int age;
+    private long deadline;
+    private boolean timed;
+    private boolean stopped;
+    private long nodes;
+    private long searchNanos;
+
+    /**
+     * Constructs a new MinimaxPlayer with the default time budget and table size.
+     */
+    public MinimaxPlayer() {
+        this(DEFAULT_MOVE_MILLIS, DEFAULT_TABLE_BITS);
+    }
+
+    /**
+     * Constructs a new MinimaxPlayer.
+     *
+     * @param moveMillis The time budget of a move in milliseconds. The first ply is always searched.
+     * @param tableBits  The transposition table holds 2^tableBits entries.
+     */
+    public MinimaxPlayer(long moveMillis, int tableBits) {
+        this.moveNanos = moveMillis * NANOS_PER_MILLI;
+        this.tableKeys = new long[1 << tableBits];
+        this.tableEntries = new long[1 << tableBits];
+        this.tableMoves = new int[1 << tableBits];
+        this.tableMask = (1 << tableBits) - 1;
+    }
+
+    /**
+     * Prepares the search for a board size and win streak. The transposition table is kept between games
+     * of the same size and streak, and cleared otherwise, as its keys hold neither.
+     *
+     * @param size      The size of the board.
+     * @param winStreak The win streak.
+     */
+    @Override
+    public void startGame(int size, int winStreak) {
+        if (cells != null && this.size == size && this.winStreak == winStreak) {
+            return;
+        }
+        this.winStreak = winStreak;
+        Arrays.fill(tableKeys, 0);
+        Arrays.fill(tableEntries, 0);
+        Arrays.fill(tableMoves, 0);
+        if (cells != null && this.size == size) {
+            return;
+        }
+        this.size = size;
+        int cellCount = size * size;
+        cells = new byte[cellCount];
+        moves = new int[cellCount + 1][];
+        SplittableRandom random = new SplittableRandom(ZOBRIST_SEED);
+        zobrist = new SymmetricZobrist(size, random);
+        sideKey = random.nextLong();
+        order = centerFirstOrder(size);
+    }
+
+    /**
+     * Plays the best move found within the time budget.
+     *
+     * @param board The board to play on.
+     * @param mark  The mark to play.
+     */
+    @Override
+    public void playTurn(Board board, Mark mark) {
+        if (cells == null || board.getSize() != size) {
+            startGame(board.getSize(), board.getSize());
+        }
+        load(board);
+        if (empty == 0) {
+            return;
+        }
+        int move = search(mark == Mark.X ? X : O);
+        board.putMark(mark, move / size, move % size);
+    }
+
+    /**
+     * Returns the number of positions searched so far.
+     *
+     * @return The number of nodes.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the search throughput over all moves played so far.
+     *
+     * @return The number of nodes searched per second.
+     */
+    public double getNodesPerSecond() {
+        return searchNanos == 0 ? 0 : nodes * NANOS_PER_SECOND / searchNanos;
+    }
+
+    /**
+     * Copies the board into the search state.
+     *
+     * @param board The board to copy.
+     */
+    private void load(Board board) {
+        zobrist.clear();
+        empty = 0;
+        for (int cell = 0; cell < cells.length; cell++) {
+            Mark mark = board.getMark(cell / size, cell % size);
+            cells[cell] = mark == Mark.X ? X : mark == Mark.O ? O : EMPTY;
+            if (cells[cell] == EMPTY) {
+                empty++;
+            } else {
+                zobrist.toggle(cell, mark);
+            }
+        }
+    }
+
+    /**
+     * Runs the iterative deepening search from the loaded position.
+     *
+     * @param side The side to move.
+     * @return The best move found.
+     */
+    private int search(byte side) {
+        long start = System.nanoTime();
+        deadline = start + moveNanos;
+        timed = false;
+        stopped = false;
+        age = (age + 1) & AGE_MASK;
+        int count = generateMoves(0, -1);
+        int[] rootMoves = moves[0];
+        int bestMove = rootMoves[0];
+        for (int depth = 1; depth <= empty; depth++) {
+            int best = -INFINITY;
+            int iterationMove = rootMoves[0];
+            for (int i = 0; i < count; i++) {
+                int move = rootMoves[i];
+                place(move, side);
+                int score = wins(move, side) ? WIN_SCORE - 1 :
+                        -negamax(depth - 1, -INFINITY, -best, 1, opponent(side));
+                remove(move, side);
+                if (stopped) {
+                    break;
+                }
+                if (score > best) {
+                    best = score;
+                    iterationMove = move;
+                }
+            }
+            if (stopped) {
+                break;
+            }
+            bestMove = iterationMove;
+            moveToFront(rootMoves, count, bestMove);
+            if (best >= WIN_BOUND || best <= -WIN_BOUND) {
+                break;
+            }
+            timed = true;
+        }
+        searchNanos += System.nanoTime() - start;
+        return bestMove;
+    }
+
+    /**
+     * Searches a position with negamax and alpha-beta pruning.
+     *
+     * @param depth The remaining depth.
+     * @param alpha The lower bound of the window.
+     * @param beta  The upper bound of the window.
+     * @param ply   The distance from the root.
+     * @param side  The side to move.
+     * @return The score of the position for the side to move.
+     */
+    private int negamax(int depth, int alpha, int beta, int ply, byte side) {
+        nodes++;
+        if (timed && (nodes & CLOCK_CHECK_MASK) == 0 && System.nanoTime() > deadline) {
+            stopped = true;
+        }
+        if (stopped || empty == 0) {
+            return 0;
+        }
+        if (depth == 0) {
+            return evaluate(side);
+        }
+        int alphaOrig = alpha;
+        int symmetry = zobrist.getCanonicalSymmetry();
+        long key = side == O ? zobrist.getHash(symmetry) ^ sideKey : zobrist.getHash(symmetry);
+        int slot = (int) key & tableMask;
+        int tableMove = -1;
+        if (tableKeys[slot] == key) {
+            long entry = tableEntries[slot];
+            tableMove = zobrist.fromCanonical(symmetry, tableMoves[slot]);
+            if ((int) ((entry >>> DEPTH_SHIFT) & DEPTH_MASK) >= depth) {
+                int score = fromTable((int) (entry & SCORE_MASK), ply);
+                int flag = (int) ((entry >>> FLAG_SHIFT) & FLAG_MASK);
+                if (flag == EXACT || (flag == LOWER_BOUND && score >= beta) ||
+                        (flag == UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+        int count = generateMoves(ply, tableMove);
+        int[] list = moves[ply];
+        int best = -INFINITY;
+        int bestMove = list[0];
+        for (int i = 0; i < count && alpha < beta; i++) {
+            int move = list[i];
+            place(move, side);
+            int score = wins(move, side) ? WIN_SCORE - ply - 1 :
+                    -negamax(depth - 1, -beta, -alpha, ply + 1, opponent(side));
+            remove(move, side);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                alpha = Math.max(alpha, score);
+            }
+        }
+        int flag = best <= alphaOrig ? UPPER_BOUND : best >= beta ? LOWER_BOUND : EXACT;
+        store(key, slot, depth, flag, toTable(best, ply), zobrist.toCanonical(symmetry, bestMove));
+        return best;
+    }
+
+    /**
+     * Stores a search result. An entry is replaced if it comes from an earlier move's search or if the
+     * new result was searched at least as deep.
+     *
+     * @param key   The position key.
+     * @param slot  The table slot of the key.
+     * @param depth The depth searched.
+     * @param flag  Whether the score is exact, a lower bound or an upper bound.
+     * @param score The score, relative to the position.
+     * @param move  The best move, as a move of the canonical form.
+     */
+    private void store(long key, int slot, int depth, int flag, int score, int move) {
+        long entry = tableEntries[slot];
+        boolean stale = (int) (entry >>> AGE_SHIFT) != age;
+        if (tableKeys[slot] != 0 && !stale && (int) ((entry >>> DEPTH_SHIFT) & DEPTH_MASK) > depth) {
+            return;
+        }
+        tableKeys[slot] = key;
+        tableEntries[slot] = (score & SCORE_MASK) | ((long) depth << DEPTH_SHIFT) |
+                ((long) flag << FLAG_SHIFT) | ((long) age << AGE_SHIFT);
+        tableMoves[slot] = move;
+    }
+
+    /**
+     * Converts a win score from distance-to-root to distance-to-position before storing it.
+     *
+     * @param score The score.
+     * @param ply   The distance from the root.
+     * @return The score to store.
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= WIN_BOUND) {
+            return score + ply;
+        }
+        return score <= -WIN_BOUND ? score - ply : score;
+    }
+
+    /**
+     * Converts a stored win score back to distance-to-root.
+     *
+     * @param score The stored score.
+     * @param ply   The distance from the root.
+     * @return The score.
+     */
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN_BOUND) {
+            return score - ply;
+        }
+        return score <= -WIN_BOUND ? score + ply : score;
+    }
+
+    /**
+     * Lists the empty cells of a ply, the table move first and then from the center outwards.
+     *
+     * @param ply       The ply to list the moves of.
+     * @param tableMove The move suggested by the table, or -1.
+     * @return The number of moves.
+     */
+    private int generateMoves(int ply, int tableMove) {
+        if (moves[ply] == null) {
+            moves[ply] = new int[cells.length];
+        }
+        int[] list = moves[ply];
+        int count = 0;
+        if (tableMove >= 0 && cells[tableMove] == EMPTY) {
+            list[count++] = tableMove;
+        }
+        for (int cell : order) {
+            if (cells[cell] == EMPTY && cell != tableMove) {
+                list[count++] = cell;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Scores a position at the search horizon by its open windows. A window of winStreak cells that holds
+     * marks of only one side is worth more the more marks it holds.
+     *
+     * @param side The side to move.
+     * @return The score for the side to move.
+     */
+    private int evaluate(byte side) {
+        long score = 0;
+        for (int i = 0; i < size; i++) {
+            score += evaluateLine(i, 0, 0, 1, side);
+            score += evaluateLine(0, i, 1, 0, side);
+            score += evaluateLine(i, 0, 1, 1, side);
+            score += evaluateLine(0, size - 1 - i, 1, -1, side);
+            if (i > 0) {
+                score += evaluateLine(0, i, 1, 1, side);
+                score += evaluateLine(i, size - 1, 1, -1, side);
+            }
+        }
+        return (int) Math.max(-WIN_BOUND + 1, Math.min(WIN_BOUND - 1, score));
+    }
+
+    /**
+     * Scores the windows of one line with sliding counts.
+     *
+     * @param row    The row of the first cell of the line.
+     * @param col    The column of the first cell of the line.
+     * @param rowInc The row increment.
+     * @param colInc The column increment.
+     * @param side   The side to move.
+     * @return The score of the line for the side to move.
+     */
+    private long evaluateLine(int row, int col, int rowInc, int colInc, byte side) {
+        int length = 0;
+        while (row + length * rowInc < size && col + length * colInc >= 0 && col + length * colInc < size) {
+            length++;
+        }
+        long score = 0;
+        int own = 0;
+        int other = 0;
+        for (int i = 0; i < length; i++) {
+            byte cell = cells[(row + i * rowInc) * size + col + i * colInc];
+            if (cell == side) {
+                own++;
+            } else if (cell != EMPTY) {
+                other++;
+            }
+            if (i >= winStreak) {
+                byte out = cells[(row + (i - winStreak) * rowInc) * size + col + (i - winStreak) * colInc];
+                if (out == side) {
+                    own--;
+                } else if (out != EMPTY) {
+                    other--;
+                }
+            }
+            if (i >= winStreak - 1) {
+                if (other == 0 && own > 0) {
+                    score += 1L << Math.min(2 * own, MAX_WEIGHT_SHIFT);
+                } else if (own == 0 && other > 0) {
+                    score -= 1L << Math.min(2 * other, MAX_WEIGHT_SHIFT);
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Checks if the given move completes a streak.
+     *
+     * @param move The cell that was just played.
+     * @param side The side that played it.
+     * @return True if the move wins, false otherwise.
+     */
+    private boolean wins(int move, byte side) {
+        int row = move / size;
+        int col = move % size;
+        int needed = winStreak - 1;
+        return count(row, col, 0, 1, side) + count(row, col, 0, -1, side) >= needed ||
+                count(row, col, 1, 0, side) + count(row, col, -1, 0, side) >= needed ||
+                count(row, col, 1, 1, side) + count(row, col, -1, -1, side) >= needed ||
+                count(row, col, 1, -1, side) + count(row, col, -1, 1, side) >= needed;
+    }
+
+    /**
+     * Counts the consecutive marks of a side in a direction, not including the starting cell.
+     *
+     * @param row    The row of the starting cell.
+     * @param col    The column of the starting cell.
+     * @param rowInc The row increment.
+     * @param colInc The column increment.
+     * @param side   The side to count.
+     * @return The number of consecutive marks.
+     */
+    private int count(int row, int col, int rowInc, int colInc, byte side) {
+        int count = 0;
+        row += rowInc;
+        col += colInc;
+        while (count < winStreak && row >= 0 && row < size && col >= 0 && col < size &&
+                cells[row * size + col] == side) {
+            count++;
+            row += rowInc;
+            col += colInc;
+        }
+        return count;
+    }
+
+    /**
+     * Puts a mark of a side in the search state.
+     *
+     * @param cell The cell to mark.
+     * @param side The side to mark it with.
+     */
+    private void place(int cell, byte side) {
+        cells[cell] = side;
+        zobrist.toggle(cell, side == X ? Mark.X : Mark.O);
+        empty--;
+    }
+
+    /**
+     * Takes back a mark put by place.
+     *
+     * @param cell The cell to clear.
+     * @param side The side that marked it.
+     */
+    private void remove(int cell, byte side) {
+        cells[cell] = EMPTY;
+        zobrist.toggle(cell, side == X ? Mark.X : Mark.O);
+        empty++;
+    }
+
+    /**
+     * Returns the other side.
+     *
+     * @param side A side.
+     * @return The other side.
+     */
+    private static byte opponent(byte side) {
+        return side == X ? O : X;
+    }
+
+    /**
+     * Moves a move to the front of a list, keeping the order of the others.
+     *
+     * @param list  The list of moves.
+     * @param count The number of moves in the list.
+     * @param move  The move to move to the front.
+     */
+    private static void moveToFront(int[] list, int count, int move) {
+        int i = 0;
+        while (i < count && list[i] != move) {
+            i++;
+        }
+        for (; i > 0; i--) {
+            list[i] = list[i - 1];
+        }
+        list[0] = move;
+    }
+
+    /**
+     * Orders the cells of a board by their distance from the center, nearest first.
+     *
+     * @param size The size of the board.
+     * @return The ordered cells.
+     */
+    private static int[] centerFirstOrder(int size) {
+        int[] order = new int[size * size];
+        int[] distance = new int[size * size];
+        for (int cell = 0; cell < order.length; cell++) {
+            int row = cell / size;
+            int col = cell % size;
+            order[cell] = cell;
+            distance[cell] = Math.abs(2 * row - (size - 1)) + Math.abs(2 * col - (size - 1));
+        }
+        for (int i = 1; i < order.length; i++) {
+            int cell = order[i];
+            int j = i - 1;
+            while (j >= 0 && distance[order[j]] > distance[cell]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = cell;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the MinimaxPlayer class.
+ *
+ * @author Amir Rosengarten
+ */
+class MinimaxPlayerTest {
+    private static final int MOVE_MILLIS = 2;
+    private static final int TABLE_BITS = 14;
+
+    /**
+     * Checks that the minimax player never loses to a random player on 3x3, as X or as O.
+     */
+    @Test
+    void checkNeverLosesToRandom() {
+        PlayerFactory factory = new PlayerFactory(1);
+        Player minimax = new MinimaxPlayer(MOVE_MILLIS, TABLE_BITS);
+        Player random = factory.buildPlayer("whatever");
+        for (int i = 0; i < 40; i++) {
+            boolean minimaxIsX = i % 2 == 0;
+            Game game = minimaxIsX ? new Game(minimax, random, 3, 3, new VoidRenderer()) :
+                    new Game(random, minimax, 3, 3, new VoidRenderer());
+            Mark winner = game.run();
+            assertNotEquals(minimaxIsX ? Mark.O : Mark.X, winner);
+        }
+    }
+
+    /**
+     * Checks that the player takes an immediate win, also after a game with another win streak on the
+     * same board size, whose table entries must not be reused.
+     */
+    @Test
+    void checkTakesWinAfterStreakChange() {
+        MinimaxPlayer player = new MinimaxPlayer(MOVE_MILLIS, TABLE_BITS);
+        PlayerFactory factory = new PlayerFactory(2);
+        new Game(player, factory.buildPlayer("whatever"), 4, 3, new VoidRenderer()).run();
+
+        player.startGame(4, 4);
+        Board board = new Board(4);
+        board.putMark(Mark.X, 0, 0);
+        board.putMark(Mark.O, 1, 0);
+        board.putMark(Mark.X, 0, 1);
+        board.putMark(Mark.O, 1, 1);
+        board.putMark(Mark.X, 0, 2);
+        board.putMark(Mark.O, 2, 2);
+        player.playTurn(board, Mark.X);
+        assertEquals(Mark.X, board.getMark(0, 3));
+
+        player.startGame(4, 3);
+        board = new Board(4);
+        board.putMark(Mark.X, 3, 0);
+        board.putMark(Mark.O, 0, 0);
+        board.putMark(Mark.X, 3, 1);
+        board.putMark(Mark.O, 1, 1);
+        player.playTurn(board, Mark.X);
+        assertEquals(Mark.X, board.getMark(3, 2));
+    }
+}
@@ -0,0 +1,19 @@
+import java.util.NoSuchElementException;
+
+/**
+ * A source of the coordinates a HumanPlayer plays, as ints. On small boards a move is one int, the row
+ * followed by the column, for example 12 for row 1 and column 2, and on larger boards the row and the
+ * column are two ints.
+ *
+ * @author Amir Rosengarten
+ */
+public interface MoveInput {
+
+    /**
+     * Returns the next coordinate.
+     *
+     * @return The coordinate.
+     * @throws NoSuchElementException If the source has no more coordinates.
+     */
+    int nextCoordinate();
+}
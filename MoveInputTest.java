@@ -0,0 +1,109 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the MoveInput sources and the HumanPlayer that reads them.
+ *
+ * @author Amir Rosengarten
+ */
+class MoveInputTest {
+    /**
+     * Checks that a stream is parsed across block boundaries, with any separators.
+     */
+    @Test
+    void checkStreamInput() {
+        byte[] bytes = "12 0\r\n  7,-3\t99x45".getBytes(StandardCharsets.US_ASCII);
+        // A stream that returns one byte per read, so every number crosses a block boundary
+        InputStream slow = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+        MoveInput input = new StreamMoveInput(slow);
+        for (int expected : new int[]{12, 0, 7, -3, 99, 45}) {
+            assertEquals(expected, input.nextCoordinate());
+        }
+        assertThrows(NoSuchElementException.class, input::nextCoordinate);
+    }
+
+    /**
+     * Checks that a lone minus sign and a number too large for an int are skipped.
+     */
+    @Test
+    void checkInvalidNumbersSkipped() {
+        byte[] bytes = "- 12 -,5 99999999999 3 2147483647 -2147483647 -".getBytes(StandardCharsets.US_ASCII);
+        MoveInput input = new StreamMoveInput(new ByteArrayInputStream(bytes));
+        for (int expected : new int[]{12, 5, 3, Integer.MAX_VALUE, -Integer.MAX_VALUE}) {
+            assertEquals(expected, input.nextCoordinate());
+        }
+        assertThrows(NoSuchElementException.class, input::nextCoordinate);
+    }
+
+    /**
+     * Checks that a script file is replayed in order.
+     *
+     * @throws IOException If the temporary file can't be used.
+     */
+    @Test
+    void checkScriptInput() throws IOException {
+        Path path = Files.createTempFile("moves", ".txt");
+        try {
+            StringBuilder script = new StringBuilder();
+            for (int i = 0; i < 10_000; i++) {
+                script.append(i % 100).append(i % 7 == 0 ? '\n' : ' ');
+            }
+            Files.writeString(path, script);
+            try (ScriptMoveInput input = new ScriptMoveInput(path)) {
+                for (int i = 0; i < 10_000; i++) {
+                    assertEquals(i % 100, input.nextCoordinate());
+                }
+                assertThrows(NoSuchElementException.class, input::nextCoordinate);
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Checks that a queue keeps its order while it grows and wraps around.
+     */
+    @Test
+    void checkQueueInput() {
+        QueueMoveInput queue = new QueueMoveInput(1, 2, 3);
+        assertEquals(1, queue.nextCoordinate());
+        for (int i = 4; i < 100; i++) {
+            queue.add(i);
+        }
+        assertEquals(98, queue.size());
+        for (int i = 2; i < 100; i++) {
+            assertEquals(i, queue.nextCoordinate());
+        }
+        assertThrows(NoSuchElementException.class, queue::nextCoordinate);
+    }
+
+    /**
+     * Checks that a human player skips occupied and invalid coordinates from its input.
+     */
+    @Test
+    void checkHumanPlayerValidatesInput() {
+        Board board = new Board(3);
+        board.putMark(Mark.O, 0, 0);
+        QueueMoveInput queue = new QueueMoveInput(0, 33, 5, 21, 11);
+        Player human = new HumanPlayer(queue, null);
+        human.playTurn(board, Mark.X);
+        assertEquals(Mark.X, board.getMark(2, 1));
+        assertEquals(1, queue.size());
+        human.playTurn(board, Mark.X);
+        assertEquals(Mark.X, board.getMark(1, 1));
+    }
+}
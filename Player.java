@@ -13,4 +13,14 @@ public interface Player {
      * @param mark  The mark to play.
      */
     void playTurn(Board board, Mark mark);
+
+    /**
+     * Called by the game before its first turn, so players that search the game tree know the rules.
+     * Does nothing by default.
+     *
+     * @param size      The size of the board.
+     * @param winStreak The win streak.
+     */
+    default void startGame(int size, int winStreak) {
+    }
 }
\ No newline at end of file
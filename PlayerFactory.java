@@ -1,13 +1,34 @@
+import java.util.SplittableRandom;
+
 /**
  * PlayerFactory class is used to create a player object based on the type of player requested.
+ * A factory built from a seed hands every player its own split of one master generator, so a whole run
+ * can be reproduced from the seed. Such a factory must only be used from one thread. When Metrics are
+ * enabled every player is wrapped in a MeteredPlayer.
  *
  * @author Amir Rosengarten
  */
 public class PlayerFactory {
+    // The position of a type is its id in game records, so new types must only be appended
+    private static final String[] TYPES = {"human", "whatever", "clever", "genius", "minimax", "mcts",
+            "tablebase", "tactician"};
+    private final SplittableRandom random;
+
+    /**
+     * Constructs a new PlayerFactory whose players use unseeded generators.
+     */
+    public PlayerFactory() {
+        this.random = null;
+    }
+
     /**
-     * Constructs a new PlayerFactory.
+     * Constructs a new PlayerFactory whose players draw from splits of a generator with the given seed.
+     *
+     * @param seed The master seed.
      */
-    public PlayerFactory() {};
+    public PlayerFactory(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
 
     /**
      * Builds a player based on the given type.
@@ -22,15 +43,64 @@ public class PlayerFactory {
                 player = new HumanPlayer();
                 break;
             case "whatever":
-                player = new WhateverPlayer();
+                player = new WhateverPlayer(nextRandom());
                 break;
             case "clever":
-                player = new CleverPlayer();
+                player = new CleverPlayer(nextRandom());
                 break;
             case "genius":
-                player = new GeniusPlayer();
+                player = new GeniusPlayer(nextRandom());
+                break;
+            case "minimax":
+                player = new MinimaxPlayer();
+                break;
+            case "mcts":
+                player = new MctsPlayer(nextRandom());
+                break;
+            case "tablebase":
+                player = new TablebasePlayer(nextRandom());
+                break;
+            case "tactician":
+                player = new TacticianPlayer(nextRandom());
                 break;
         }
+        if (Metrics.ENABLED && player != null) {
+            player = new MeteredPlayer(player, type);
+        }
         return player;
     }
+
+    /**
+     * Returns the id of a player type, used to store the type in a single byte.
+     *
+     * @param type The type of player.
+     * @return The id of the type, or -1 if the type is unknown.
+     */
+    public static int getPlayerId(String type) {
+        for (int id = 0; id < TYPES.length; id++) {
+            if (TYPES[id].equals(type)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the player type with the given id.
+     *
+     * @param id The id of the type.
+     * @return The type of player, or null if the id is unknown.
+     */
+    public static String getPlayerType(int id) {
+        return id >= 0 && id < TYPES.length ? TYPES[id] : null;
+    }
+
+    /**
+     * Returns a generator for a new player.
+     *
+     * @return A split of the master generator, or a new unseeded generator if there is no seed.
+     */
+    private SplittableRandom nextRandom() {
+        return random == null ? new SplittableRandom() : random.split();
+    }
 }
\ No newline at end of file
@@ -35,10 +35,34 @@ class PlayerFactoryTest {
 	public static final String GENIUS = "genius";
 	//public static final String GENIUS1 = "geNiuS";
 
+	/**
+	 * string representing a searching player.
+	 */
+	public static final String MINIMAX = "minimax";
+
+	/**
+	 * string representing an MCTS player.
+	 */
+	public static final String MCTS = "mcts";
+
+	/**
+	 * string representing a tablebase player.
+	 */
+	public static final String TABLEBASE = "tablebase";
+
+	/**
+	 * string representing a tactician player.
+	 */
+	public static final String TACTICIAN = "tactician";
+
 	private static final String HUMAN_PLAYER = "HumanPlayer";
 	private static final String WHATEVER_PLAYER = "WhateverPlayer";
 	private static final String CLEVER_PLAYER = "CleverPlayer";
 	private static final String SNARTYPAMTS_PLAYER = "GeniusPlayer";
+	private static final String MINIMAX_PLAYER = "MinimaxPlayer";
+	private static final String MCTS_PLAYER = "MctsPlayer";
+	private static final String TABLEBASE_PLAYER = "TablebasePlayer";
+	private static final String TACTICIAN_PLAYER = "TacticianPlayer";
 
 	private final PlayerFactory PF = new PlayerFactory();
 
@@ -81,5 +105,21 @@ class PlayerFactoryTest {
 //		Player geniusPlayer1 = PF.buildPlayer(GENIUS1);
 //		assertNotNull(geniusPlayer1);
 //		assertEquals(SNARTYPAMTS_PLAYER, geniusPlayer1.getClass().getSimpleName());
+
+		Player minimaxPlayer = PF.buildPlayer(MINIMAX);
+		assertNotNull(minimaxPlayer);
+		assertEquals(MINIMAX_PLAYER, minimaxPlayer.getClass().getSimpleName());
+
+		Player mctsPlayer = PF.buildPlayer(MCTS);
+		assertNotNull(mctsPlayer);
+		assertEquals(MCTS_PLAYER, mctsPlayer.getClass().getSimpleName());
+
+		Player tablebasePlayer = PF.buildPlayer(TABLEBASE);
+		assertNotNull(tablebasePlayer);
+		assertEquals(TABLEBASE_PLAYER, tablebasePlayer.getClass().getSimpleName());
+
+		Player tacticianPlayer = PF.buildPlayer(TACTICIAN);
+		assertNotNull(tacticianPlayer);
+		assertEquals(TACTICIAN_PLAYER, tacticianPlayer.getClass().getSimpleName());
 	}
 }
\ No newline at end of file
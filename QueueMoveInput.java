@@ -0,0 +1,75 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A MoveInput that hands out coordinates added to it in memory, in the order they were added. The
+ * coordinates are kept in a growing ring of ints, so nothing is boxed. Taking from an empty queue fails
+ * at once instead of waiting. A queue is not thread safe.
+ *
+ * @author Amir Rosengarten
+ */
+public class QueueMoveInput implements MoveInput {
+    private static final int INITIAL_CAPACITY = 16;
+    private int[] coordinates = new int[INITIAL_CAPACITY];
+    private int head;
+    private int count;
+
+    /**
+     * Constructs a new empty queue.
+     */
+    public QueueMoveInput() {
+    }
+
+    /**
+     * Constructs a new queue with the given coordinates.
+     *
+     * @param coordinates The coordinates, in order.
+     */
+    public QueueMoveInput(int... coordinates) {
+        for (int coordinate : coordinates) {
+            add(coordinate);
+        }
+    }
+
+    /**
+     * Adds a coordinate at the end of the queue.
+     *
+     * @param coordinate The coordinate.
+     */
+    public void add(int coordinate) {
+        if (count == coordinates.length) {
+            int[] grown = Arrays.copyOfRange(coordinates, head, head + 2 * count);
+            System.arraycopy(coordinates, 0, grown, count - head, head);
+            coordinates = grown;
+            head = 0;
+        }
+        coordinates[(head + count) % coordinates.length] = coordinate;
+        count++;
+    }
+
+    /**
+     * Returns the number of coordinates in the queue.
+     *
+     * @return The number of coordinates.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Takes the first coordinate of the queue.
+     *
+     * @return The coordinate.
+     * @throws NoSuchElementException If the queue is empty.
+     */
+    @Override
+    public int nextCoordinate() {
+        if (count == 0) {
+            throw new NoSuchElementException("No more coordinates");
+        }
+        int coordinate = coordinates[head];
+        head = (head + 1) % coordinates.length;
+        count--;
+        return coordinate;
+    }
+}
@@ -1,5 +1,6 @@
 /**
  * RendererFactory class is used to build a renderer based on the type of the renderer requested.
+ * When Metrics are enabled every renderer is wrapped in a MeteredRenderer.
  *
  * @author Amir Rosengarten
  */
@@ -22,9 +23,18 @@ public class RendererFactory {
             case "console":
                 render = new ConsoleRenderer(size);
                 break;
+            case "ansi":
+                render = new ConsoleRenderer(size, true);
+                break;
             case "none":
                 render = new VoidRenderer();
                 break;
+            case "viewport":
+                render = new ViewportRenderer(size);
+                break;
+        }
+        if (Metrics.ENABLED && render != null) {
+            render = new MeteredRenderer(render, type);
         }
         return render;
     }
@@ -15,6 +15,11 @@ class RendererFactoryTest {
      */
     public static final String CONSOLE = "console";
 
+    /**
+     * string representing a console renderer that redraws only changed cells.
+     */
+    public static final String ANSI = "ansi";
+
     /**
      * string representing a void renderer.
      */
@@ -37,6 +42,10 @@ class RendererFactoryTest {
         assertNotNull(consoleRenderer);
         assertEquals(CONSOLE_RENDERER, consoleRenderer.getClass().getSimpleName());
 
+        Renderer ansiRenderer = rendererFactory.buildRenderer(ANSI, DEFAULT_BOARD_SIZE);
+        assertNotNull(ansiRenderer);
+        assertEquals(CONSOLE_RENDERER, ansiRenderer.getClass().getSimpleName());
+
         Renderer voidRenderer = rendererFactory.buildRenderer(NONE, DEFAULT_BOARD_SIZE);
         assertNotNull(voidRenderer);
         assertEquals(VOID_RENDERER, voidRenderer.getClass().getSimpleName());
@@ -0,0 +1,51 @@
+/**
+ * A WinDetector that checks the packed rows one at a time. Every window of a row is tested at once by
+ * ANDing the row with itself shifted by 1 to winStreak - 1 columns, and every window of the columns and
+ * diagonals starting in a row by ANDing it with the next winStreak - 1 rows, shifted by their distance
+ * for the diagonals.
+ *
+ * @author Amir Rosengarten
+ */
+public class ScalarWinDetector implements WinDetector {
+    /**
+     * Checks if the packed rows hold a streak in a row, a column or a diagonal.
+     *
+     * @param rows      The packed rows, at least size of them, and zero past the last row.
+     * @param size      The size of the board, at most MAX_SIZE.
+     * @param winStreak The length of the streak, at least 1.
+     * @return True if there is a streak, false otherwise.
+     */
+    @Override
+    public boolean hasStreak(int[] rows, int size, int winStreak) {
+        if (winStreak > size) {
+            return false;
+        }
+        for (int row = 0; row < size; row++) {
+            int bits = rows[row];
+            int horizontal = bits;
+            for (int i = 1; i < winStreak && horizontal != 0; i++) {
+                horizontal &= bits >>> i;
+            }
+            if (horizontal != 0) {
+                return true;
+            }
+            if (row + winStreak > size) {
+                continue;
+            }
+            int vertical = bits;
+            int diagonal = bits;
+            int antiDiagonal = bits;
+            for (int i = 1; i < winStreak; i++) {
+                int next = rows[row + i];
+                vertical &= next;
+                // Cell (row + i, col + i) moves to col, and cell (row + i, col - i) moves to col
+                diagonal &= next >>> i;
+                antiDiagonal &= next << i;
+            }
+            if ((vertical | diagonal | antiDiagonal) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
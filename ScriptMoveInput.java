@@ -0,0 +1,58 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A MoveInput that parses coordinates from a script file, a text file of coordinates separated by
+ * whitespace or any other bytes. The file is read through a memory mapped window that moves along it, so
+ * scripts of any length are replayed without copying them.
+ *
+ * @author Amir Rosengarten
+ */
+public class ScriptMoveInput extends TextMoveInput implements AutoCloseable {
+    private static final int CHUNK_BYTES = 1 << 26;
+    private final FileChannel channel;
+    private final long fileSize;
+    private long mappedEnd;
+
+    /**
+     * Opens a script file.
+     *
+     * @param path The path of the file.
+     * @throws IOException If the file can't be opened.
+     */
+    public ScriptMoveInput(Path path) throws IOException {
+        super(null);
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        fileSize = channel.size();
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(CHUNK_BYTES, fileSize));
+        mappedEnd = buffer.limit();
+    }
+
+    /**
+     * Maps the next window of the file.
+     *
+     * @return True if the window has bytes, false at the end of the file.
+     * @throws IOException If the file can't be mapped.
+     */
+    @Override
+    protected boolean refill() throws IOException {
+        if (mappedEnd >= fileSize) {
+            return false;
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, mappedEnd, Math.min(CHUNK_BYTES, fileSize - mappedEnd));
+        mappedEnd += buffer.limit();
+        return true;
+    }
+
+    /**
+     * Closes the file. The mapping stays valid until it is collected.
+     *
+     * @throws IOException If the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Wald's sequential probability ratio test of the win rate of a player, used to stop a Simulation as
+ * soon as the games played so far decide between two hypotheses: the win rate is p0, or it is p1, with
+ * p0 &lt; p1. After every batch of games the log likelihood ratio of the wins is compared with two bounds
+ * set by the error rates: alpha is the chance of deciding for p1 when the rate is p0, and beta the
+ * chance of deciding for p0 when the rate is p1. A clear difference is decided after a few dozen games.
+ *
+ * @author Amir Rosengarten
+ */
+public class SequentialTest {
+    /**
+     * The state of the test.
+     */
+    public enum Decision {
+        /** The games so far don't decide the test. */
+        CONTINUE,
+        /** The win rate is at most p0. */
+        ACCEPT_P0,
+        /** The win rate is at least p1. */
+        ACCEPT_P1
+    }
+
+    private final double p0;
+    private final double p1;
+    private final double winWeight;
+    private final double otherWeight;
+    private final double lowerBound;
+    private final double upperBound;
+
+    /**
+     * Constructs a new test.
+     *
+     * @param p0    The win rate of the first hypothesis.
+     * @param p1    The win rate of the second hypothesis, larger than p0.
+     * @param alpha The chance of accepting p1 when p0 is true.
+     * @param beta  The chance of accepting p0 when p1 is true.
+     */
+    public SequentialTest(double p0, double p1, double alpha, double beta) {
+        if (!(0 < p0 && p0 < p1 && p1 < 1)) {
+            throw new IllegalArgumentException("Win rates must satisfy 0 < p0 < p1 < 1");
+        }
+        if (!(0 < alpha && alpha < 0.5 && 0 < beta && beta < 0.5)) {
+            throw new IllegalArgumentException("Error rates must be in (0, 0.5)");
+        }
+        this.p0 = p0;
+        this.p1 = p1;
+        this.winWeight = Math.log(p1 / p0);
+        this.otherWeight = Math.log((1 - p1) / (1 - p0));
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Returns the win rate of the first hypothesis.
+     *
+     * @return p0.
+     */
+    public double getP0() {
+        return p0;
+    }
+
+    /**
+     * Returns the win rate of the second hypothesis.
+     *
+     * @return p1.
+     */
+    public double getP1() {
+        return p1;
+    }
+
+    /**
+     * Returns the log likelihood ratio of p1 against p0 after the given games.
+     *
+     * @param wins  The number of games won.
+     * @param games The number of games played.
+     * @return The log likelihood ratio.
+     */
+    public double logLikelihoodRatio(long wins, long games) {
+        return wins * winWeight + (games - wins) * otherWeight;
+    }
+
+    /**
+     * Decides the test after the given games.
+     *
+     * @param wins  The number of games won.
+     * @param games The number of games played.
+     * @return The decision.
+     */
+    public Decision decide(long wins, long games) {
+        double ratio = logLikelihoodRatio(wins, games);
+        if (ratio >= upperBound) {
+            return Decision.ACCEPT_P1;
+        }
+        return ratio <= lowerBound ? Decision.ACCEPT_P0 : Decision.CONTINUE;
+    }
+}
@@ -0,0 +1,343 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Plays a number of rounds between two players and returns the statistics as a SimulationResult,
+ * without printing anything. The rounds are split into contiguous ranges, one per worker, and every
+ * worker plays its range with its own players and one reused game. Player 1 is X in the even rounds and
+ * O in the odd ones. Workers add their counts to the shared totals in batches, and every batch can be
+ * reported to a progress callback while the simulation runs. A SequentialTest of the win rate of player
+ * 1 can stop the simulation early, as soon as the totals decide it.
+ *
+ * @author Amir Rosengarten
+ */
+public class Simulation {
+    private static final int DEFAULT_PROGRESS_INTERVAL = 1000;
+    private static final int SEQUENTIAL_CHECK_INTERVAL = 50;
+
+    /**
+     * Is told about every finished game, on the thread of the worker that played it.
+     */
+    public interface GameListener {
+        /**
+         * Called after a game was played.
+         *
+         * @param round  The round of the game.
+         * @param game   The game, which holds the moves until the worker's next game.
+         * @param winner The mark of the winner, or Mark.BLANK for a draw.
+         */
+        void gameFinished(int round, Game game, Mark winner);
+    }
+
+    private final Supplier<Player> player1;
+    private final Supplier<Player> player2;
+    private final int size;
+    private final int winStreak;
+    private final int rounds;
+    private final int parallelism;
+    private final Renderer renderer;
+    private final GameListener listener;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a new simulation that renders nothing and runs on its own worker threads.
+     *
+     * @param player1     Supplies the first player of each worker.
+     * @param player2     Supplies the second player of each worker.
+     * @param size        The size of the board.
+     * @param winStreak   The win streak.
+     * @param rounds      The number of rounds to play.
+     * @param parallelism The number of workers.
+     */
+    public Simulation(Supplier<Player> player1, Supplier<Player> player2, int size, int winStreak, int rounds,
+                      int parallelism) {
+        this(player1, player2, size, winStreak, rounds, parallelism, new VoidRenderer(), null, null);
+    }
+
+    /**
+     * Constructs a new simulation. The player suppliers are called on the thread that runs the
+     * simulation, once per worker. With one worker the rounds are played on that thread.
+     *
+     * @param player1     Supplies the first player of each worker.
+     * @param player2     Supplies the second player of each worker.
+     * @param size        The size of the board.
+     * @param winStreak   The win streak.
+     * @param rounds      The number of rounds to play.
+     * @param parallelism The number of workers.
+     * @param renderer    The renderer, shared by all workers.
+     * @param listener    Is told about every game, or null.
+     * @param executor    Runs the workers, or null to use a new thread pool for every run.
+     */
+    public Simulation(Supplier<Player> player1, Supplier<Player> player2, int size, int winStreak, int rounds,
+                      int parallelism, Renderer renderer, GameListener listener, ExecutorService executor) {
+        this.player1 = player1;
+        this.player2 = player2;
+        this.size = size;
+        this.winStreak = winStreak;
+        this.rounds = rounds;
+        this.parallelism = parallelism;
+        this.renderer = renderer;
+        this.listener = listener;
+        this.executor = executor;
+    }
+
+    /**
+     * Plays all rounds.
+     *
+     * @return The result.
+     */
+    public SimulationResult run() {
+        return run(null, DEFAULT_PROGRESS_INTERVAL);
+    }
+
+    /**
+     * Plays all rounds, reporting the totals so far whenever a worker has played another batch of games.
+     * The callback is called by one worker at a time.
+     *
+     * @param progress         Receives the partial results, or null.
+     * @param progressInterval The number of games a worker plays between reports.
+     * @return The result.
+     */
+    public SimulationResult run(Consumer<SimulationResult> progress, int progressInterval) {
+        return run(null, progress, progressInterval);
+    }
+
+    /**
+     * Plays rounds until a sequential test of the win rate of player 1 is decided or all rounds were
+     * played.
+     *
+     * @param test The test.
+     * @return The result.
+     */
+    public SimulationResult run(SequentialTest test) {
+        return run(test, null, SEQUENTIAL_CHECK_INTERVAL);
+    }
+
+    /**
+     * Plays rounds until a sequential test of the win rate of player 1 is decided or all rounds were
+     * played. The test is checked whenever a worker has played another batch of games, so a smaller
+     * interval stops sooner. The result holds the decision and the number of games actually played.
+     *
+     * @param test             The test, or null to play all rounds.
+     * @param progress         Receives the partial results, or null.
+     * @param progressInterval The number of games a worker plays between checks and reports.
+     * @return The result.
+     */
+    public SimulationResult run(SequentialTest test, Consumer<SimulationResult> progress,
+                                int progressInterval) {
+        RunState state = new RunState(test, progress, Math.max(1, progressInterval));
+        int workers = Math.max(1, Math.min(parallelism, rounds));
+        if (workers == 1) {
+            playRounds(0, rounds, player1.get(), player2.get(), state);
+            return state.result();
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int worker = 0; worker < workers; worker++) {
+            int from = (int) ((long) rounds * worker / workers);
+            int to = (int) ((long) rounds * (worker + 1) / workers);
+            Player first = player1.get();
+            Player second = player2.get();
+            tasks.add(() -> {
+                playRounds(from, to, first, second, state);
+                return null;
+            });
+        }
+        ExecutorService pool = executor != null ? executor : Executors.newFixedThreadPool(workers);
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation worker failed", e.getCause());
+        } finally {
+            if (executor == null) {
+                pool.shutdownNow();
+            }
+        }
+        return state.result();
+    }
+
+    /**
+     * Plays a range of rounds, until the run is stopped. One game, with its board, is reused for all the
+     * rounds of the range.
+     *
+     * @param from   The first round to play.
+     * @param to     The round after the last round to play.
+     * @param first  The first player.
+     * @param second The second player.
+     * @param state  The shared state of the run.
+     */
+    private void playRounds(int from, int to, Player first, Player second, RunState state) {
+        Counts counts = new Counts();
+        Game game = null;
+        for (int round = from; round < to && !state.stopped; round++) {
+            Player playerX = round % 2 == 0 ? first : second;
+            Player playerO = round % 2 == 0 ? second : first;
+            if (game == null) {
+                game = new Game(playerX, playerO, size, winStreak, renderer);
+            } else {
+                game.reset(playerX, playerO);
+            }
+            long gameStart = System.nanoTime();
+            Mark winner = game.run();
+            counts.addGame(round, winner, game.getMoveCount(), System.nanoTime() - gameStart);
+            if (listener != null) {
+                listener.gameFinished(round, game, winner);
+            }
+            if (counts.games == state.batch) {
+                state.publish(counts);
+            }
+        }
+        if (counts.games > 0) {
+            state.publish(counts);
+        }
+    }
+
+    /**
+     * The state shared by the workers of one run.
+     */
+    private static class RunState {
+        private final long start = System.nanoTime();
+        private final Counts totals = new Counts();
+        private final SequentialTest test;
+        private final Consumer<SimulationResult> progress;
+        private final int batch;
+        private SequentialTest.Decision decision;
+        private volatile boolean stopped;
+
+        /**
+         * Constructs the state of a new run.
+         *
+         * @param test     The test that stops the run, or null.
+         * @param progress Receives the partial results, or null.
+         * @param batch    The number of games a worker plays between reports.
+         */
+        RunState(SequentialTest test, Consumer<SimulationResult> progress, int batch) {
+            this.test = test;
+            this.progress = progress;
+            this.batch = batch;
+            this.decision = test == null ? null : SequentialTest.Decision.CONTINUE;
+        }
+
+        /**
+         * Adds a worker's batch to the totals, checks the test, reports the totals and clears the batch.
+         * Once the test is decided, the batches of games that were already running are still counted.
+         *
+         * @param counts The batch.
+         */
+        void publish(Counts counts) {
+            synchronized (totals) {
+                totals.add(counts);
+                if (test != null && decision == SequentialTest.Decision.CONTINUE) {
+                    decision = test.decide(totals.player1Wins, totals.games);
+                    stopped = decision != SequentialTest.Decision.CONTINUE;
+                }
+                if (progress != null) {
+                    progress.accept(totals.toResult(System.nanoTime() - start, decision));
+                }
+            }
+            counts.clear();
+        }
+
+        /**
+         * Returns the result of the run.
+         *
+         * @return The result.
+         */
+        SimulationResult result() {
+            synchronized (totals) {
+                return totals.toResult(System.nanoTime() - start, decision);
+            }
+        }
+    }
+
+    /**
+     * Mutable counts of played games.
+     */
+    private static class Counts {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private long games;
+        private long player1Wins;
+        private long player2Wins;
+        private long xWins;
+        private long oWins;
+        private long moves;
+
+        /**
+         * Counts a game.
+         *
+         * @param round  The round of the game.
+         * @param winner The mark of the winner, or Mark.BLANK for a draw.
+         * @param moves  The number of moves of the game.
+         * @param nanos  The duration of the game.
+         */
+        void addGame(int round, Mark winner, int moves, long nanos) {
+            games++;
+            this.moves += moves;
+            latencies.record(nanos);
+            if (winner == Mark.BLANK) {
+                return;
+            }
+            if (winner == Mark.X) {
+                xWins++;
+            } else {
+                oWins++;
+            }
+            if ((winner == Mark.X) == (round % 2 == 0)) {
+                player1Wins++;
+            } else {
+                player2Wins++;
+            }
+        }
+
+        /**
+         * Adds other counts to these.
+         *
+         * @param other The other counts.
+         */
+        void add(Counts other) {
+            games += other.games;
+            player1Wins += other.player1Wins;
+            player2Wins += other.player2Wins;
+            xWins += other.xWins;
+            oWins += other.oWins;
+            moves += other.moves;
+            latencies.add(other.latencies);
+        }
+
+        /**
+         * Resets the counts to zero.
+         */
+        void clear() {
+            games = 0;
+            player1Wins = 0;
+            player2Wins = 0;
+            xWins = 0;
+            oWins = 0;
+            moves = 0;
+            latencies.clear();
+        }
+
+        /**
+         * Returns the counts as a result.
+         *
+         * @param elapsedNanos The wall clock time so far.
+         * @param decision     The decision of the sequential test, or null if there is none.
+         * @return The result.
+         */
+        SimulationResult toResult(long elapsedNanos, SequentialTest.Decision decision) {
+            return new SimulationResult(games, player1Wins, player2Wins, xWins, oWins, moves, elapsedNanos,
+                    latencies, decision);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * The immutable result of a Simulation, or of the part of it played so far. Player 1 is X in the even
+ * rounds and O in the odd ones, so results are given both per player and per mark.
+ *
+ * @author Amir Rosengarten
+ */
+public class SimulationResult {
+    /**
+     * The normal quantile of a two sided 95% confidence interval.
+     */
+    public static final double Z_95 = 1.959963984540054;
+
+    private final long games;
+    private final long player1Wins;
+    private final long player2Wins;
+    private final long xWins;
+    private final long oWins;
+    private final long draws;
+    private final long moves;
+    private final long elapsedNanos;
+    private final LatencyHistogram latencies;
+    private final SequentialTest.Decision decision;
+
+    /**
+     * Constructs a new result.
+     *
+     * @param games        The number of games played.
+     * @param player1Wins  The number of games won by player 1.
+     * @param player2Wins  The number of games won by player 2.
+     * @param xWins        The number of games won by X.
+     * @param oWins        The number of games won by O.
+     * @param moves        The number of moves played in all games.
+     * @param elapsedNanos The wall clock time of the simulation so far.
+     * @param latencies    The durations of the games, which are copied.
+     * @param decision     The decision of the sequential test, or null if there is none.
+     */
+    SimulationResult(long games, long player1Wins, long player2Wins, long xWins, long oWins, long moves,
+                     long elapsedNanos, LatencyHistogram latencies, SequentialTest.Decision decision) {
+        this.games = games;
+        this.player1Wins = player1Wins;
+        this.player2Wins = player2Wins;
+        this.xWins = xWins;
+        this.oWins = oWins;
+        this.draws = games - player1Wins - player2Wins;
+        this.moves = moves;
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = new LatencyHistogram(latencies);
+        this.decision = decision;
+    }
+
+    /**
+     * Returns the number of games played.
+     *
+     * @return The number of games.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the decision of the sequential test that could stop the simulation early. When the test is
+     * decided, getGames is the number of rounds that were needed.
+     *
+     * @return The decision, CONTINUE if all rounds were played without deciding, or null if the
+     * simulation had no test.
+     */
+    public SequentialTest.Decision getDecision() {
+        return decision;
+    }
+
+    /**
+     * Returns the number of games won by player 1.
+     *
+     * @return The number of wins.
+     */
+    public long getPlayer1Wins() {
+        return player1Wins;
+    }
+
+    /**
+     * Returns the number of games won by player 2.
+     *
+     * @return The number of wins.
+     */
+    public long getPlayer2Wins() {
+        return player2Wins;
+    }
+
+    /**
+     * Returns the number of games won by the player with mark X.
+     *
+     * @return The number of wins.
+     */
+    public long getXWins() {
+        return xWins;
+    }
+
+    /**
+     * Returns the number of games won by the player with mark O.
+     *
+     * @return The number of wins.
+     */
+    public long getOWins() {
+        return oWins;
+    }
+
+    /**
+     * Returns the number of draws.
+     *
+     * @return The number of draws.
+     */
+    public long getDraws() {
+        return draws;
+    }
+
+    /**
+     * Returns the number of moves played in all games.
+     *
+     * @return The number of moves.
+     */
+    public long getMoves() {
+        return moves;
+    }
+
+    /**
+     * Returns the average number of moves of a game.
+     *
+     * @return The average number of moves, or 0 if no game was played.
+     */
+    public double getAverageMoves() {
+        return games == 0 ? 0 : (double) moves / games;
+    }
+
+    /**
+     * Returns the wall clock time of the simulation.
+     *
+     * @return The time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the number of games played per second of wall clock time.
+     *
+     * @return The throughput.
+     */
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns a percentile of the durations of single games.
+     *
+     * @param percentile The percentile, in [0, 100].
+     * @return The duration in nanoseconds.
+     */
+    public long getLatencyPercentile(double percentile) {
+        return latencies.getPercentile(percentile);
+    }
+
+    /**
+     * Returns the mean duration of a game.
+     *
+     * @return The mean duration in nanoseconds.
+     */
+    public double getMeanLatency() {
+        return latencies.getMean();
+    }
+
+    /**
+     * Returns the share of the games won by player 1.
+     *
+     * @return The win rate, or 0 if no game was played.
+     */
+    public double getPlayer1WinRate() {
+        return games == 0 ? 0 : (double) player1Wins / games;
+    }
+
+    /**
+     * Returns the 95% Wilson score interval of the win rate of player 1.
+     *
+     * @return The lower and upper bounds.
+     */
+    public double[] getPlayer1WinRateInterval() {
+        return getPlayer1WinRateInterval(Z_95);
+    }
+
+    /**
+     * Returns the Wilson score interval of the win rate of player 1.
+     *
+     * @param z The normal quantile of the confidence level, for example Z_95.
+     * @return The lower and upper bounds.
+     */
+    public double[] getPlayer1WinRateInterval(double z) {
+        return wilsonInterval(player1Wins, games, z);
+    }
+
+    /**
+     * Returns the Wilson score interval of a proportion. Unlike the normal approximation it stays in
+     * [0, 1] and is accurate for small samples and rates near 0 or 1.
+     *
+     * @param successes The number of successes.
+     * @param trials    The number of trials.
+     * @param z         The normal quantile of the confidence level.
+     * @return The lower and upper bounds, [0, 1] if there are no trials.
+     */
+    static double[] wilsonInterval(long successes, long trials, double z) {
+        if (trials == 0) {
+            return new double[]{0, 1};
+        }
+        double rate = (double) successes / trials;
+        double z2 = z * z;
+        double denominator = 1 + z2 / trials;
+        double center = (rate + z2 / (2 * trials)) / denominator;
+        double margin = z * Math.sqrt(rate * (1 - rate) / trials + z2 / (4.0 * trials * trials)) / denominator;
+        return new double[]{Math.max(0, center - margin), Math.min(1, center + margin)};
+    }
+
+    /**
+     * Returns a one line summary of the result.
+     *
+     * @return The summary.
+     */
+    @Override
+    public String toString() {
+        double[] interval = getPlayer1WinRateInterval();
+        return String.format("%d games, player 1 won %d (%.1f%%, 95%% CI %.1f%%-%.1f%%), player 2 won %d, " +
+                        "ties %d, %.1f moves/game, %.0f games/s, p50 %d ns, p99 %d ns", games, player1Wins,
+                100 * getPlayer1WinRate(), 100 * interval[0], 100 * interval[1], player2Wins, draws,
+                getAverageMoves(), getGamesPerSecond(), getLatencyPercentile(50), getLatencyPercentile(99));
+    }
+}
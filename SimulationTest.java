@@ -0,0 +1,176 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Simulation, SimulationResult, SequentialTest and LatencyHistogram classes.
+ *
+ * @author Amir Rosengarten
+ */
+class SimulationTest {
+    private static final int ROUNDS = 2000;
+
+    /**
+     * Checks that the counts of a simulation add up, per player and per mark.
+     */
+    @Test
+    void checkCountsAddUp() {
+        PlayerFactory factory = new PlayerFactory(1);
+        SimulationResult result = new Simulation(() -> factory.buildPlayer("genius"),
+                () -> factory.buildPlayer("whatever"), 4, 3, ROUNDS, 4).run();
+        assertEquals(ROUNDS, result.getGames());
+        assertEquals(ROUNDS, result.getPlayer1Wins() + result.getPlayer2Wins() + result.getDraws());
+        assertEquals(result.getPlayer1Wins() + result.getPlayer2Wins(), result.getXWins() + result.getOWins());
+        assertTrue(result.getPlayer1WinRate() > 0.55);
+        assertTrue(result.getAverageMoves() >= 5 && result.getAverageMoves() <= 16);
+        assertTrue(result.getGamesPerSecond() > 0);
+        assertTrue(result.getLatencyPercentile(50) <= result.getLatencyPercentile(99));
+        double[] interval = result.getPlayer1WinRateInterval();
+        assertTrue(interval[0] <= result.getPlayer1WinRate() && result.getPlayer1WinRate() <= interval[1]);
+    }
+
+    /**
+     * Checks that one worker with seeded players gives the same result every time, and the same as a
+     * shared executor with one worker.
+     */
+    @Test
+    void checkSingleWorkerIsReproducible() {
+        SimulationResult first = seededSimulation(null).run();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            SimulationResult second = seededSimulation(executor).run();
+            assertEquals(first.getPlayer1Wins(), second.getPlayer1Wins());
+            assertEquals(first.getPlayer2Wins(), second.getPlayer2Wins());
+            assertEquals(first.getMoves(), second.getMoves());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Builds a simulation with seeded players on one worker.
+     *
+     * @param executor The executor, or null.
+     * @return The simulation.
+     */
+    private static Simulation seededSimulation(ExecutorService executor) {
+        PlayerFactory factory = new PlayerFactory(2);
+        return new Simulation(() -> factory.buildPlayer("clever"), () -> factory.buildPlayer("whatever"), 5, 4,
+                ROUNDS, 1, new VoidRenderer(), null, executor);
+    }
+
+    /**
+     * Checks that the progress callback sees growing partial results that end with the final result.
+     */
+    @Test
+    void checkProgress() {
+        PlayerFactory factory = new PlayerFactory(3);
+        Simulation simulation = new Simulation(() -> factory.buildPlayer("whatever"),
+                () -> factory.buildPlayer("whatever"), 3, 3, ROUNDS, 2);
+        List<SimulationResult> reports = new ArrayList<>();
+        SimulationResult result = simulation.run(reports::add, 100);
+        assertEquals(ROUNDS / 100, reports.size());
+        for (int i = 1; i < reports.size(); i++) {
+            assertTrue(reports.get(i).getGames() > reports.get(i - 1).getGames());
+        }
+        assertEquals(result.getGames(), reports.get(reports.size() - 1).getGames());
+        assertEquals(result.getPlayer1Wins(), reports.get(reports.size() - 1).getPlayer1Wins());
+    }
+
+    /**
+     * Checks the listener sees every round once.
+     */
+    @Test
+    void checkListener() {
+        boolean[] seen = new boolean[ROUNDS];
+        PlayerFactory factory = new PlayerFactory(4);
+        new Simulation(() -> factory.buildPlayer("whatever"), () -> factory.buildPlayer("clever"), 3, 3, ROUNDS, 3,
+                new VoidRenderer(), (round, game, winner) -> {
+                    synchronized (seen) {
+                        assertFalse(seen[round]);
+                        seen[round] = true;
+                    }
+                    assertTrue(game.getMoveCount() >= 5);
+                }, null).run();
+        for (boolean round : seen) {
+            assertTrue(round);
+        }
+    }
+
+    /**
+     * Checks that a sequential test stops a simulation long before all rounds were played, with the right
+     * decision for a clearly stronger and a clearly weaker first player.
+     */
+    @Test
+    void checkSequentialTestStopsEarly() {
+        int rounds = 100_000;
+        SequentialTest test = new SequentialTest(0.5, 0.55, 0.01, 0.01);
+        PlayerFactory factory = new PlayerFactory(5);
+        SimulationResult stronger = new Simulation(() -> factory.buildPlayer("genius"),
+                () -> factory.buildPlayer("whatever"), 4, 3, rounds, 4).run(test);
+        assertEquals(SequentialTest.Decision.ACCEPT_P1, stronger.getDecision());
+        assertTrue(stronger.getGames() < rounds / 100, "needed " + stronger.getGames());
+        SimulationResult weaker = new Simulation(() -> factory.buildPlayer("whatever"),
+                () -> factory.buildPlayer("genius"), 4, 3, rounds, 1).run(test);
+        assertEquals(SequentialTest.Decision.ACCEPT_P0, weaker.getDecision());
+        assertTrue(weaker.getGames() < rounds / 100, "needed " + weaker.getGames());
+        assertNull(new Simulation(() -> factory.buildPlayer("whatever"), () -> factory.buildPlayer("whatever"),
+                3, 3, 10, 1).run().getDecision());
+    }
+
+    /**
+     * Checks the sequential test bounds and that a test without enough games continues.
+     */
+    @Test
+    void checkSequentialTestBounds() {
+        SequentialTest test = new SequentialTest(0.5, 0.6, 0.05, 0.05);
+        assertEquals(0, test.logLikelihoodRatio(0, 0), 1e-12);
+        assertEquals(Math.log(1.2) + Math.log(0.8), test.logLikelihoodRatio(1, 2), 1e-12);
+        assertEquals(SequentialTest.Decision.CONTINUE, test.decide(5, 10));
+        assertEquals(SequentialTest.Decision.ACCEPT_P1, test.decide(100, 150));
+        assertEquals(SequentialTest.Decision.ACCEPT_P0, test.decide(60, 150));
+        assertThrows(IllegalArgumentException.class, () -> new SequentialTest(0.6, 0.5, 0.05, 0.05));
+        assertThrows(IllegalArgumentException.class, () -> new SequentialTest(0.5, 0.6, 0, 0.05));
+    }
+
+    /**
+     * Checks the Wilson interval against known values.
+     */
+    @Test
+    void checkWilsonInterval() {
+        double[] interval = SimulationResult.wilsonInterval(50, 100, SimulationResult.Z_95);
+        assertEquals(0.4038, interval[0], 1e-4);
+        assertEquals(0.5962, interval[1], 1e-4);
+        interval = SimulationResult.wilsonInterval(0, 10, SimulationResult.Z_95);
+        assertEquals(0, interval[0], 1e-9);
+        assertEquals(0.2775, interval[1], 1e-4);
+    }
+
+    /**
+     * Checks that histogram percentiles are within the bucket precision of the exact ones.
+     */
+    @Test
+    void checkHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9}) {
+            double exact = percentile * 1_000_000;
+            long estimate = histogram.getPercentile(percentile);
+            assertTrue(estimate >= exact && estimate <= exact * (1 + 1.0 / 16), percentile + ": " + estimate);
+        }
+        assertEquals(100_000_000, histogram.getPercentile(100));
+        LatencyHistogram copy = new LatencyHistogram(histogram);
+        copy.add(histogram);
+        assertEquals(200_000, copy.getCount());
+        assertEquals(histogram.getPercentile(50), copy.getPercentile(50));
+    }
+}
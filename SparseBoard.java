@@ -0,0 +1,253 @@
+import java.util.Arrays;
+
+/**
+ * A board for large games, such as Gomoku on 15x15 or far larger boards, that stores only the occupied
+ * cells. The marks are kept in an open addressing hash table keyed by cell, so getMark costs O(1), and
+ * the occupied cells are also kept in move order and in sorted order. Memory and the cost of a move grow
+ * with the number of marks played, never with size^2: the empty cells are found by counting the occupied
+ * cells before them instead of being indexed, and reset only clears the occupied cells. The size is at
+ * most MAX_SIZE, so every cell fits in an int.
+ *
+ * @author Amir Rosengarten
+ */
+public class SparseBoard extends Board {
+    /**
+     * The largest size of a sparse board.
+     */
+    public static final int MAX_SIZE = 46340;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int EMPTY_KEY = -1;
+    private static final Mark[] MARKS = Mark.values();
+
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private byte[] values = new byte[INITIAL_CAPACITY];
+    private int[] moveOrder = new int[INITIAL_CAPACITY];
+    private int[] sorted = new int[INITIAL_CAPACITY];
+    private int occupied;
+    private int minRow;
+    private int maxRow;
+    private int minCol;
+    private int maxCol;
+
+    /**
+     * Constructs a new empty sparse board.
+     *
+     * @param size The size of the board.
+     */
+    public SparseBoard(int size) {
+        super(size, false, false);
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be in the range [1, " + MAX_SIZE + "]");
+        }
+        Arrays.fill(keys, EMPTY_KEY);
+        clearBounds();
+    }
+
+    /**
+     * Puts a mark on the board.
+     *
+     * @param mark The mark to put on the board.
+     * @param row  The row to put the mark in.
+     * @param col  The column to put the mark in.
+     * @return True if the mark was put successfully, false otherwise.
+     */
+    @Override
+    public boolean putMark(Mark mark, int row, int col) {
+        int size = getSize();
+        if (row < 0 || row >= size || col < 0 || col >= size || mark == Mark.BLANK) {
+            return false;
+        }
+        int cell = row * size + col;
+        int slot = slot(cell);
+        if (keys[slot] != EMPTY_KEY) {
+            return false;
+        }
+        keys[slot] = cell;
+        values[slot] = (byte) mark.ordinal();
+        if (occupied == moveOrder.length) {
+            moveOrder = Arrays.copyOf(moveOrder, occupied * 2);
+            sorted = Arrays.copyOf(sorted, occupied * 2);
+        }
+        moveOrder[occupied] = cell;
+        int position = -Arrays.binarySearch(sorted, 0, occupied, cell) - 1;
+        System.arraycopy(sorted, position, sorted, position + 1, occupied - position);
+        sorted[position] = cell;
+        occupied++;
+        if (occupied * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        minRow = Math.min(minRow, row);
+        maxRow = Math.max(maxRow, row);
+        minCol = Math.min(minCol, col);
+        maxCol = Math.max(maxCol, col);
+        recordMove(row, col);
+        return true;
+    }
+
+    /**
+     * Returns the mark in the given location. If the location is invalid, returns Mark.BLANK.
+     *
+     * @param row The row of the mark.
+     * @param col The column of the mark.
+     * @return The mark in the given location.
+     */
+    @Override
+    public Mark getMark(int row, int col) {
+        int size = getSize();
+        if (row < 0 || row >= size || col < 0 || col >= size) {
+            return Mark.BLANK;
+        }
+        int slot = slot(row * size + col);
+        return keys[slot] == EMPTY_KEY ? Mark.BLANK : MARKS[values[slot]];
+    }
+
+    /**
+     * Returns an empty cell by its index among the empty cells, which are in row major order. The
+     * occupied cells before the cell are skipped, so this costs O(marks).
+     *
+     * @param index The index of the empty cell, between 0 and getEmptyCount() - 1.
+     * @return The cell as row * size + col.
+     */
+    @Override
+    public int getEmptyCell(int index) {
+        int cell = index;
+        for (int i = 0; i < occupied && sorted[i] <= cell; i++) {
+            cell++;
+        }
+        return cell;
+    }
+
+    /**
+     * Clears the board so it can be reused for a new game, visiting only the occupied cells.
+     */
+    @Override
+    public void reset() {
+        // All slots are found before any is cleared, as a cleared slot would cut the probe chains
+        for (int i = 0; i < occupied; i++) {
+            moveOrder[i] = slot(moveOrder[i]);
+        }
+        for (int i = 0; i < occupied; i++) {
+            keys[moveOrder[i]] = EMPTY_KEY;
+        }
+        occupied = 0;
+        clearBounds();
+        super.reset();
+    }
+
+    /**
+     * Makes this board a copy of another board of the same size, with the marks of a sparse board put
+     * in the same order.
+     *
+     * @param other The board to copy.
+     */
+    @Override
+    public void copyFrom(Board other) {
+        if (!(other instanceof SparseBoard)) {
+            super.copyFrom(other);
+            return;
+        }
+        SparseBoard sparse = (SparseBoard) other;
+        reset();
+        int size = getSize();
+        for (int i = 0; i < sparse.occupied; i++) {
+            int cell = sparse.moveOrder[i];
+            putMark(sparse.getMark(cell / size, cell % size), cell / size, cell % size);
+        }
+    }
+
+    /**
+     * Returns an occupied cell in the order the marks were put.
+     *
+     * @param index The index of the mark, 0 for the first.
+     * @return The cell as row * size + col.
+     */
+    public int getOccupiedCell(int index) {
+        if (index < 0 || index >= occupied) {
+            throw new IndexOutOfBoundsException("No mark " + index);
+        }
+        return moveOrder[index];
+    }
+
+    /**
+     * Returns the smallest row with a mark.
+     *
+     * @return The row, or -1 if the board is empty.
+     */
+    public int getMinRow() {
+        return occupied == 0 ? -1 : minRow;
+    }
+
+    /**
+     * Returns the largest row with a mark.
+     *
+     * @return The row, or -1 if the board is empty.
+     */
+    public int getMaxRow() {
+        return occupied == 0 ? -1 : maxRow;
+    }
+
+    /**
+     * Returns the smallest column with a mark.
+     *
+     * @return The column, or -1 if the board is empty.
+     */
+    public int getMinCol() {
+        return occupied == 0 ? -1 : minCol;
+    }
+
+    /**
+     * Returns the largest column with a mark.
+     *
+     * @return The column, or -1 if the board is empty.
+     */
+    public int getMaxCol() {
+        return occupied == 0 ? -1 : maxCol;
+    }
+
+    /**
+     * Returns the slot of a cell in the hash table: the slot holding it, or the empty slot where it
+     * belongs.
+     *
+     * @param cell The cell.
+     * @return The slot.
+     */
+    private int slot(int cell) {
+        int mask = keys.length - 1;
+        // Fibonacci hashing: the top bits of the product spread neighbouring cells over the table
+        int slot = (cell * 0x9E3779B9) >>> Integer.numberOfLeadingZeros(mask);
+        while (keys[slot] != EMPTY_KEY && keys[slot] != cell) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Moves the marks to a new hash table.
+     *
+     * @param capacity The capacity of the new table, a power of two.
+     */
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        byte[] oldValues = values;
+        keys = new int[capacity];
+        values = new byte[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Resets the bounds of the marks to an empty range.
+     */
+    private void clearBounds() {
+        minRow = Integer.MAX_VALUE;
+        maxRow = -1;
+        minCol = Integer.MAX_VALUE;
+        maxCol = -1;
+    }
+}
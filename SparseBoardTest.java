@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the SparseBoard and ViewportRenderer classes, and for games on large boards.
+ *
+ * @author Amir Rosengarten
+ */
+class SparseBoardTest {
+    /**
+     * Checks that a sparse board agrees with a dense board on the same random moves, including the empty
+     * cells and a reset.
+     */
+    @Test
+    void checkMatchesBoard() {
+        SplittableRandom random = new SplittableRandom(1);
+        int size = 12;
+        Board dense = new Board(size);
+        SparseBoard sparse = new SparseBoard(size);
+        for (int round = 0; round < 3; round++) {
+            for (int move = 0; move < 100; move++) {
+                int row = random.nextInt(-1, size + 1);
+                int col = random.nextInt(-1, size + 1);
+                Mark mark = move % 2 == 0 ? Mark.X : Mark.O;
+                assertEquals(dense.putMark(mark, row, col), sparse.putMark(mark, row, col));
+                assertEquals(dense.getEmptyCount(), sparse.getEmptyCount());
+            }
+            boolean[] empty = new boolean[size * size];
+            for (int i = 0; i < sparse.getEmptyCount(); i++) {
+                int cell = sparse.getEmptyCell(i);
+                assertFalse(empty[cell]);
+                empty[cell] = true;
+            }
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    assertEquals(dense.getMark(row, col), sparse.getMark(row, col));
+                    assertEquals(dense.getMark(row, col) == Mark.BLANK, empty[row * size + col]);
+                }
+            }
+            assertEquals(dense.getLastRow(), sparse.getLastRow());
+            assertEquals(dense.getLastCol(), sparse.getLastCol());
+            dense.reset();
+            sparse.reset();
+            assertEquals(size * size, sparse.getEmptyCount());
+            assertEquals(-1, sparse.getMinRow());
+        }
+    }
+
+    /**
+     * Checks that a game on a board far larger than the number of moves ends with a win found around the
+     * last move, and that the game chose a sparse board.
+     */
+    @Test
+    void checkLargeGame() {
+        PlayerFactory factory = new PlayerFactory(2);
+        Game game = new Game(factory.buildPlayer("whatever"), factory.buildPlayer("whatever"), 1000, 2,
+                new VoidRenderer());
+        Mark winner = game.run();
+        assertNotEquals(Mark.BLANK, winner);
+        assertTrue(game.getMoveCount() < 10_000);
+        SparseBoard board = new SparseBoard(1000);
+        Mark mark = Mark.X;
+        for (int i = 0; i < game.getMoveCount(); i++) {
+            assertTrue(board.putMark(mark, game.getMove(i) / 1000, game.getMove(i) % 1000));
+            mark = mark == Mark.X ? Mark.O : Mark.X;
+        }
+        assertEquals(winner, Game.checkLastMove(board, 2, board.getMark(board.getLastRow(), board.getLastCol())));
+    }
+
+    /**
+     * Checks that a human player reads the row and the column as two numbers on a large board.
+     */
+    @Test
+    void checkMultiDigitInput() {
+        SparseBoard board = new SparseBoard(200);
+        new HumanPlayer(new QueueMoveInput(150, 7), null).playTurn(board, Mark.O);
+        assertEquals(Mark.O, board.getMark(150, 7));
+    }
+
+    /**
+     * Checks that the viewport shows the region of the marks with multi digit numbers.
+     */
+    @Test
+    void checkViewport() {
+        SparseBoard board = new SparseBoard(500);
+        board.putMark(Mark.X, 120, 300);
+        board.putMark(Mark.O, 121, 302);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ViewportRenderer(500, 5, new PrintStream(bytes)).renderBoard(board);
+        String[] lines = bytes.toString().split("\n");
+        assertEquals(6, lines.length);
+        assertEquals("     299 300 301 302 303", lines[0]);
+        assertEquals(" 119   .   .   .   .   .", lines[1]);
+        assertEquals(" 120   .   X   .   .   .", lines[2]);
+        assertEquals(" 121   .   .   .   O   .", lines[3]);
+    }
+}
@@ -0,0 +1,42 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A MoveInput that parses coordinates from an input stream, such as System.in, read in blocks into one
+ * reused buffer.
+ *
+ * @author Amir Rosengarten
+ */
+public class StreamMoveInput extends TextMoveInput {
+    private static final int BUFFER_BYTES = 8192;
+    private final InputStream in;
+
+    /**
+     * Constructs a new StreamMoveInput.
+     *
+     * @param in The stream to read.
+     */
+    public StreamMoveInput(InputStream in) {
+        super(ByteBuffer.allocate(BUFFER_BYTES).limit(0));
+        this.in = in;
+    }
+
+    /**
+     * Reads the next block of the stream. This blocks until the stream has bytes, so a line typed on the
+     * console is parsed as soon as it is entered.
+     *
+     * @return True if bytes were read, false at the end of the stream.
+     * @throws IOException If the stream can't be read.
+     */
+    @Override
+    protected boolean refill() throws IOException {
+        int count = in.read(buffer.array(), 0, buffer.capacity());
+        if (count <= 0) {
+            buffer.limit(0);
+            return false;
+        }
+        buffer.position(0).limit(count);
+        return true;
+    }
+}
@@ -0,0 +1,332 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a tournament for every cell of a grid of board sizes, win streaks and player pairings, and writes
+ * one CSV row of statistics per cell. All cells are scheduled on one shared work-stealing pool, and every
+ * cell is itself a Simulation that splits its rounds between several workers on the same pool. A row is
+ * appended and flushed as soon as its cell is done, so a sweep that was stopped can be resumed: the cells
+ * already in the CSV file are skipped, and a row that was cut off is dropped and played again. The
+ * finished CSV file can be converted to a JSON array of objects.
+ *
+ * @author Amir Rosengarten
+ */
+public class Sweep {
+    /**
+     * The columns of the CSV file. The first four identify the cell.
+     */
+    public static final String[] COLUMNS = {"size", "winStreak", "player1", "player2", "games", "player1Wins",
+            "player2Wins", "draws", "xWins", "oWins", "averageMoves", "player1WinRate", "winRateLow",
+            "winRateHigh", "gamesPerSecond", "p50Nanos", "p99Nanos"};
+    private static final String HEADER = String.join(",", COLUMNS);
+    private static final int KEY_COLUMNS = 4;
+    private static final int FIRST_PLAYER_COLUMN = 2;
+    private static final int[] DEFAULT_SIZES = {4, 5, 6, 7, 8, 9};
+    private static final int[] DEFAULT_WIN_STREAKS = {3, 4, 5, 6, 7, 8, 9};
+    private static final String[][] DEFAULT_PAIRINGS = {{"genius", "whatever"}, {"clever", "whatever"},
+            {"genius", "clever"}};
+
+    private final int[] sizes;
+    private final int[] winStreaks;
+    private final String[][] pairings;
+    private final int rounds;
+    private final int cellParallelism;
+    private final boolean seeded;
+    private final long seed;
+
+    /**
+     * Constructs a new sweep with unseeded players.
+     *
+     * @param sizes           The board sizes.
+     * @param winStreaks      The win streaks. A streak longer than a size is skipped for that size.
+     * @param pairings        The pairs of player types, first player first.
+     * @param rounds          The number of rounds of every cell.
+     * @param cellParallelism The number of workers of every cell.
+     */
+    public Sweep(int[] sizes, int[] winStreaks, String[][] pairings, int rounds, int cellParallelism) {
+        this(sizes, winStreaks, pairings, rounds, cellParallelism, false, 0);
+    }
+
+    /**
+     * Constructs a new sweep whose players are seeded per cell. With one worker per cell every cell is
+     * reproducible, whatever cells were played before it.
+     *
+     * @param sizes           The board sizes.
+     * @param winStreaks      The win streaks. A streak longer than a size is skipped for that size.
+     * @param pairings        The pairs of player types, first player first.
+     * @param rounds          The number of rounds of every cell.
+     * @param cellParallelism The number of workers of every cell.
+     * @param seed            The seed of the sweep.
+     */
+    public Sweep(int[] sizes, int[] winStreaks, String[][] pairings, int rounds, int cellParallelism,
+                 long seed) {
+        this(sizes, winStreaks, pairings, rounds, cellParallelism, true, seed);
+    }
+
+    /**
+     * Constructs a new sweep.
+     *
+     * @param sizes           The board sizes.
+     * @param winStreaks      The win streaks.
+     * @param pairings        The pairs of player types.
+     * @param rounds          The number of rounds of every cell.
+     * @param cellParallelism The number of workers of every cell.
+     * @param seeded          Whether the players are seeded.
+     * @param seed            The seed of the sweep, if seeded.
+     */
+    private Sweep(int[] sizes, int[] winStreaks, String[][] pairings, int rounds, int cellParallelism,
+                  boolean seeded, long seed) {
+        for (String[] pairing : pairings) {
+            if (pairing.length != 2 || PlayerFactory.getPlayerId(pairing[0]) < 0 ||
+                    PlayerFactory.getPlayerId(pairing[1]) < 0) {
+                throw new IllegalArgumentException(Constants.UNKNOWN_PLAYER_NAME);
+            }
+        }
+        this.sizes = sizes.clone();
+        this.winStreaks = winStreaks.clone();
+        this.pairings = pairings.clone();
+        this.rounds = rounds;
+        this.cellParallelism = Math.max(1, cellParallelism);
+        this.seeded = seeded;
+        this.seed = seed;
+    }
+
+    /**
+     * Plays every cell that is not in the CSV file yet and appends its row. A new file is created with a
+     * header. The rows of a resumed file are kept, except for a last row that was cut off.
+     *
+     * @param csv  The CSV file.
+     * @param pool The pool that runs the cells and their workers.
+     * @return The number of cells played.
+     * @throws IOException If the file can't be read or written, or is not a sweep file.
+     */
+    public int run(Path csv, ForkJoinPool pool) throws IOException {
+        Set<String> done = resume(csv);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND)) {
+            int cell = 0;
+            for (int size : sizes) {
+                for (int winStreak : winStreaks) {
+                    if (winStreak > size) {
+                        continue;
+                    }
+                    for (String[] pairing : pairings) {
+                        long cellSeed = seed + cell++;
+                        if (done.contains(key(size, winStreak, pairing[0], pairing[1]))) {
+                            continue;
+                        }
+                        tasks.add(() -> {
+                            SimulationResult result = playCell(size, winStreak, pairing, cellSeed, pool);
+                            appendRow(writer, row(size, winStreak, pairing, result));
+                            return null;
+                        });
+                    }
+                }
+            }
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sweep was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IllegalStateException("Sweep cell failed", e.getCause());
+        }
+        return tasks.size();
+    }
+
+    /**
+     * Plays one cell.
+     *
+     * @param size      The size of the board.
+     * @param winStreak The win streak.
+     * @param pairing   The player types.
+     * @param cellSeed  The seed of the cell, if seeded.
+     * @param pool      The pool that runs the workers of the cell.
+     * @return The result of the cell.
+     */
+    private SimulationResult playCell(int size, int winStreak, String[] pairing, long cellSeed,
+                                      ForkJoinPool pool) {
+        PlayerFactory factory = seeded ? new PlayerFactory(cellSeed) : new PlayerFactory();
+        return new Simulation(() -> factory.buildPlayer(pairing[0]), () -> factory.buildPlayer(pairing[1]), size,
+                winStreak, rounds, cellParallelism, new VoidRenderer(), null, pool).run();
+    }
+
+    /**
+     * Prepares the CSV file for appending: creates it with a header, or keeps the complete rows of an
+     * existing file.
+     *
+     * @param csv The CSV file.
+     * @return The keys of the cells already in the file.
+     * @throws IOException If the file can't be read or written, or is not a sweep file.
+     */
+    private static Set<String> resume(Path csv) throws IOException {
+        Set<String> done = new HashSet<>();
+        if (!Files.exists(csv) || Files.size(csv) == 0) {
+            Files.writeString(csv, HEADER + "\n", StandardCharsets.UTF_8);
+            return done;
+        }
+        String content = Files.readString(csv, StandardCharsets.UTF_8);
+        List<String> lines = new ArrayList<>(List.of(content.split("\n", -1)));
+        // The part after the last line break is empty, or a row that was cut off
+        lines.remove(lines.size() - 1);
+        if (lines.isEmpty() || !lines.get(0).equals(HEADER)) {
+            throw new IOException(csv + " is not a sweep file");
+        }
+        StringBuilder kept = new StringBuilder(HEADER).append('\n');
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",", -1);
+            if (fields.length == COLUMNS.length) {
+                done.add(line.substring(0, keyLength(line)));
+                kept.append(line).append('\n');
+            }
+        }
+        if (kept.length() != content.length()) {
+            Files.writeString(csv, kept, StandardCharsets.UTF_8);
+        }
+        return done;
+    }
+
+    /**
+     * Appends a row to the CSV file and flushes it, so a complete row is on disk before the next cell.
+     *
+     * @param writer The writer of the file, shared by all cells.
+     * @param row    The row.
+     */
+    private static void appendRow(BufferedWriter writer, String row) {
+        synchronized (writer) {
+            try {
+                writer.write(row);
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the key of a cell, the first columns of its row.
+     *
+     * @param size      The size of the board.
+     * @param winStreak The win streak.
+     * @param player1   The type of the first player.
+     * @param player2   The type of the second player.
+     * @return The key.
+     */
+    private static String key(int size, int winStreak, String player1, String player2) {
+        return size + "," + winStreak + "," + player1 + "," + player2;
+    }
+
+    /**
+     * Returns the length of the key at the start of a row.
+     *
+     * @param row The row.
+     * @return The index of the separator after the key.
+     */
+    private static int keyLength(String row) {
+        int index = -1;
+        for (int column = 0; column < KEY_COLUMNS; column++) {
+            index = row.indexOf(',', index + 1);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the CSV row of a cell.
+     *
+     * @param size      The size of the board.
+     * @param winStreak The win streak.
+     * @param pairing   The player types.
+     * @param result    The result of the cell.
+     * @return The row, without a line break.
+     */
+    private static String row(int size, int winStreak, String[] pairing, SimulationResult result) {
+        double[] interval = result.getPlayer1WinRateInterval();
+        return key(size, winStreak, pairing[0], pairing[1]) + String.format(Locale.ROOT,
+                ",%d,%d,%d,%d,%d,%d,%.3f,%.6f,%.6f,%.6f,%.1f,%d,%d", result.getGames(),
+                result.getPlayer1Wins(), result.getPlayer2Wins(), result.getDraws(), result.getXWins(),
+                result.getOWins(), result.getAverageMoves(), result.getPlayer1WinRate(), interval[0],
+                interval[1], result.getGamesPerSecond(), result.getLatencyPercentile(50),
+                result.getLatencyPercentile(99));
+    }
+
+    /**
+     * Writes the rows of a CSV file as a JSON array with one object per cell.
+     *
+     * @param csv  The CSV file.
+     * @param json The JSON file.
+     * @throws IOException If a file can't be read or written, or the CSV file is not a sweep file.
+     */
+    public static void writeJson(Path csv, Path json) throws IOException {
+        List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).equals(HEADER)) {
+            throw new IOException(csv + " is not a sweep file");
+        }
+        StringBuilder out = new StringBuilder("[");
+        for (int i = 1; i < lines.size(); i++) {
+            String[] fields = lines.get(i).split(",", -1);
+            out.append(i == 1 ? "\n  {" : ",\n  {");
+            for (int column = 0; column < COLUMNS.length; column++) {
+                boolean text = column == FIRST_PLAYER_COLUMN || column == FIRST_PLAYER_COLUMN + 1;
+                out.append(column == 0 ? "" : ", ").append('"').append(COLUMNS[column]).append("\": ");
+                out.append(text ? '"' + fields[column] + '"' : fields[column]);
+            }
+            out.append('}');
+        }
+        out.append("\n]\n");
+        Files.writeString(json, out, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Runs the sweep of Tester over sizes 4 to 9, every win streak from 3 to the size, and the pairings
+     * genius-whatever, clever-whatever and genius-clever. Running it again with the same CSV file resumes
+     * it.
+     *
+     * @param args The number of rounds per cell, the CSV file, the JSON file, and optionally the number of
+     *             threads of the pool, the number of workers per cell and a seed.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: java Sweep <rounds> <results.csv> <results.json> [threads] " +
+                    "[cell workers] [seed]");
+            return;
+        }
+        int rounds = Integer.parseInt(args[0]);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int cellParallelism = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+        Sweep sweep = args.length > 5
+                ? new Sweep(DEFAULT_SIZES, DEFAULT_WIN_STREAKS, DEFAULT_PAIRINGS, rounds, cellParallelism,
+                Long.parseLong(args[5]))
+                : new Sweep(DEFAULT_SIZES, DEFAULT_WIN_STREAKS, DEFAULT_PAIRINGS, rounds, cellParallelism);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            int cells = sweep.run(Path.of(args[1]), pool);
+            writeJson(Path.of(args[1]), Path.of(args[2]));
+            System.out.printf("Played %d cells in %.1f s%n", cells, (System.nanoTime() - start) / 1e9);
+        } catch (IOException e) {
+            System.out.println("Could not write the results: " + e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Sweep class.
+ *
+ * @author Amir Rosengarten
+ */
+class SweepTest {
+    private static final int ROUNDS = 200;
+
+    /**
+     * Checks that a sweep writes one row per cell, skips the cells it already has when it runs again,
+     * and plays a row that was cut off again.
+     *
+     * @throws IOException If the temporary files can't be used.
+     */
+    @Test
+    void checkSweepResumes() throws IOException {
+        Path csv = Files.createTempFile("sweep", ".csv");
+        Path json = Files.createTempFile("sweep", ".json");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Files.delete(csv);
+            Sweep sweep = new Sweep(new int[]{3, 4}, new int[]{3, 4}, new String[][]{{"genius", "whatever"},
+                    {"whatever", "clever"}}, ROUNDS, 2, 7);
+            assertEquals(6, sweep.run(csv, pool));
+            List<String> lines = Files.readAllLines(csv);
+            assertEquals(7, lines.size());
+            assertEquals(String.join(",", Sweep.COLUMNS), lines.get(0));
+            for (String line : lines.subList(1, lines.size())) {
+                String[] fields = line.split(",");
+                assertEquals(Sweep.COLUMNS.length, fields.length);
+                assertEquals(ROUNDS, Integer.parseInt(fields[4]));
+            }
+            assertEquals(0, sweep.run(csv, pool));
+            assertEquals(lines, Files.readAllLines(csv));
+
+            String content = Files.readString(csv);
+            Files.writeString(csv, content.substring(0, content.length() - 10));
+            assertEquals(1, sweep.run(csv, pool));
+            List<String> resumed = Files.readAllLines(csv);
+            assertEquals(7, resumed.size());
+            assertEquals(lines.subList(0, 6), resumed.subList(0, 6));
+
+            Sweep.writeJson(csv, json);
+            String text = Files.readString(json);
+            assertTrue(text.startsWith("[\n  {\"size\": "));
+            assertTrue(text.contains("\"player1\": \"genius\""));
+            assertEquals(6, text.split("\"games\": " + ROUNDS + ",", -1).length - 1);
+        } finally {
+            pool.shutdown();
+            Files.deleteIfExists(csv);
+            Files.delete(json);
+        }
+    }
+
+    /**
+     * Checks that a file that is not a sweep file is not overwritten.
+     *
+     * @throws IOException If the temporary file can't be used.
+     */
+    @Test
+    void checkForeignFileIsRejected() throws IOException {
+        Path csv = Files.createTempFile("sweep", ".csv");
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            Files.writeString(csv, "a,b,c\n");
+            Sweep sweep = new Sweep(new int[]{3}, new int[]{3}, new String[][]{{"whatever", "whatever"}}, 10, 1);
+            assertThrows(IOException.class, () -> sweep.run(csv, pool));
+            assertEquals("a,b,c\n", Files.readString(csv));
+            assertThrows(IllegalArgumentException.class, () -> new Sweep(new int[]{3}, new int[]{3},
+                    new String[][]{{"whatever", "nobody"}}, 10, 1));
+        } finally {
+            pool.shutdown();
+            Files.delete(csv);
+        }
+    }
+}
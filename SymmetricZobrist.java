@@ -0,0 +1,111 @@
+import java.util.SplittableRandom;
+
+/**
+ * Keeps the Zobrist hashes of a position under all eight symmetries of the board, so a cache can store
+ * rotations and reflections of a position as one entry. The hash of symmetry s is the hash of the
+ * position after it is moved by Symmetry.permutations(size)[s]; the canonical hash is the smallest of
+ * the eight. Every mark updates all eight hashes with one XOR each, so finding the canonical form costs
+ * the same on every board size.
+ *
+ * @author Amir Rosengarten
+ */
+public class SymmetricZobrist {
+    private final int[][] permutations;
+    private final int[][] inverses;
+    private final long[] keys;
+    private final long[] hashes = new long[Symmetry.COUNT];
+
+    /**
+     * Constructs the hashes of an empty board.
+     *
+     * @param size   The size of the board.
+     * @param random The generator to draw the keys from.
+     */
+    public SymmetricZobrist(int size, SplittableRandom random) {
+        this.permutations = Symmetry.permutations(size);
+        this.inverses = Symmetry.inverses(permutations);
+        this.keys = new long[size * size * 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Resets the hashes to those of an empty board.
+     */
+    public void clear() {
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            hashes[s] = 0;
+        }
+    }
+
+    /**
+     * Adds a mark to the hashes, or removes it if it was added before.
+     *
+     * @param cell The cell index of the mark, row * size + column.
+     * @param mark The mark, X or O.
+     */
+    public void toggle(int cell, Mark mark) {
+        int side = mark == Mark.X ? 0 : 1;
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            hashes[s] ^= keys[permutations[s][cell] * 2 + side];
+        }
+    }
+
+    /**
+     * Returns the hash of the position moved by a symmetry.
+     *
+     * @param symmetry The symmetry.
+     * @return The hash.
+     */
+    public long getHash(int symmetry) {
+        return hashes[symmetry];
+    }
+
+    /**
+     * Returns the symmetry that moves the position to its canonical form, the one with the smallest hash.
+     *
+     * @return The symmetry.
+     */
+    public int getCanonicalSymmetry() {
+        int canonical = 0;
+        for (int s = 1; s < Symmetry.COUNT; s++) {
+            if (hashes[s] < hashes[canonical]) {
+                canonical = s;
+            }
+        }
+        return canonical;
+    }
+
+    /**
+     * Returns the hash of the canonical form of the position, which all its symmetric positions share.
+     *
+     * @return The canonical hash.
+     */
+    public long getCanonicalHash() {
+        return hashes[getCanonicalSymmetry()];
+    }
+
+    /**
+     * Moves a cell by a symmetry, for example to store a move of the position as a move of its
+     * canonical form.
+     *
+     * @param symmetry The symmetry.
+     * @param cell     The cell index.
+     * @return The moved cell index.
+     */
+    public int toCanonical(int symmetry, int cell) {
+        return permutations[symmetry][cell];
+    }
+
+    /**
+     * Moves a cell back by a symmetry, the inverse of toCanonical.
+     *
+     * @param symmetry The symmetry.
+     * @param cell     The moved cell index.
+     * @return The cell index.
+     */
+    public int fromCanonical(int symmetry, int cell) {
+        return inverses[symmetry][cell];
+    }
+}
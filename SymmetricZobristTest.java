@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the SymmetricZobrist and HashedBoard classes.
+ *
+ * @author Amir Rosengarten
+ */
+class SymmetricZobristTest {
+    private static final int POSITIONS = 200;
+
+    /**
+     * Fills two boards with random marks, the second one with every mark moved by a symmetry.
+     *
+     * @param board    The board.
+     * @param moved    The board to fill with the moved position.
+     * @param symmetry The symmetry.
+     * @param random   The generator.
+     */
+    private static void fillSymmetric(Board board, Board moved, int symmetry, SplittableRandom random) {
+        int size = board.getSize();
+        int[] permutation = Symmetry.permutations(size)[symmetry];
+        int marks = random.nextInt(size * size + 1);
+        for (int i = 0; i < marks; i++) {
+            int cell = random.nextInt(size * size);
+            Mark mark = i % 2 == 0 ? Mark.X : Mark.O;
+            if (board.putMark(mark, cell / size, cell % size)) {
+                int movedCell = permutation[cell];
+                assertTrue(moved.putMark(mark, movedCell / size, movedCell % size));
+            }
+        }
+    }
+
+    /**
+     * Checks that all symmetric positions have the same canonical hash, and that the canonical
+     * symmetries move both positions to the same cells.
+     */
+    @Test
+    void checkSymmetricPositionsShareHash() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < POSITIONS; i++) {
+            int size = 2 + random.nextInt(8);
+            HashedBoard board = new HashedBoard(size);
+            HashedBoard moved = new HashedBoard(size);
+            fillSymmetric(board, moved, random.nextInt(Symmetry.COUNT), random);
+            assertEquals(board.getCanonicalHash(), moved.getCanonicalHash());
+
+            int[][] permutations = Symmetry.permutations(size);
+            int[] toCanonical = permutations[board.getCanonicalSymmetry()];
+            int[] movedToCanonical = permutations[moved.getCanonicalSymmetry()];
+            Mark[] canonical = new Mark[size * size];
+            Mark[] movedCanonical = new Mark[size * size];
+            for (int cell = 0; cell < size * size; cell++) {
+                canonical[toCanonical[cell]] = board.getMark(cell / size, cell % size);
+                movedCanonical[movedToCanonical[cell]] = moved.getMark(cell / size, cell % size);
+            }
+            assertArrayEquals(canonical, movedCanonical);
+        }
+    }
+
+    /**
+     * Checks that the incremental hashes match hashes built from scratch, also after a reset.
+     */
+    @Test
+    void checkIncrementalHashes() {
+        SplittableRandom random = new SplittableRandom(6);
+        HashedBoard board = new HashedBoard(5);
+        for (int i = 0; i < POSITIONS; i++) {
+            board.reset();
+            fillSymmetric(board, new Board(5), 0, random);
+            HashedBoard copy = new HashedBoard(5);
+            copy.copyFrom(board);
+            assertEquals(copy.getCanonicalHash(), board.getCanonicalHash());
+        }
+        board.reset();
+        assertEquals(new HashedBoard(5).getCanonicalHash(), board.getCanonicalHash());
+    }
+
+    /**
+     * Checks that different positions get different canonical hashes.
+     */
+    @Test
+    void checkDifferentPositions() {
+        HashedBoard corner = new HashedBoard(3);
+        corner.putMark(Mark.X, 0, 0);
+        HashedBoard edge = new HashedBoard(3);
+        edge.putMark(Mark.X, 0, 1);
+        HashedBoard cornerO = new HashedBoard(3);
+        cornerO.putMark(Mark.O, 2, 0);
+        assertNotEquals(corner.getCanonicalHash(), edge.getCanonicalHash());
+        assertNotEquals(corner.getCanonicalHash(), cornerO.getCanonicalHash());
+    }
+
+    /**
+     * Checks that the minimax player, whose table is keyed by canonical hashes, still never loses on 3x3.
+     */
+    @Test
+    void checkMinimaxStillPerfect() {
+        for (int i = 0; i < 20; i++) {
+            Player minimax = new MinimaxPlayer(5, 14);
+            Player perfect = new TablebasePlayer(new SplittableRandom(i));
+            Game game = i % 2 == 0 ? new Game(minimax, perfect, 3, 3, new VoidRenderer()) :
+                    new Game(perfect, minimax, 3, 3, new VoidRenderer());
+            assertEquals(Mark.BLANK, game.run());
+        }
+    }
+}
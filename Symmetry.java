@@ -0,0 +1,58 @@
+/**
+ * The eight symmetries of a square board: the four rotations, each with and without a mirror image.
+ * A symmetry is given as a permutation of the cell indices, row * size + column, that maps every cell
+ * to the cell it is moved to. Symmetry 0 is the identity.
+ *
+ * @author Amir Rosengarten
+ */
+public class Symmetry {
+    /**
+     * The number of symmetries of a square.
+     */
+    public static final int COUNT = 8;
+
+    private Symmetry() {
+    }
+
+    /**
+     * Returns the permutations of all symmetries of a board.
+     *
+     * @param size The size of the board.
+     * @return An array of COUNT permutations, each mapping a cell to the cell it is moved to.
+     */
+    public static int[][] permutations(int size) {
+        int[][] permutations = new int[COUNT][size * size];
+        for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    int newRow = row;
+                    int newCol = symmetry >= COUNT / 2 ? size - 1 - col : col;
+                    for (int turn = 0; turn < symmetry % 4; turn++) {
+                        int turnedRow = newCol;
+                        newCol = size - 1 - newRow;
+                        newRow = turnedRow;
+                    }
+                    permutations[symmetry][row * size + col] = newRow * size + newCol;
+                }
+            }
+        }
+        return permutations;
+    }
+
+    /**
+     * Returns the inverses of the given permutations.
+     *
+     * @param permutations The permutations.
+     * @return For every permutation, the permutation that maps every cell back.
+     */
+    public static int[][] inverses(int[][] permutations) {
+        int[][] inverses = new int[permutations.length][];
+        for (int symmetry = 0; symmetry < permutations.length; symmetry++) {
+            inverses[symmetry] = new int[permutations[symmetry].length];
+            for (int cell = 0; cell < permutations[symmetry].length; cell++) {
+                inverses[symmetry][permutations[symmetry][cell]] = cell;
+            }
+        }
+        return inverses;
+    }
+}
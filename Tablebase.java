@@ -0,0 +1,215 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A solved table of every position that can be reached on a small board, built by TablebaseGenerator.
+ * Only one position of every group of symmetric positions is stored, under its canonical key: the
+ * smallest base 3 number, one digit per cell, among the keys of its eight symmetries. The table is an
+ * open addressing hash table in a byte buffer, usually a memory mapped file, holding for every position
+ * that is not over its value and its best move.
+ * A value is from the view of the player to move: a positive value v means a win in v plies, a negative
+ * value v a loss in -v - 1 plies, and 0 a draw.
+ *
+ * @author Amir Rosengarten
+ */
+public class Tablebase {
+    /**
+     * The first bytes of every tablebase, "TTTB".
+     */
+    static final int MAGIC = 0x54545442;
+    /**
+     * The number of bytes before the keys.
+     */
+    static final int HEADER_BYTES = 16;
+    /**
+     * The value of a position that is not in the table.
+     */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int winStreak;
+    private final int mask;
+    private final int valuesOffset;
+    private final int movesOffset;
+    private final int[][] permutations;
+    private final int[][] inverses;
+    private final int[] powers;
+
+    /**
+     * Constructs a tablebase from its bytes.
+     *
+     * @param buffer The bytes, as written by TablebaseGenerator.
+     */
+    public Tablebase(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a tablebase");
+        }
+        this.buffer = buffer;
+        this.size = buffer.get(4);
+        this.winStreak = buffer.get(5);
+        int capacity = buffer.getInt(8);
+        this.mask = capacity - 1;
+        this.valuesOffset = HEADER_BYTES + capacity * Integer.BYTES;
+        this.movesOffset = valuesOffset + capacity;
+        this.permutations = Symmetry.permutations(size);
+        this.inverses = Symmetry.inverses(permutations);
+        this.powers = powersOfThree(size * size);
+    }
+
+    /**
+     * Opens a tablebase file, mapping it into memory.
+     *
+     * @param path The path of the file.
+     * @return The tablebase.
+     * @throws IOException If the file can't be read or is not a tablebase.
+     */
+    public static Tablebase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            try {
+                return new Tablebase(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Not a tablebase: " + path, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the board.
+     *
+     * @return The size of the board.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the win streak.
+     *
+     * @return The win streak.
+     */
+    public int getWinStreak() {
+        return winStreak;
+    }
+
+    /**
+     * Returns the number of positions in the table.
+     *
+     * @return The number of positions.
+     */
+    public int getPositionCount() {
+        return buffer.getInt(12);
+    }
+
+    /**
+     * Returns the value of a position for the player to move, X when both marks were played equally
+     * often and O otherwise.
+     *
+     * @param board The position.
+     * @return The value, or UNKNOWN if the position is over or can't be reached.
+     */
+    public int getValue(Board board) {
+        int found = find(board);
+        return found < 0 ? UNKNOWN : buffer.get(valuesOffset + found / Symmetry.COUNT);
+    }
+
+    /**
+     * Returns a best move in a position.
+     *
+     * @param board The position.
+     * @param mark  The mark to play. There is no move if it is not the mark to move.
+     * @return The cell index of the move, or -1 if there is none.
+     */
+    public int getBestMove(Board board, Mark mark) {
+        int found = find(board);
+        if (found < 0 || mark != (board.getMarkCount() % 2 == 0 ? Mark.X : Mark.O)) {
+            return -1;
+        }
+        return inverses[found % Symmetry.COUNT][buffer.get(movesOffset + found / Symmetry.COUNT)];
+    }
+
+    /**
+     * Finds the slot of a position.
+     *
+     * @param board The position.
+     * @return The slot times Symmetry.COUNT plus the symmetry that maps the position to its canonical
+     * form, or -1 if the position is not in the table.
+     */
+    private int find(Board board) {
+        if (board.getSize() != size) {
+            return -1;
+        }
+        int canonical = Integer.MAX_VALUE;
+        int symmetry = 0;
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            int key = 0;
+            for (int cell = 0; cell < size * size; cell++) {
+                key += digit(board.getMark(cell / size, cell % size)) * powers[permutations[s][cell]];
+            }
+            if (key < canonical) {
+                canonical = key;
+                symmetry = s;
+            }
+        }
+        int slot = findKey(canonical);
+        return slot < 0 ? -1 : slot * Symmetry.COUNT + symmetry;
+    }
+
+    /**
+     * Finds the slot of a canonical key.
+     *
+     * @param key The canonical key.
+     * @return The slot, or -1 if the key is not in the table.
+     */
+    int findKey(int key) {
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int stored = buffer.getInt(HEADER_BYTES + slot * Integer.BYTES);
+            if (stored == 0) {
+                return -1;
+            }
+            if (stored == key + 1) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Returns the home slot hash of a key.
+     *
+     * @param key The key.
+     * @return The hash.
+     */
+    static int hash(int key) {
+        int hash = key * 0x9E3779B1;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns the base 3 digit of a mark: 0 for a blank cell, 1 for X and 2 for O.
+     *
+     * @param mark The mark.
+     * @return The digit.
+     */
+    static int digit(Mark mark) {
+        return mark == Mark.X ? 1 : mark == Mark.O ? 2 : 0;
+    }
+
+    /**
+     * Returns the powers of three.
+     *
+     * @param count The number of powers.
+     * @return The powers 3^0 to 3^(count - 1).
+     */
+    static int[] powersOfThree(int count) {
+        int[] powers = new int[count];
+        int power = 1;
+        for (int i = 0; i < count; i++) {
+            powers[i] = power;
+            power *= 3;
+        }
+        return powers;
+    }
+}
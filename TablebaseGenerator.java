@@ -0,0 +1,428 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the Tablebase of a small board. The positions are found layer by layer, a layer holding the
+ * positions with the same number of marks: every position of a layer that is not over is expanded by
+ * every move, and the canonical keys of the results, sorted and without duplicates, are the next layer.
+ * The layers are then solved backwards, from the full board to the empty one, by looking up the value
+ * of every move in the solved layer above. Every layer is split between worker threads.
+ *
+ * @author Amir Rosengarten
+ */
+public class TablebaseGenerator {
+    /**
+     * The largest board size with a tablebase. Larger boards have too many positions.
+     */
+    public static final int MAX_SIZE = 4;
+    private static final int WIN_RANK = 1000;
+
+    private final int size;
+    private final int winStreak;
+    private final int threads;
+    private final int cells;
+    private final int[][] permutations;
+    private final int[] powers;
+    private final int[][] lines;
+
+    /**
+     * Constructs a new generator.
+     *
+     * @param size      The size of the board, at most MAX_SIZE.
+     * @param winStreak The win streak.
+     * @param threads   The number of worker threads.
+     */
+    public TablebaseGenerator(int size, int winStreak, int threads) {
+        if (size < 2 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Tablebase size must be in the range [2, " + MAX_SIZE + "]");
+        }
+        if (winStreak < 2 || winStreak > size) {
+            throw new IllegalArgumentException("Win streak must be in the range [2, " + size + "]");
+        }
+        this.size = size;
+        this.winStreak = winStreak;
+        this.threads = Math.max(1, threads);
+        this.cells = size * size;
+        this.permutations = Symmetry.permutations(size);
+        this.powers = Tablebase.powersOfThree(cells);
+        this.lines = findLines();
+    }
+
+    /**
+     * Builds the tablebase.
+     *
+     * @return The bytes of the tablebase.
+     */
+    public ByteBuffer generate() {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            int[][] layers = new int[cells + 1][];
+            layers[0] = new int[]{0};
+            for (int layer = 0; layer < cells; layer++) {
+                layers[layer + 1] = expand(pool, layers[layer], layer);
+            }
+            byte[][] values = new byte[cells + 1][];
+            byte[][] moves = new byte[cells + 1][];
+            for (int layer = cells; layer >= 0; layer--) {
+                values[layer] = new byte[layers[layer].length];
+                moves[layer] = new byte[layers[layer].length];
+                solve(pool, layers, values, moves, layer);
+            }
+            return buildTable(layers, values, moves);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Builds the tablebase and writes it to a file.
+     *
+     * @param path The path of the file.
+     * @throws IOException If the file can't be written.
+     */
+    public void write(Path path) throws IOException {
+        ByteBuffer table = generate();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (table.hasRemaining()) {
+                channel.write(table);
+            }
+        }
+    }
+
+    /**
+     * Finds the positions of the next layer.
+     *
+     * @param pool  The worker threads.
+     * @param keys  The canonical keys of a layer.
+     * @param layer The number of marks of the layer.
+     * @return The sorted canonical keys of the next layer.
+     */
+    private int[] expand(ExecutorService pool, int[] keys, int layer) {
+        int mark = layer % 2 == 0 ? 1 : 2;
+        int[][] results = runInParallel(pool, keys.length, (from, to) -> {
+            int[] board = new int[cells];
+            int[] symmetricKeys = new int[Symmetry.COUNT];
+            int[] children = new int[Math.max(16, (to - from) * (cells - layer))];
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                decode(keys[i], board);
+                if (isOver(board, layer)) {
+                    continue;
+                }
+                symmetricKeys(board, symmetricKeys);
+                for (int cell = 0; cell < cells; cell++) {
+                    if (board[cell] == 0) {
+                        children[count++] = childKey(symmetricKeys, cell, mark);
+                    }
+                }
+            }
+            Arrays.sort(children, 0, count);
+            return unique(children, count);
+        });
+        int total = 0;
+        for (int[] result : results) {
+            total += result.length;
+        }
+        int[] next = new int[total];
+        int offset = 0;
+        for (int[] result : results) {
+            System.arraycopy(result, 0, next, offset, result.length);
+            offset += result.length;
+        }
+        Arrays.parallelSort(next);
+        return unique(next, next.length);
+    }
+
+    /**
+     * Solves a layer, once the layer above it is solved.
+     *
+     * @param pool   The worker threads.
+     * @param layers The canonical keys of all layers.
+     * @param values The values of the solved layers, filled for this layer.
+     * @param moves  The best moves of the solved layers, filled for this layer.
+     * @param layer  The number of marks of the layer.
+     */
+    private void solve(ExecutorService pool, int[][] layers, byte[][] values, byte[][] moves, int layer) {
+        int[] keys = layers[layer];
+        int mark = layer % 2 == 0 ? 1 : 2;
+        runInParallel(pool, keys.length, (from, to) -> {
+            int[] board = new int[cells];
+            int[] symmetricKeys = new int[Symmetry.COUNT];
+            for (int i = from; i < to; i++) {
+                decode(keys[i], board);
+                moves[layer][i] = -1;
+                if (hasLine(board)) {
+                    // The player who just moved won
+                    values[layer][i] = -1;
+                    continue;
+                }
+                if (layer == cells) {
+                    continue;
+                }
+                symmetricKeys(board, symmetricKeys);
+                int bestRank = Integer.MIN_VALUE;
+                for (int cell = 0; cell < cells; cell++) {
+                    if (board[cell] != 0) {
+                        continue;
+                    }
+                    int child = Arrays.binarySearch(layers[layer + 1], childKey(symmetricKeys, cell, mark));
+                    int childValue = values[layer + 1][child];
+                    int value = childValue < 0 ? -childValue : childValue > 0 ? -childValue - 2 : 0;
+                    int rank = value > 0 ? WIN_RANK - value : value < 0 ? -WIN_RANK - value : 0;
+                    if (rank > bestRank) {
+                        bestRank = rank;
+                        values[layer][i] = (byte) value;
+                        moves[layer][i] = (byte) cell;
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Builds the hash table of the positions that are not over.
+     *
+     * @param layers The canonical keys of all layers.
+     * @param values The values of all layers.
+     * @param moves  The best moves of all layers.
+     * @return The bytes of the tablebase.
+     */
+    private ByteBuffer buildTable(int[][] layers, byte[][] values, byte[][] moves) {
+        int count = 0;
+        for (byte[] layerMoves : moves) {
+            for (byte move : layerMoves) {
+                if (move >= 0) {
+                    count++;
+                }
+            }
+        }
+        int capacity = Integer.highestOneBit(Math.max(1, count) * 2 - 1) << 1;
+        int valuesOffset = Tablebase.HEADER_BYTES + capacity * Integer.BYTES;
+        int movesOffset = valuesOffset + capacity;
+        ByteBuffer table = ByteBuffer.allocate(movesOffset + capacity);
+        table.putInt(0, Tablebase.MAGIC);
+        table.put(4, (byte) size);
+        table.put(5, (byte) winStreak);
+        table.putInt(8, capacity);
+        table.putInt(12, count);
+        for (int layer = 0; layer <= cells; layer++) {
+            for (int i = 0; i < layers[layer].length; i++) {
+                if (moves[layer][i] < 0) {
+                    continue;
+                }
+                int slot = Tablebase.hash(layers[layer][i]) & (capacity - 1);
+                while (table.getInt(Tablebase.HEADER_BYTES + slot * Integer.BYTES) != 0) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                table.putInt(Tablebase.HEADER_BYTES + slot * Integer.BYTES, layers[layer][i] + 1);
+                table.put(valuesOffset + slot, values[layer][i]);
+                table.put(movesOffset + slot, moves[layer][i]);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * A piece of work on a range of a layer.
+     */
+    private interface RangeTask {
+        /**
+         * Works on a range.
+         *
+         * @param from The first index of the range.
+         * @param to   The index after the last index of the range.
+         * @return The result of the range.
+         */
+        int[] run(int from, int to);
+    }
+
+    /**
+     * Splits a range into contiguous parts, one per worker thread, and works on them in parallel.
+     *
+     * @param pool  The worker threads.
+     * @param count The length of the range.
+     * @param task  The work.
+     * @return The results of the parts, in order.
+     */
+    private int[][] runInParallel(ExecutorService pool, int count, RangeTask task) {
+        int parts = Math.max(1, Math.min(threads, count / 1024));
+        List<Future<int[]>> futures = new ArrayList<>();
+        for (int part = 0; part < parts; part++) {
+            int from = (int) ((long) count * part / parts);
+            int to = (int) ((long) count * (part + 1) / parts);
+            futures.add(pool.submit(() -> task.run(from, to)));
+        }
+        int[][] results = new int[parts][];
+        try {
+            for (int part = 0; part < parts; part++) {
+                results[part] = futures.get(part).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tablebase generation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tablebase worker failed", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Decodes a key into the digits of the cells.
+     *
+     * @param key   The key.
+     * @param board Receives the digit of every cell.
+     */
+    private void decode(int key, int[] board) {
+        for (int cell = 0; cell < cells; cell++) {
+            board[cell] = key % 3;
+            key /= 3;
+        }
+    }
+
+    /**
+     * Computes the keys of all symmetries of a position.
+     *
+     * @param board The digits of the cells.
+     * @param keys  Receives the key of every symmetry.
+     */
+    private void symmetricKeys(int[] board, int[] keys) {
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            int key = 0;
+            for (int cell = 0; cell < cells; cell++) {
+                key += board[cell] * powers[permutations[s][cell]];
+            }
+            keys[s] = key;
+        }
+    }
+
+    /**
+     * Returns the canonical key of the position after a move, from the keys of the symmetries of the
+     * position before it.
+     *
+     * @param keys The keys of the symmetries of the position.
+     * @param cell The cell of the move.
+     * @param mark The digit of the mark played.
+     * @return The canonical key.
+     */
+    private int childKey(int[] keys, int cell, int mark) {
+        int canonical = Integer.MAX_VALUE;
+        for (int s = 0; s < Symmetry.COUNT; s++) {
+            canonical = Math.min(canonical, keys[s] + mark * powers[permutations[s][cell]]);
+        }
+        return canonical;
+    }
+
+    /**
+     * Checks if a position is over, won or full.
+     *
+     * @param board The digits of the cells.
+     * @param layer The number of marks.
+     * @return True if the position is over, false otherwise.
+     */
+    private boolean isOver(int[] board, int layer) {
+        return layer == cells || hasLine(board);
+    }
+
+    /**
+     * Checks if a position has a full line of one mark.
+     *
+     * @param board The digits of the cells.
+     * @return True if there is a full line, false otherwise.
+     */
+    private boolean hasLine(int[] board) {
+        for (int[] line : lines) {
+            int first = board[line[0]];
+            if (first == 0) {
+                continue;
+            }
+            int i = 1;
+            while (i < line.length && board[line[i]] == first) {
+                i++;
+            }
+            if (i == line.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds every line of winStreak cells, in all four directions.
+     *
+     * @return The cells of every line.
+     */
+    private int[][] findLines() {
+        int[][] steps = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        List<int[]> found = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                for (int[] step : steps) {
+                    int endRow = row + step[0] * (winStreak - 1);
+                    int endCol = col + step[1] * (winStreak - 1);
+                    if (endRow < 0 || endRow >= size || endCol < 0 || endCol >= size) {
+                        continue;
+                    }
+                    int[] line = new int[winStreak];
+                    for (int i = 0; i < winStreak; i++) {
+                        line[i] = (row + step[0] * i) * size + col + step[1] * i;
+                    }
+                    found.add(line);
+                }
+            }
+        }
+        return found.toArray(new int[0][]);
+    }
+
+    /**
+     * Removes the duplicates of a sorted prefix of an array.
+     *
+     * @param keys  The array.
+     * @param count The length of the sorted prefix.
+     * @return The sorted keys without duplicates.
+     */
+    private static int[] unique(int[] keys, int count) {
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || keys[i] != keys[unique - 1]) {
+                keys[unique++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, unique);
+    }
+
+    /**
+     * Builds a tablebase and writes it to a file.
+     *
+     * @param args The size of the board, the win streak, the file and optionally the number of threads.
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: java TablebaseGenerator <size> <win streak> <file> [threads]");
+            return;
+        }
+        int size = Integer.parseInt(args[0]);
+        int winStreak = Integer.parseInt(args[1]);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        try {
+            new TablebaseGenerator(size, winStreak, threads).write(Path.of(args[2]));
+            Tablebase table = Tablebase.open(Path.of(args[2]));
+            System.out.printf("%d positions in %.1f s, value of the empty board: %d%n",
+                    table.getPositionCount(), (System.nanoTime() - start) / 1e9, table.getValue(new Board(size)));
+        } catch (IOException e) {
+            System.out.println("Could not write " + args[2] + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class represents a player that plays perfectly on small boards, by looking up its moves in a
+ * Tablebase. The tablebase of a board size and win streak is read from the file
+ * tablebase-[size]-[streak].bin in the directory given by the system property "tablebase.dir", or built
+ * in memory if there is no such file, once for all players. On larger boards, and in positions the
+ * tablebase doesn't hold, it plays like a genius player.
+ * It extends FallbackPlayer, with a GeniusPlayer as its fallback.
+ *
+ * @author Amir Rosengarten
+ */
+public class TablebasePlayer extends FallbackPlayer {
+    private static final Map<Integer, Tablebase> TABLES = new ConcurrentHashMap<>();
+    private Tablebase table;
+
+    /**
+     * Constructs a new TablebasePlayer.
+     */
+    public TablebasePlayer() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new TablebasePlayer whose fallback's random moves are drawn from the given generator.
+     *
+     * @param random The generator to use. It must not be shared with other threads.
+     */
+    public TablebasePlayer(RandomGenerator random) {
+        this(new GeniusPlayer(random));
+    }
+
+    /**
+     * Constructs a new TablebasePlayer that passes the turns it can't play to the given player.
+     *
+     * @param fallback The fallback player.
+     */
+    public TablebasePlayer(Player fallback) {
+        super(fallback);
+    }
+
+    /**
+     * Loads the tablebase of the game, if the board is small enough to have one.
+     *
+     * @param size      The size of the board.
+     * @param winStreak The win streak.
+     */
+    @Override
+    public void startGame(int size, int winStreak) {
+        super.startGame(size, winStreak);
+        if (size > TablebaseGenerator.MAX_SIZE || winStreak < 2 || winStreak > size) {
+            table = null;
+            return;
+        }
+        table = TABLES.computeIfAbsent(size * (TablebaseGenerator.MAX_SIZE + 1) + winStreak,
+                key -> loadTable(size, winStreak));
+    }
+
+    /**
+     * Plays the best move of the tablebase, if it holds the position.
+     *
+     * @param board The board to play on.
+     * @param mark  The mark to play.
+     * @return true if the player played, false otherwise.
+     */
+    @Override
+    protected boolean tryPlay(Board board, Mark mark) {
+        if (table == null) {
+            return false;
+        }
+        int cell = table.getBestMove(board, mark);
+        return cell >= 0 && board.putMark(mark, cell / board.getSize(), cell % board.getSize());
+    }
+
+    /**
+     * Reads the tablebase file of a game, or builds the tablebase if there is no file.
+     *
+     * @param size      The size of the board.
+     * @param winStreak The win streak.
+     * @return The tablebase.
+     */
+    private static Tablebase loadTable(int size, int winStreak) {
+        Path path = Path.of(System.getProperty("tablebase.dir", "."),
+                "tablebase-" + size + "-" + winStreak + ".bin");
+        if (Files.exists(path)) {
+            try {
+                Tablebase table = Tablebase.open(path);
+                if (table.getSize() == size && table.getWinStreak() == winStreak) {
+                    return table;
+                }
+            } catch (IOException e) {
+                Logger.getGlobal().warning("Could not read " + path + ": " + e.getMessage());
+            }
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        return new Tablebase(new TablebaseGenerator(size, winStreak, threads).generate());
+    }
+}
@@ -0,0 +1,97 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Symmetry, TablebaseGenerator, Tablebase and TablebasePlayer classes.
+ *
+ * @author Amir Rosengarten
+ */
+class TablebaseTest {
+    private static final int GAMES = 200;
+
+    /**
+     * Checks that the symmetries are eight different permutations and that the inverses undo them.
+     */
+    @Test
+    void checkSymmetries() {
+        for (int size = 2; size <= 5; size++) {
+            int[][] permutations = Symmetry.permutations(size);
+            int[][] inverses = Symmetry.inverses(permutations);
+            Set<String> distinct = new HashSet<>();
+            for (int s = 0; s < Symmetry.COUNT; s++) {
+                Set<Integer> cells = new HashSet<>();
+                StringBuilder text = new StringBuilder();
+                for (int cell = 0; cell < size * size; cell++) {
+                    cells.add(permutations[s][cell]);
+                    assertEquals(cell, inverses[s][permutations[s][cell]]);
+                    text.append(permutations[s][cell]).append(',');
+                }
+                assertEquals(size * size, cells.size());
+                distinct.add(text.toString());
+            }
+            assertEquals(Symmetry.COUNT, distinct.size());
+            for (int cell = 0; cell < size * size; cell++) {
+                assertEquals(cell, permutations[0][cell]);
+            }
+        }
+    }
+
+    /**
+     * Checks the known values of the empty boards: 3x3 and 4x4 with a streak of 4 are draws, and the
+     * first player wins 4x4 with a streak of 3.
+     */
+    @Test
+    void checkKnownValues() {
+        assertEquals(0, new Tablebase(new TablebaseGenerator(3, 3, 2).generate()).getValue(new Board(3)));
+        assertTrue(new Tablebase(new TablebaseGenerator(4, 3, 2).generate()).getValue(new Board(4)) > 0);
+        assertEquals(0, new Tablebase(new TablebaseGenerator(4, 4, 2).generate()).getValue(new Board(4)));
+        // On a 2x2 board with a streak of 2 the first player wins with the third mark
+        assertEquals(3, new Tablebase(new TablebaseGenerator(2, 2, 1).generate()).getValue(new Board(2)));
+    }
+
+    /**
+     * Checks that symmetric positions get the same value and a move that is the mapped best move.
+     */
+    @Test
+    void checkSymmetricPositions() {
+        Tablebase table = new Tablebase(new TablebaseGenerator(3, 3, 2).generate());
+        Board corner = new Board(3);
+        corner.putMark(Mark.X, 0, 0);
+        Board otherCorner = new Board(3);
+        otherCorner.putMark(Mark.X, 2, 2);
+        assertEquals(table.getValue(corner), table.getValue(otherCorner));
+        int move = table.getBestMove(corner, Mark.O);
+        // The only move that doesn't lose against a corner is the center
+        assertEquals(4, move);
+        assertEquals(4, table.getBestMove(otherCorner, Mark.O));
+        assertEquals(-1, table.getBestMove(corner, Mark.X));
+    }
+
+    /**
+     * Checks that the tablebase player never loses on 3x3, and always wins as X on 4x4 with a streak
+     * of 3.
+     */
+    @Test
+    void checkPerfectPlay() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < GAMES; i++) {
+            Player perfect = new TablebasePlayer(random.split());
+            Player opponent = new CleverPlayer(random.split());
+            boolean perfectIsX = i % 2 == 0;
+            Game game = new Game(perfectIsX ? perfect : opponent, perfectIsX ? opponent : perfect, 3, 3,
+                    new VoidRenderer());
+            Mark winner = game.run();
+            assertNotEquals(perfectIsX ? Mark.O : Mark.X, winner);
+        }
+        for (int i = 0; i < GAMES; i++) {
+            Game game = new Game(new TablebasePlayer(random.split()), new WhateverPlayer(random.split()), 4, 3,
+                    new VoidRenderer());
+            assertEquals(Mark.X, game.run());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class represents a player that plays by the threats on the board. It wins at once if it can,
+ * otherwise blocks the opponent's immediate win, and otherwise plays the empty cell with the best threat
+ * score. The threats are kept by a ThreatEvaluator, which is brought up to date with the opponent's move
+ * at the start of every turn, so a turn costs O(cells) however long the game is. On boards larger than
+ * ThreatEvaluator.MAX_SIZE it plays like a genius player.
+ * It extends FallbackPlayer, with a GeniusPlayer as its fallback.
+ *
+ * @author Amir Rosengarten
+ */
+public class TacticianPlayer extends FallbackPlayer {
+    private ThreatEvaluator evaluator;
+    private boolean evaluating;
+
+    /**
+     * Constructs a new TacticianPlayer.
+     */
+    public TacticianPlayer() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new TacticianPlayer whose fallback's random moves are drawn from the given generator.
+     *
+     * @param random The generator to use. It must not be shared with other threads.
+     */
+    public TacticianPlayer(RandomGenerator random) {
+        this(new GeniusPlayer(random));
+    }
+
+    /**
+     * Constructs a new TacticianPlayer that passes the turns it can't play to the given player.
+     *
+     * @param fallback The fallback player.
+     */
+    public TacticianPlayer(Player fallback) {
+        super(fallback);
+    }
+
+    /**
+     * Prepares an empty evaluator for the game, reusing the last one if the size and win streak are the
+     * same.
+     *
+     * @param size      The size of the board.
+     * @param winStreak The win streak.
+     */
+    @Override
+    public void startGame(int size, int winStreak) {
+        super.startGame(size, winStreak);
+        evaluating = size <= ThreatEvaluator.MAX_SIZE && winStreak >= 1 && winStreak <= size;
+        if (!evaluating) {
+            return;
+        }
+        if (evaluator != null && evaluator.getSize() == size && evaluator.getWinStreak() == winStreak) {
+            evaluator.reset();
+        } else {
+            evaluator = new ThreatEvaluator(size, winStreak);
+        }
+    }
+
+    /**
+     * Plays a winning move, a blocking move or the cell with the best threat score.
+     *
+     * @param board The board to play on.
+     * @param mark  The mark to play.
+     * @return true if the player played, false otherwise.
+     */
+    @Override
+    protected boolean tryPlay(Board board, Mark mark) {
+        if (!evaluating || board.getSize() != evaluator.getSize()) {
+            return false;
+        }
+        evaluator.sync(board);
+        int cell = evaluator.getWinningCell(mark);
+        if (cell < 0) {
+            cell = evaluator.getWinningCell(mark == Mark.X ? Mark.O : Mark.X);
+        }
+        if (cell < 0) {
+            cell = evaluator.getBestCell(mark);
+        }
+        int size = board.getSize();
+        if (cell < 0 || !board.putMark(mark, cell / size, cell % size)) {
+            return false;
+        }
+        evaluator.play(mark, cell / size, cell % size);
+        return true;
+    }
+}
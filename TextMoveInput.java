@@ -0,0 +1,90 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+/**
+ * A MoveInput that parses coordinates written as decimal numbers from a buffer of bytes, which subclasses
+ * refill from their source. Any byte that is not a digit or a minus sign separates numbers, so there is
+ * no tokenizing, no regular expression and no allocation per coordinate, unlike a Scanner.
+ *
+ * @author Amir Rosengarten
+ */
+public abstract class TextMoveInput implements MoveInput {
+    /**
+     * The bytes not parsed yet, between the position and the limit.
+     */
+    protected ByteBuffer buffer;
+
+    /**
+     * Constructs a new TextMoveInput.
+     *
+     * @param buffer The first bytes to parse.
+     */
+    protected TextMoveInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Parses the next number. A minus sign with no digits after it, or a number that doesn't fit in an
+     * int, is not a number and is skipped like a separator.
+     *
+     * @return The number.
+     * @throws NoSuchElementException If there are no more numbers.
+     */
+    @Override
+    public int nextCoordinate() {
+        while (true) {
+            int b = nextByte();
+            while (b >= 0 && b != '-' && (b < '0' || b > '9')) {
+                b = nextByte();
+            }
+            if (b < 0) {
+                throw new NoSuchElementException("No more coordinates");
+            }
+            boolean negative = b == '-';
+            if (negative) {
+                b = nextByte();
+            }
+            boolean digits = false;
+            boolean overflow = false;
+            int value = 0;
+            while (b >= '0' && b <= '9') {
+                int digit = b - '0';
+                overflow |= value > (Integer.MAX_VALUE - digit) / 10;
+                value = value * 10 + digit;
+                digits = true;
+                b = nextByte();
+            }
+            if (digits && !overflow) {
+                return negative ? -value : value;
+            }
+        }
+    }
+
+    /**
+     * Returns the next byte, refilling the buffer when it is empty.
+     *
+     * @return The byte, or -1 at the end of the source.
+     */
+    private int nextByte() {
+        if (!buffer.hasRemaining()) {
+            try {
+                if (!refill()) {
+                    return -1;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Puts more bytes in the buffer, or replaces it.
+     *
+     * @return True if the buffer has bytes, false at the end of the source.
+     * @throws IOException If the source can't be read.
+     */
+    protected abstract boolean refill() throws IOException;
+}
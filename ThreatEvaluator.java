@@ -0,0 +1,365 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts the marks of both players in every winning segment of a board: every run of winStreak cells in a
+ * row, a column or a diagonal. The segments of a size and win streak are computed once and shared, with
+ * the segments through every cell listed next to each other. A move only updates the segments through its
+ * cell, so it costs O(segments through the cell * winStreak), and the evaluator answers from its counts:
+ * a winning move in O(winStreak), the number of open segments holding a number of marks in O(1) and the
+ * threat score of a cell in O(1).
+ * <p>
+ * A segment is open for a player while the opponent has no mark in it. The threat score of a cell for a
+ * player is the sum over the open segments through it of 16^marks, so one segment a mark closer to a win
+ * outweighs all the segments through the cell that are a mark further away.
+ *
+ * @author Amir Rosengarten
+ */
+public class ThreatEvaluator {
+    /**
+     * The largest board size an evaluator is built for.
+     */
+    public static final int MAX_SIZE = 100;
+    private static final int WEIGHT_SHIFT = 4;
+    private static final int MAX_WEIGHT_SHIFT = 50;
+    private static final Map<Integer, Segments> SEGMENTS = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final int winStreak;
+    private final Segments segments;
+    private final long[] weights;
+    private final byte[] cells;
+    private final int[][] counts;
+    private final long[][] scores;
+    private final int[][] openSegments;
+    private final int[][] winning;
+    private final int[][] winningPositions;
+    private final int[] winningCount = new int[2];
+    private int moveCount;
+
+    /**
+     * Constructs a new evaluator of an empty board.
+     *
+     * @param size      The size of the board, at most MAX_SIZE.
+     * @param winStreak The win streak, between 1 and size.
+     */
+    public ThreatEvaluator(int size, int winStreak) {
+        if (size < 1 || size > MAX_SIZE || winStreak < 1 || winStreak > size) {
+            throw new IllegalArgumentException("No evaluator for size " + size + " and win streak " + winStreak);
+        }
+        this.size = size;
+        this.winStreak = winStreak;
+        this.segments = SEGMENTS.computeIfAbsent(size * (MAX_SIZE + 1) + winStreak,
+                key -> new Segments(size, winStreak));
+        this.weights = new long[winStreak + 1];
+        for (int marks = 0; marks <= winStreak; marks++) {
+            weights[marks] = 1L << Math.min(marks * WEIGHT_SHIFT, MAX_WEIGHT_SHIFT);
+        }
+        int segmentCount = segments.count;
+        this.cells = new byte[size * size];
+        this.counts = new int[2][segmentCount];
+        this.scores = new long[2][size * size];
+        this.openSegments = new int[2][winStreak + 1];
+        this.winning = new int[2][segmentCount];
+        this.winningPositions = new int[2][segmentCount];
+        reset();
+    }
+
+    /**
+     * The winning segments of a size and win streak.
+     */
+    private static final class Segments {
+        private final int count;
+        // The cells of segment s are cells[s * winStreak] to cells[s * winStreak + winStreak - 1]
+        private final int[] cells;
+        // The segments through cell c are throughCell[firstThrough[c]] to throughCell[firstThrough[c + 1] - 1]
+        private final int[] firstThrough;
+        private final int[] throughCell;
+
+        /**
+         * Lists the segments of a board.
+         *
+         * @param size      The size of the board.
+         * @param winStreak The win streak.
+         */
+        Segments(int size, int winStreak) {
+            int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+            int[] list = new int[4 * size * size * winStreak];
+            int[] perCell = new int[size * size + 1];
+            int segmentCount = 0;
+            // A single cell is the same segment in every direction
+            int directionCount = winStreak == 1 ? 1 : directions.length;
+            for (int d = 0; d < directionCount; d++) {
+                int[] direction = directions[d];
+                for (int row = 0; row < size; row++) {
+                    for (int col = 0; col < size; col++) {
+                        int lastRow = row + direction[0] * (winStreak - 1);
+                        int lastCol = col + direction[1] * (winStreak - 1);
+                        if (lastRow >= size || lastCol < 0 || lastCol >= size) {
+                            continue;
+                        }
+                        for (int i = 0; i < winStreak; i++) {
+                            int cell = (row + direction[0] * i) * size + col + direction[1] * i;
+                            list[segmentCount * winStreak + i] = cell;
+                            perCell[cell + 1]++;
+                        }
+                        segmentCount++;
+                    }
+                }
+            }
+            this.count = segmentCount;
+            this.cells = Arrays.copyOf(list, segmentCount * winStreak);
+            for (int cell = 0; cell < size * size; cell++) {
+                perCell[cell + 1] += perCell[cell];
+            }
+            this.firstThrough = perCell;
+            this.throughCell = new int[segmentCount * winStreak];
+            int[] next = Arrays.copyOf(perCell, size * size);
+            for (int i = 0; i < cells.length; i++) {
+                throughCell[next[cells[i]]++] = i / winStreak;
+            }
+        }
+    }
+
+    /**
+     * Clears the evaluator for a new game, in O(segments + cells).
+     */
+    public void reset() {
+        Arrays.fill(cells, (byte) 0);
+        for (int side = 0; side < 2; side++) {
+            Arrays.fill(counts[side], 0);
+            Arrays.fill(openSegments[side], 0);
+            openSegments[side][0] = segments.count;
+            Arrays.fill(winningPositions[side], -1);
+            winningCount[side] = 0;
+            for (int cell = 0; cell < cells.length; cell++) {
+                scores[side][cell] = weights[0] * (segments.firstThrough[cell + 1] - segments.firstThrough[cell]);
+            }
+            if (winStreak == 1) {
+                // Every empty segment is one mark short of a win
+                for (int segment = 0; segment < segments.count; segment++) {
+                    addWinning(side, segment);
+                }
+            }
+        }
+        moveCount = 0;
+    }
+
+    /**
+     * Counts a mark put on the board.
+     *
+     * @param mark The mark, X or O.
+     * @param row  The row of the mark.
+     * @param col  The column of the mark.
+     */
+    public void play(Mark mark, int row, int col) {
+        int cell = row * size + col;
+        if (cells[cell] != 0) {
+            throw new IllegalStateException("Cell " + row + "," + col + " is already marked");
+        }
+        cells[cell] = (byte) mark.ordinal();
+        moveCount++;
+        int side = side(mark);
+        int other = 1 - side;
+        int[] own = counts[side];
+        int[] opponent = counts[other];
+        for (int i = segments.firstThrough[cell]; i < segments.firstThrough[cell + 1]; i++) {
+            int segment = segments.throughCell[i];
+            int marks = own[segment];
+            int opponentMarks = opponent[segment];
+            own[segment] = marks + 1;
+            long ownDelta = 0;
+            long opponentDelta = 0;
+            if (opponentMarks == 0) {
+                openSegments[side][marks]--;
+                openSegments[side][marks + 1]++;
+                ownDelta = weights[marks + 1] - weights[marks];
+                if (marks == winStreak - 1) {
+                    removeWinning(side, segment);
+                } else if (marks + 1 == winStreak - 1) {
+                    addWinning(side, segment);
+                }
+            }
+            if (marks == 0) {
+                // The segment was open for the opponent and is closed now
+                openSegments[other][opponentMarks]--;
+                opponentDelta = -weights[opponentMarks];
+                if (opponentMarks == winStreak - 1) {
+                    removeWinning(other, segment);
+                }
+            }
+            if (ownDelta != 0 || opponentDelta != 0) {
+                long[] ownScores = scores[side];
+                long[] opponentScores = scores[other];
+                for (int j = segment * winStreak; j < segment * winStreak + winStreak; j++) {
+                    ownScores[segments.cells[j]] += ownDelta;
+                    opponentScores[segments.cells[j]] += opponentDelta;
+                }
+            }
+        }
+    }
+
+    /**
+     * Brings the evaluator up to date with a board. If the board holds exactly one mark more than the
+     * evaluator has counted, as when the opponent played since the last sync, only that mark is counted.
+     * Otherwise the evaluator is rebuilt from all the cells of the board.
+     *
+     * @param board The board, of the evaluator's size.
+     */
+    public void sync(Board board) {
+        int markCount = board.getMarkCount();
+        if (markCount == moveCount) {
+            return;
+        }
+        int lastRow = board.getLastRow();
+        int lastCol = board.getLastCol();
+        if (markCount == moveCount + 1 && lastRow >= 0 && cells[lastRow * size + lastCol] == 0) {
+            play(board.getMark(lastRow, lastCol), lastRow, lastCol);
+            return;
+        }
+        reset();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                Mark mark = board.getMark(row, col);
+                if (mark != Mark.BLANK) {
+                    play(mark, row, col);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a cell that wins the game for a player at once.
+     *
+     * @param mark The player's mark.
+     * @return The cell as row * size + col, or -1 if the player has no winning move.
+     */
+    public int getWinningCell(Mark mark) {
+        int side = side(mark);
+        if (winningCount[side] == 0) {
+            return -1;
+        }
+        int segment = winning[side][0];
+        for (int i = segment * winStreak; i < segment * winStreak + winStreak; i++) {
+            if (cells[segments.cells[i]] == 0) {
+                return segments.cells[i];
+            }
+        }
+        throw new IllegalStateException("Winning segment " + segment + " has no empty cell");
+    }
+
+    /**
+     * Returns the number of segments that hold a number of a player's marks and none of the opponent's.
+     * With marks = winStreak - 1 these are the player's immediate threats.
+     *
+     * @param mark  The player's mark.
+     * @param marks The number of the player's marks, between 0 and winStreak.
+     * @return The number of segments.
+     */
+    public int getOpenSegments(Mark mark, int marks) {
+        return openSegments[side(mark)][marks];
+    }
+
+    /**
+     * Returns the threat score of a cell for a player.
+     *
+     * @param mark The player's mark.
+     * @param row  The row of the cell.
+     * @param col  The column of the cell.
+     * @return The score, 0 if no open segment of the player runs through the cell.
+     */
+    public long getScore(Mark mark, int row, int col) {
+        return scores[side(mark)][row * size + col];
+    }
+
+    /**
+     * Returns the empty cell with the best threat score for a player: twice its own score plus the
+     * opponent's score, so a cell is valued both for building the player's segments and for breaking the
+     * opponent's. Ties go to the first cell. This costs O(cells).
+     *
+     * @param mark The player's mark.
+     * @return The cell as row * size + col, or -1 if the board is full.
+     */
+    public int getBestCell(Mark mark) {
+        long[] own = scores[side(mark)];
+        long[] opponent = scores[1 - side(mark)];
+        int best = -1;
+        long bestScore = -1;
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] == 0) {
+                long score = 2 * own[cell] + opponent[cell];
+                if (score > bestScore) {
+                    best = cell;
+                    bestScore = score;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of marks counted since the last reset.
+     *
+     * @return The number of marks.
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Returns the size of the board.
+     *
+     * @return The size of the board.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the win streak.
+     *
+     * @return The win streak.
+     */
+    public int getWinStreak() {
+        return winStreak;
+    }
+
+    /**
+     * Returns the index of a player's counts.
+     *
+     * @param mark The player's mark, X or O.
+     * @return 0 for X, 1 for O.
+     */
+    private static int side(Mark mark) {
+        if (mark == Mark.BLANK) {
+            throw new IllegalArgumentException("A player's mark must be X or O");
+        }
+        return mark.ordinal() - 1;
+    }
+
+    /**
+     * Adds a segment to a player's winning segments.
+     *
+     * @param side    The player's index.
+     * @param segment The segment.
+     */
+    private void addWinning(int side, int segment) {
+        winningPositions[side][segment] = winningCount[side];
+        winning[side][winningCount[side]++] = segment;
+    }
+
+    /**
+     * Swap-removes a segment from a player's winning segments.
+     *
+     * @param side    The player's index.
+     * @param segment The segment.
+     */
+    private void removeWinning(int side, int segment) {
+        int position = winningPositions[side][segment];
+        int last = winning[side][--winningCount[side]];
+        winning[side][position] = last;
+        winningPositions[side][last] = position;
+        winningPositions[side][segment] = -1;
+    }
+}
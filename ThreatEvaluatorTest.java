@@ -0,0 +1,147 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the ThreatEvaluator and TacticianPlayer classes.
+ *
+ * @author Amir Rosengarten
+ */
+class ThreatEvaluatorTest {
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    /**
+     * Checks after every move of random games that the incremental counts agree with a scan of the board,
+     * and that an evaluator rebuilt by sync agrees with the incremental one.
+     */
+    @Test
+    void checkCountsMatchScan() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int size = 1; size <= 9; size++) {
+            for (int winStreak = 1; winStreak <= size; winStreak++) {
+                Board board = new Board(size);
+                ThreatEvaluator evaluator = new ThreatEvaluator(size, winStreak);
+                for (int game = 0; game < 3; game++) {
+                    board.reset();
+                    evaluator.reset();
+                    Mark mark = Mark.X;
+                    while (board.getEmptyCount() > 0) {
+                        int cell = board.getEmptyCell(random.nextInt(board.getEmptyCount()));
+                        board.putMark(mark, cell / size, cell % size);
+                        evaluator.play(mark, cell / size, cell % size);
+                        assertMatchesScan(board, evaluator);
+                        if (random.nextInt(8) == 0) {
+                            ThreatEvaluator rebuilt = new ThreatEvaluator(size, winStreak);
+                            rebuilt.sync(board);
+                            assertEquals(evaluator.getMoveCount(), rebuilt.getMoveCount());
+                            assertMatchesScan(board, rebuilt);
+                        }
+                        mark = mark == Mark.X ? Mark.O : Mark.X;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the tactician takes a win, blocks the opponent's win, and prefers winning to blocking.
+     */
+    @Test
+    void checkWinsAndBlocks() {
+        TacticianPlayer player = new TacticianPlayer(new SplittableRandom(2));
+        Board board = new Board(3);
+        player.startGame(3, 3);
+        board.putMark(Mark.X, 0, 0);
+        board.putMark(Mark.O, 1, 1);
+        board.putMark(Mark.X, 0, 1);
+        player.playTurn(board, Mark.O);
+        assertEquals(Mark.O, board.getMark(0, 2));
+
+        board = new Board(5);
+        player.startGame(5, 4);
+        board.putMark(Mark.X, 2, 0);
+        board.putMark(Mark.O, 0, 0);
+        board.putMark(Mark.X, 2, 1);
+        board.putMark(Mark.O, 1, 1);
+        board.putMark(Mark.X, 2, 2);
+        board.putMark(Mark.O, 2, 4);
+        board.putMark(Mark.X, 4, 4);
+        player.playTurn(board, Mark.O);
+        assertEquals(Mark.O, board.getMark(2, 3));
+
+        board = new Board(4);
+        player.startGame(4, 3);
+        board.putMark(Mark.X, 0, 0);
+        board.putMark(Mark.O, 3, 0);
+        board.putMark(Mark.X, 0, 1);
+        board.putMark(Mark.O, 3, 1);
+        board.putMark(Mark.X, 2, 3);
+        player.playTurn(board, Mark.O);
+        assertEquals(Mark.O, board.getMark(3, 2));
+        assertEquals(Mark.BLANK, board.getMark(0, 2));
+    }
+
+    /**
+     * Checks that the tactician beats the genius and clever players on a 9x9 board.
+     */
+    @Test
+    void checkBeatsGenius() {
+        PlayerFactory factory = new PlayerFactory(3);
+        SimulationResult genius = new Simulation(() -> factory.buildPlayer("tactician"),
+                () -> factory.buildPlayer("genius"), 9, 4, 200, 1).run();
+        assertTrue(genius.getPlayer1WinRate() > 0.9, genius.toString());
+        SimulationResult clever = new Simulation(() -> factory.buildPlayer("tactician"),
+                () -> factory.buildPlayer("clever"), 9, 4, 200, 1).run();
+        assertTrue(clever.getPlayer1WinRate() > 0.9, clever.toString());
+    }
+
+    /**
+     * Asserts that the open segment counts and winning cells of an evaluator agree with a scan of the
+     * board.
+     *
+     * @param board     The board.
+     * @param evaluator The evaluator of the board.
+     */
+    private static void assertMatchesScan(Board board, ThreatEvaluator evaluator) {
+        int size = board.getSize();
+        int winStreak = evaluator.getWinStreak();
+        for (Mark mark : new Mark[]{Mark.X, Mark.O}) {
+            int[] open = new int[winStreak + 1];
+            boolean canWin = false;
+            int directionCount = winStreak == 1 ? 1 : DIRECTIONS.length;
+            for (int d = 0; d < directionCount; d++) {
+                for (int row = 0; row < size; row++) {
+                    for (int col = 0; col < size; col++) {
+                        int lastRow = row + DIRECTIONS[d][0] * (winStreak - 1);
+                        int lastCol = col + DIRECTIONS[d][1] * (winStreak - 1);
+                        if (lastRow >= size || lastCol < 0 || lastCol >= size) {
+                            continue;
+                        }
+                        int own = 0;
+                        int other = 0;
+                        for (int i = 0; i < winStreak; i++) {
+                            Mark cell = board.getMark(row + DIRECTIONS[d][0] * i, col + DIRECTIONS[d][1] * i);
+                            own += cell == mark ? 1 : 0;
+                            other += cell != mark && cell != Mark.BLANK ? 1 : 0;
+                        }
+                        if (other == 0) {
+                            open[own]++;
+                            canWin |= own == winStreak - 1;
+                        }
+                    }
+                }
+            }
+            for (int marks = 0; marks <= winStreak; marks++) {
+                assertEquals(open[marks], evaluator.getOpenSegments(mark, marks));
+            }
+            int cell = evaluator.getWinningCell(mark);
+            assertEquals(canWin, cell >= 0);
+            if (canWin) {
+                assertEquals(Mark.BLANK, board.getMark(cell / size, cell % size));
+                assertTrue(evaluator.getScore(mark, cell / size, cell % size) >= 1L << 4 * (winStreak - 1));
+            }
+        }
+    }
+}
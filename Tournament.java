@@ -1,13 +1,24 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
 /**
- * This class is responsible for running a tournament between two players.
+ * This class is responsible for running a tournament between two players. The rounds are played by a
+ * Simulation and can be split between several worker threads, each playing with its own players and
+ * games.
  *
  * @author Amir Rosengarten
  */
 public class Tournament {
+    private static final String NO_RENDERER = "none";
+    private static final double DEFAULT_ERROR_RATE = 0.05;
     private final int rounds;
     private final Renderer renderer;
-    private final Player player1;
-    private final Player player2;
+    private final Supplier<Player> player1;
+    private final Supplier<Player> player2;
+    private final int threads;
+    private final GameRecordWriter recorder;
 
     /**
      * Constructs a new tournament with the given parameters.
@@ -18,14 +29,48 @@ public class Tournament {
      * @param player2  The second player.
      */
     public Tournament(int rounds, Renderer renderer, Player player1, Player player2) {
+        this(rounds, renderer, () -> player1, () -> player2, 1);
+    }
+
+    /**
+     * Constructs a new tournament that splits its rounds between worker threads. Every worker gets its
+     * own players from the given suppliers, which are called on the thread that runs the tournament.
+     * The renderer is shared by all workers.
+     *
+     * @param rounds   The number of rounds to play.
+     * @param renderer The renderer to use.
+     * @param player1  Supplies the first player of each worker.
+     * @param player2  Supplies the second player of each worker.
+     * @param threads  The number of worker threads.
+     */
+    public Tournament(int rounds, Renderer renderer, Supplier<Player> player1, Supplier<Player> player2,
+                      int threads) {
+        this(rounds, renderer, player1, player2, threads, null);
+    }
+
+    /**
+     * Constructs a new tournament that splits its rounds between worker threads and appends every game
+     * to a record file. The writer is shared by all workers and is not closed by the tournament.
+     *
+     * @param rounds   The number of rounds to play.
+     * @param renderer The renderer to use.
+     * @param player1  Supplies the first player of each worker.
+     * @param player2  Supplies the second player of each worker.
+     * @param threads  The number of worker threads.
+     * @param recorder The writer to record the games with, or null to not record them.
+     */
+    public Tournament(int rounds, Renderer renderer, Supplier<Player> player1, Supplier<Player> player2,
+                      int threads, GameRecordWriter recorder) {
         this.rounds = rounds;
         this.renderer = renderer;
         this.player1 = player1;
         this.player2 = player2;
+        this.threads = threads;
+        this.recorder = recorder;
     }
 
     /**
-     * Runs the tournament.
+     * Runs the tournament and prints the results.
      *
      * @param size        The size of the board.
      * @param winStreak   The win streak.
@@ -33,41 +78,94 @@ public class Tournament {
      * @param playerName2 The name of the second player.
      */
     public void playTournament(int size, int winStreak, String playerName1, String playerName2) {
-        int player1Wins = 0;
-        int player2Wins = 0;
-        int draws = 0;
-
-        for (int i = 0; i < this.rounds; i++) {
-            Game game = initializeGame(i, size, winStreak);
-            Mark winner = game.run();
-
-            // Update scores directly in the loop
-            if ((winner == Mark.X && i % 2 == 0) || (winner == Mark.O && i % 2 == 1)) {
-                player1Wins++;
-            } else if ((winner == Mark.X && i % 2 == 1) || (winner == Mark.O && i % 2 == 0)) {
-                player2Wins++;
-            } else {
-                draws++;
-            }
+        playTournament(size, winStreak, playerName1, playerName2, null);
+    }
+
+    /**
+     * Runs the tournament and prints the results. With a sequential test, the tournament stops as soon as
+     * the test is decided, and the decision and the rounds it took are printed too.
+     *
+     * @param size        The size of the board.
+     * @param winStreak   The win streak.
+     * @param playerName1 The name of the first player.
+     * @param playerName2 The name of the second player.
+     * @param test        The test, or null to play all rounds.
+     */
+    public void playTournament(int size, int winStreak, String playerName1, String playerName2,
+                               SequentialTest test) {
+        SimulationResult result = simulate(size, winStreak, playerName1, playerName2, test);
+        printResults(playerName1, playerName2, result.getPlayer1Wins(), result.getPlayer2Wins(),
+                result.getDraws());
+        if (result.getDecision() != null) {
+            System.out.printf("Sequential test: %s after %d of %d rounds%n", result.getDecision(),
+                    result.getGames(), rounds);
         }
-        printResults(playerName1, playerName2, player1Wins, player2Wins, draws);
     }
 
     /**
-     * Initializes a game with alternating players.
+     * Runs the tournament as a Simulation and returns its statistics, without printing them.
      *
-     * @param round     The current round.
-     * @param size      The size of the board.
-     * @param winStreak The win streak.
-     * @return The initialized game.
+     * @param size        The size of the board.
+     * @param winStreak   The win streak.
+     * @param playerName1 The name of the first player, used to record the games.
+     * @param playerName2 The name of the second player, used to record the games.
+     * @return The result of the simulation.
      */
-    private Game initializeGame(int round, int size, int winStreak) {
-        // Initialize game with alternating players
-        if (round % 2 == 0) {
-            return new Game(player1, player2, size, winStreak, renderer);
-        } else {
-            return new Game(player2, player1, size, winStreak, renderer);
+    public SimulationResult simulate(int size, int winStreak, String playerName1, String playerName2) {
+        return simulate(size, winStreak, playerName1, playerName2, null);
+    }
+
+    /**
+     * Runs the tournament as a Simulation that stops as soon as a sequential test of the win rate of the
+     * first player is decided, and returns its statistics. The result holds the decision and the number
+     * of rounds that were needed, at most the rounds of the tournament.
+     *
+     * @param size        The size of the board.
+     * @param winStreak   The win streak.
+     * @param playerName1 The name of the first player, used to record the games.
+     * @param playerName2 The name of the second player, used to record the games.
+     * @param test        The test, or null to play all rounds.
+     * @return The result of the simulation.
+     */
+    public SimulationResult simulate(int size, int winStreak, String playerName1, String playerName2,
+                                     SequentialTest test) {
+        Simulation.GameListener listener = null;
+        if (recorder != null) {
+            int[] ids = {playerId(playerName1), playerId(playerName2)};
+            ThreadLocal<GameRecord> records = ThreadLocal.withInitial(GameRecord::new);
+            listener = (round, game, winner) -> {
+                GameRecord record = records.get();
+                record.set(game, ids[round % 2], ids[1 - round % 2], winner);
+                writeRecord(record);
+            };
         }
+        Simulation simulation = new Simulation(player1, player2, size, winStreak, rounds, threads, renderer,
+                listener, null);
+        return test == null ? simulation.run() : simulation.run(test);
+    }
+
+    /**
+     * Appends a record to the record file.
+     *
+     * @param record The record.
+     */
+    private void writeRecord(GameRecord record) {
+        try {
+            recorder.write(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the record id of a player name.
+     *
+     * @param playerName The name of the player.
+     * @return The id of the player type, or GameRecord.UNKNOWN_PLAYER if the name is not a type.
+     */
+    private static int playerId(String playerName) {
+        int id = PlayerFactory.getPlayerId(playerName);
+        return id < 0 ? GameRecord.UNKNOWN_PLAYER : id;
     }
 
     /**
@@ -79,8 +177,8 @@ public class Tournament {
      * @param player2Wins The number of wins of the second player.
      * @param draws       The number of draws.
      */
-    private void printResults(String playerName1, String playerName2, int player1Wins, int player2Wins,
-                              int draws) {
+    private void printResults(String playerName1, String playerName2, long player1Wins, long player2Wins,
+                              long draws) {
         System.out.println("######### Results #########");
         System.out.printf("Player 1, %s won: %d rounds%n", playerName1, player1Wins);
         System.out.printf("Player 2, %s won: %d rounds%n", playerName2, player2Wins);
@@ -100,14 +198,38 @@ public class Tournament {
     }
 
     /**
-     * Creates a player of the given type.
+     * Creates the player factory for a run. If a seed is given, all players draw from splits of one
+     * generator with that seed, so the run can be reproduced with the same seed and thread count.
      *
-     * @param playerType The type of the player.
-     * @return The created player.
+     * @param args The arguments to the program.
+     * @return The created player factory.
      */
-    private static Player createPlayer(String playerType) {
-        PlayerFactory playerFactory = new PlayerFactory();
-        return playerFactory.buildPlayer(playerType);
+    private static PlayerFactory createPlayerFactory(String[] args) {
+        if (args.length > 7) {
+            return new PlayerFactory(Long.parseLong(args[7]));
+        }
+        return new PlayerFactory();
+    }
+
+    /**
+     * Creates the sequential test set by the system property "sprt" as "p0,p1" or "p0,p1,alpha,beta",
+     * with error rates of 0.05 by default.
+     *
+     * @return The test, or null if the property is not set.
+     * @throws IllegalArgumentException If the property is malformed or its rates are out of range.
+     */
+    private static SequentialTest createSequentialTest() {
+        String sprt = System.getProperty("sprt");
+        if (sprt == null) {
+            return null;
+        }
+        String[] values = sprt.split(",");
+        if (values.length < 2) {
+            throw new IllegalArgumentException("p0 and p1 are required");
+        }
+        double alpha = values.length > 2 ? Double.parseDouble(values[2]) : DEFAULT_ERROR_RATE;
+        double beta = values.length > 3 ? Double.parseDouble(values[3]) : DEFAULT_ERROR_RATE;
+        return new SequentialTest(Double.parseDouble(values[0]), Double.parseDouble(values[1]), alpha, beta);
     }
 
     /**
@@ -121,15 +243,33 @@ public class Tournament {
      * @param player2     The second player.
      * @param player1Name The name of the first player.
      * @param player2Name The name of the second player.
+     * @param threads     The number of worker threads.
+     * @param factory     The factory that builds the players of the other workers.
+     * @param recorder    The writer to record the games with, or null to not record them.
+     * @param test        The sequential test that may stop the tournament early, or null.
      */
     private static void runTournament(int rounds, int size, int winStreak, Renderer renderer, Player player1,
-                                      Player player2, String player1Name, String player2Name) {
-        Tournament tournament = new Tournament(rounds, renderer, player1, player2);
-        tournament.playTournament(size, winStreak, player1Name, player2Name);
+                                      Player player2, String player1Name, String player2Name, int threads,
+                                      PlayerFactory factory, GameRecordWriter recorder, SequentialTest test) {
+        Tournament tournament;
+        if (threads > 1) {
+            tournament = new Tournament(rounds, renderer, () -> factory.buildPlayer(player1Name),
+                    () -> factory.buildPlayer(player2Name), threads, recorder);
+        } else {
+            tournament = new Tournament(rounds, renderer, () -> player1, () -> player2, 1, recorder);
+        }
+        tournament.playTournament(size, winStreak, player1Name, player2Name, test);
     }
 
     /**
-     * Runs a tournament between two players.
+     * Runs a tournament between two players. An optional seventh argument sets the number of worker
+     * threads. Several threads are only used with the "none" renderer, so output never interleaves.
+     * An optional eighth argument is a seed that makes the run reproducible. An optional ninth argument
+     * is a file that every game is appended to, in the format of GameRecordWriter, which only holds boards
+     * of size up to GameRecord.MAX_SIZE.
+     * With -Dmetrics=true the Metrics timers are reported periodically and at the end of the run. With
+     * -Dsprt=p0,p1[,alpha,beta] the tournament stops as soon as a SequentialTest of the win rate of the
+     * first player is decided.
      *
      * @param args The arguments to the program.
      */
@@ -140,17 +280,51 @@ public class Tournament {
         String rendererType = args[3].toLowerCase();
         String player1Type = args[4].toLowerCase();
         String player2Type = args[5].toLowerCase();
+        int threads = args.length > 6 ? Integer.parseInt(args[6]) : 1;
+        if (!rendererType.equals(NO_RENDERER)) {
+            threads = 1;
+        }
         Renderer renderer = createRenderer(rendererType, size);
         if (renderer == null) {
             System.out.println(Constants.UNKNOWN_RENDERER_NAME);
             return;
         }
-        Player player1 = createPlayer(player1Type);
-        Player player2 = createPlayer(player2Type);
+        PlayerFactory playerFactory = createPlayerFactory(args);
+        Player player1 = playerFactory.buildPlayer(player1Type);
+        Player player2 = playerFactory.buildPlayer(player2Type);
         if (player1 == null || player2 == null) {
             System.out.println(Constants.UNKNOWN_PLAYER_NAME);
             return;
         }
-        runTournament(rounds, size, winStreak, renderer, player1, player2, player1Type, player2Type);
+        SequentialTest test;
+        try {
+            test = createSequentialTest();
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid sprt property, expected p0,p1[,alpha,beta]: " + e.getMessage());
+            return;
+        }
+        if (args.length > 8 && (size < 2 || size > GameRecord.MAX_SIZE)) {
+            System.out.println("Games can only be recorded on boards of size 2 to " + GameRecord.MAX_SIZE +
+                    ", got " + size);
+            return;
+        }
+        Metrics.Reporter reporter = Metrics.startReporter();
+        try {
+            if (args.length > 8) {
+                try (GameRecordWriter recorder = new GameRecordWriter(Path.of(args[8]))) {
+                    runTournament(rounds, size, winStreak, renderer, player1, player2, player1Type, player2Type,
+                            threads, playerFactory, recorder, test);
+                } catch (IOException | UncheckedIOException e) {
+                    System.out.println("Could not write the game records: " + e.getMessage());
+                }
+                return;
+            }
+            runTournament(rounds, size, winStreak, renderer, player1, player2, player1Type, player2Type,
+                    threads, playerFactory, null, test);
+        } finally {
+            if (reporter != null) {
+                reporter.close();
+            }
+        }
     }
 }
\ No newline at end of file
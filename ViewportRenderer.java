@@ -0,0 +1,123 @@
+import java.io.PrintStream;
+
+/**
+ * Renders the active region of a board of any size to the console, one character per cell, with row and
+ * column numbers of as many digits as the size needs. The region is a window of at most viewport rows and
+ * columns, centered on all marks if they fit in it, or else on the last move. The marks of a SparseBoard
+ * are bounded without visiting the empty cells, and smaller boards are shown whole, so rendering costs
+ * O(viewport^2) however large the board is.
+ *
+ * @author Amir Rosengarten
+ */
+public class ViewportRenderer implements Renderer {
+    private static final int DEFAULT_VIEWPORT = 20;
+    private static final char EMPTY_CHAR = '.';
+    private final int viewport;
+    private final int cellWidth;
+    private final PrintStream out;
+    private final StringBuilder frame = new StringBuilder();
+
+    /**
+     * Constructs a new renderer with the default viewport, printing to System.out.
+     *
+     * @param size The size of the board.
+     */
+    public ViewportRenderer(int size) {
+        this(size, DEFAULT_VIEWPORT, System.out);
+    }
+
+    /**
+     * Constructs a new renderer.
+     *
+     * @param size     The size of the board.
+     * @param viewport The largest number of rows and columns shown.
+     * @param out      The stream to print to.
+     */
+    public ViewportRenderer(int size, int viewport, PrintStream out) {
+        if (viewport < 1) {
+            throw new IllegalArgumentException("Viewport must be at least 1");
+        }
+        this.viewport = viewport;
+        this.cellWidth = Integer.toString(Math.max(0, size - 1)).length() + 1;
+        this.out = out;
+    }
+
+    /**
+     * Prints the active region of the board.
+     *
+     * @param board The board to render.
+     */
+    @Override
+    public void renderBoard(Board board) {
+        int size = board.getSize();
+        int rows = Math.min(size, viewport);
+        int firstRow = 0;
+        int firstCol = 0;
+        if (size > viewport) {
+            int minRow = board.getLastRow();
+            int maxRow = minRow;
+            int minCol = board.getLastCol();
+            int maxCol = minCol;
+            if (board instanceof SparseBoard && ((SparseBoard) board).getMinRow() >= 0) {
+                SparseBoard sparse = (SparseBoard) board;
+                if (sparse.getMaxRow() - sparse.getMinRow() < viewport &&
+                        sparse.getMaxCol() - sparse.getMinCol() < viewport) {
+                    minRow = sparse.getMinRow();
+                    maxRow = sparse.getMaxRow();
+                    minCol = sparse.getMinCol();
+                    maxCol = sparse.getMaxCol();
+                }
+            }
+            if (minRow < 0) {
+                // An empty board shows its center
+                minRow = maxRow = minCol = maxCol = size / 2;
+            }
+            firstRow = windowStart(minRow, maxRow, size);
+            firstCol = windowStart(minCol, maxCol, size);
+        }
+        frame.setLength(0);
+        pad(0);
+        for (int col = firstCol; col < firstCol + rows; col++) {
+            pad(Integer.toString(col).length());
+            frame.append(col);
+        }
+        frame.append('\n');
+        for (int row = firstRow; row < firstRow + rows; row++) {
+            pad(Integer.toString(row).length());
+            frame.append(row);
+            for (int col = firstCol; col < firstCol + rows; col++) {
+                Mark mark = board.getMark(row, col);
+                pad(1);
+                frame.append(mark == Mark.BLANK ? EMPTY_CHAR : mark.toString().charAt(0));
+            }
+            frame.append('\n');
+        }
+        out.print(frame);
+        out.flush();
+    }
+
+    /**
+     * Returns the first row or column of a window of viewport lines that shows a range centered and
+     * lies within the board.
+     *
+     * @param min  The first line of the range.
+     * @param max  The last line of the range.
+     * @param size The size of the board.
+     * @return The first line of the window.
+     */
+    private int windowStart(int min, int max, int size) {
+        int start = (min + max + 1) / 2 - viewport / 2;
+        return Math.max(0, Math.min(start, size - viewport));
+    }
+
+    /**
+     * Appends spaces so that a value of the given width ends at the next cell boundary.
+     *
+     * @param width The width of the value, 0 for an empty cell.
+     */
+    private void pad(int width) {
+        for (int i = width; i < cellWidth; i++) {
+            frame.append(' ');
+        }
+    }
+}
@@ -1,31 +1,44 @@
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * A WhateverPlayer is a player that plays randomly. It implements the Player interface.
+ * The random generator is owned by the player, so players on different threads never share one.
  *
  * @author Amir Rosengarten
  */
 public class WhateverPlayer implements Player {
-    private Random random = new Random();
+    private final RandomGenerator random;
 
     /**
-     * Constructs a new WhateverPlayer.
+     * Constructs a new WhateverPlayer with an unseeded generator.
      */
-    public WhateverPlayer() {};
+    public WhateverPlayer() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Constructs a new WhateverPlayer that draws its moves from the given generator. A seeded generator
+     * makes the moves reproducible.
+     *
+     * @param random The generator to use. It must not be shared with other threads.
+     */
+    public WhateverPlayer(RandomGenerator random) {
+        this.random = random;
+    }
 
     /**
-     * Plays a turn on the given board.
+     * Plays a turn on the given board, in an empty cell chosen uniformly at random.
      *
      * @param board The board to play on.
      * @param mark  The mark to play.
      */
     @Override
     public void playTurn(Board board, Mark mark) {
-        int row, col;
-        do {
-            row = random.nextInt(board.getSize());
-            col = random.nextInt(board.getSize());
-        } while (board.getMark(row, col) != Mark.BLANK);
-        board.putMark(mark, row, col);
+        if (board.getEmptyCount() == 0) {
+            return;
+        }
+        int cell = board.getEmptyCell(random.nextInt(board.getEmptyCount()));
+        board.putMark(mark, cell / board.getSize(), cell % board.getSize());
     }
 }
\ No newline at end of file
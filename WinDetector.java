@@ -0,0 +1,69 @@
+import java.util.Arrays;
+
+/**
+ * Finds a streak of one mark anywhere on a board packed into one int bit mask per row: bit col of rows[row]
+ * is set if the mark is in cell (row, col). Implementations test many windows at once by ANDing the masks
+ * with shifted copies of themselves or of the following rows, so a board is checked in O(size * winStreak)
+ * word operations instead of O(size^2 * winStreak) cell reads. Detectors are stateless and may be shared
+ * between threads.
+ *
+ * @author Amir Rosengarten
+ */
+public interface WinDetector {
+    /**
+     * The largest board size that fits in the packed rows.
+     */
+    int MAX_SIZE = 32;
+    /**
+     * The length of a rows array with room for a vector load past the last row of any board.
+     */
+    int ROWS = 2 * MAX_SIZE;
+
+    /**
+     * Checks if the packed rows hold a streak in a row, a column or a diagonal.
+     *
+     * @param rows      The packed rows, at least size of them, and zero past the last row.
+     * @param size      The size of the board, at most MAX_SIZE.
+     * @param winStreak The length of the streak, at least 1.
+     * @return True if there is a streak, false otherwise.
+     */
+    boolean hasStreak(int[] rows, int size, int winStreak);
+
+    /**
+     * Packs the cells of a mark into one bit mask per row, and clears the rest of the array. An array of
+     * ROWS ints lets a vector detector load whole vectors.
+     *
+     * @param board The board, of size at most MAX_SIZE.
+     * @param mark  The mark.
+     * @param rows  The array to fill, at least size long.
+     * @return The rows array.
+     */
+    static int[] pack(Board board, Mark mark, int[] rows) {
+        int size = board.getSize();
+        for (int row = 0; row < size; row++) {
+            int bits = 0;
+            for (int col = 0; col < size; col++) {
+                if (board.getMark(row, col) == mark) {
+                    bits |= 1 << col;
+                }
+            }
+            rows[row] = bits;
+        }
+        Arrays.fill(rows, size, rows.length, 0);
+        return rows;
+    }
+
+    /**
+     * Returns the fastest detector this JVM can run: a VectorWinDetector if it was compiled and the
+     * jdk.incubator.vector module is present, see the README, or else a ScalarWinDetector.
+     *
+     * @return The detector.
+     */
+    static WinDetector create() {
+        try {
+            return (WinDetector) Class.forName("VectorWinDetector").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarWinDetector();
+        }
+    }
+}
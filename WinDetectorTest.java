@@ -0,0 +1,92 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the WinDetector implementations. The vector detector is tested when the tests run with the
+ * jdk.incubator.vector module and the classes of the vector directory, see the README.
+ *
+ * @author Amir Rosengarten
+ */
+class WinDetectorTest {
+    private static final int BOARDS = 300;
+
+    /**
+     * Checks the scalar detector, and the detector WinDetector.create chose, against the checks of Game
+     * on random boards of every size from 2 to 9 and every win streak.
+     */
+    @Test
+    void checkMatchesGame() {
+        WinDetector[] detectors = {new ScalarWinDetector(), WinDetector.create()};
+        SplittableRandom random = new SplittableRandom(1);
+        int[] rows = new int[WinDetector.ROWS];
+        for (int size = 2; size <= 9; size++) {
+            Board board = new Board(size);
+            Game game = new Game(null, null, board, size, new VoidRenderer());
+            for (int i = 0; i < BOARDS; i++) {
+                board.reset();
+                // Boards from nearly empty to full, so both outcomes are common for every streak
+                int marks = random.nextInt(size * size + 1);
+                for (int placed = 0; placed < marks; placed++) {
+                    int cell = board.getEmptyCell(random.nextInt(board.getEmptyCount()));
+                    board.putMark(random.nextBoolean() ? Mark.X : Mark.O, cell / size, cell % size);
+                }
+                for (int winStreak = 1; winStreak <= size; winStreak++) {
+                    for (Mark mark : new Mark[]{Mark.X, Mark.O}) {
+                        boolean expected = game.checkHorizontal(board, winStreak, mark) ||
+                                game.checkVertical(board, winStreak, mark) ||
+                                game.checkDiagonal(board, winStreak, mark);
+                        WinDetector.pack(board, mark, rows);
+                        for (WinDetector detector : detectors) {
+                            assertEquals(expected, detector.hasStreak(rows, size, winStreak),
+                                    detector.getClass().getSimpleName() + " size " + size + " streak " + winStreak);
+                        }
+                        assertEquals(expected ? mark : Mark.BLANK, game.checkWinner(board, winStreak, mark));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks every single line of every size and streak, so each direction and position is covered
+     * exactly, including the rows past a vector's lanes.
+     */
+    @Test
+    void checkEveryLine() {
+        WinDetector[] detectors = {new ScalarWinDetector(), WinDetector.create()};
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int size = 2; size <= WinDetector.MAX_SIZE; size++) {
+            int[] rows = new int[WinDetector.ROWS];
+            for (int winStreak = 1; winStreak <= size; winStreak++) {
+                for (int[] direction : directions) {
+                    for (int row = 0; row < size; row++) {
+                        for (int col = 0; col < size; col++) {
+                            int lastRow = row + direction[0] * (winStreak - 1);
+                            int lastCol = col + direction[1] * (winStreak - 1);
+                            if (lastRow >= size || lastCol < 0 || lastCol >= size) {
+                                continue;
+                            }
+                            Arrays.fill(rows, 0);
+                            for (int i = 0; i < winStreak; i++) {
+                                rows[row + direction[0] * i] |= 1 << (col + direction[1] * i);
+                            }
+                            for (WinDetector detector : detectors) {
+                                assertTrue(detector.hasStreak(rows, size, winStreak));
+                                // One mark short is never a streak
+                                if (winStreak > 1) {
+                                    int[] broken = rows.clone();
+                                    broken[lastRow] &= ~(1 << lastCol);
+                                    assertFalse(detector.hasStreak(broken, size, winStreak));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
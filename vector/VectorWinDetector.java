@@ -0,0 +1,60 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A WinDetector on the incubating Vector API, which checks as many packed rows at once as the CPU has
+ * int lanes. Lane i holds row base + i. The windows of the rows are tested by ANDing the vector with its
+ * lane-wise shifts, and the windows of the columns and diagonals by ANDing it with the vectors loaded 1 to
+ * winStreak - 1 rows further, shifted lane-wise for the diagonals. The loads are whole vectors, so the lanes
+ * past the last row read the zeros that WinDetector.pack leaves there. Arrays too short for that, such as
+ * ones of only size ints, are checked by a ScalarWinDetector.
+ * <p>
+ * This class needs the jdk.incubator.vector module, so it lives apart from the other sources and is only
+ * loaded by WinDetector.create, see the README.
+ *
+ * @author Amir Rosengarten
+ */
+public class VectorWinDetector implements WinDetector {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final WinDetector SCALAR = new ScalarWinDetector();
+
+    /**
+     * Checks if the packed rows hold a streak in a row, a column or a diagonal.
+     *
+     * @param rows      The packed rows, at least size of them, and zero past the last row.
+     * @param size      The size of the board, at most MAX_SIZE.
+     * @param winStreak The length of the streak, at least 1.
+     * @return True if there is a streak, false otherwise.
+     */
+    @Override
+    public boolean hasStreak(int[] rows, int size, int winStreak) {
+        if (winStreak > size) {
+            return false;
+        }
+        int lanes = SPECIES.length();
+        if ((size - 1) / lanes * lanes + winStreak - 1 + lanes > rows.length) {
+            // The last vector load would run past the array
+            return SCALAR.hasStreak(rows, size, winStreak);
+        }
+        for (int base = 0; base < size; base += lanes) {
+            IntVector bits = IntVector.fromArray(SPECIES, rows, base);
+            IntVector horizontal = bits;
+            IntVector vertical = bits;
+            IntVector diagonal = bits;
+            IntVector antiDiagonal = bits;
+            for (int i = 1; i < winStreak; i++) {
+                horizontal = horizontal.and(bits.lanewise(VectorOperators.LSHR, i));
+                IntVector next = IntVector.fromArray(SPECIES, rows, base + i);
+                vertical = vertical.and(next);
+                diagonal = diagonal.and(next.lanewise(VectorOperators.LSHR, i));
+                antiDiagonal = antiDiagonal.and(next.lanewise(VectorOperators.LSHL, i));
+            }
+            IntVector any = horizontal.or(vertical).or(diagonal).or(antiDiagonal);
+            if (any.compare(VectorOperators.NE, 0).anyTrue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}